@@ -0,0 +1,8 @@
+package com.fptu.group1.common.event;
+
+/**
+ * Published when a category was created, updated or deleted. Category names and the
+ * hierarchy are denormalized into several catalog views, which rebuild after commit.
+ */
+public record CategoryChangedEvent(Long categoryId) {
+}
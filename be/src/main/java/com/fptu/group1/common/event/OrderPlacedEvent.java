@@ -0,0 +1,11 @@
+package com.fptu.group1.common.event;
+
+import java.util.Set;
+
+/**
+ * Published when checkout created an order. Listeners run after the order committed.
+ *
+ * @param variantIds the ordered variants; the user's other cart lines are not part of the order
+ */
+public record OrderPlacedEvent(Long orderId, Long userId, Set<Long> variantIds) {
+}
@@ -0,0 +1,7 @@
+package com.fptu.group1.common.event;
+
+/**
+ * Outbox payload for a staff change of an order's status.
+ */
+public record OrderStatusChangedEvent(Long orderId, Long userId, Long statusId, String statusName) {
+}
@@ -0,0 +1,15 @@
+package com.fptu.group1.common.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * A domain event read from the outbox, published by the relay to in-process
+ * {@code @EventListener}s. Delivery is at least once, and in order per aggregate; a
+ * listener that throws gets the event again on a later poll, and later events of the
+ * same aggregate wait until it succeeds.
+ *
+ * @param payload JSON written with the event, see {@code OutboxWriter}
+ */
+public record OutboxMessage(Long eventId, String aggregateType, Long aggregateId, String eventType,
+        String payload, LocalDateTime createdAt) {
+}
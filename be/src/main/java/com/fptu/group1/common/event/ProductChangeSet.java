@@ -0,0 +1,44 @@
+package com.fptu.group1.common.event;
+
+import java.util.List;
+
+/**
+ * What an update of a product actually changed: variants by SKU, specifications by
+ * key. Written to the outbox as the payload of a product update, and used to decide
+ * which in-memory views have to be refreshed.
+ *
+ * @param productChanged whether a column of the product itself changed
+ * @param variantsRestocked variants whose stock changed and nothing else
+ * @param variantsDeactivated variants left out of the update but still referenced by
+ *        orders or carts, so switched off instead of deleted
+ */
+public record ProductChangeSet(
+        Long productId,
+        boolean productChanged,
+        List<String> variantsAdded,
+        List<String> variantsUpdated,
+        List<String> variantsRestocked,
+        List<String> variantsDeactivated,
+        List<String> variantsRemoved,
+        List<String> specificationsAdded,
+        List<String> specificationsUpdated,
+        List<String> specificationsRemoved) {
+
+    public boolean isEmpty() {
+        return !productChanged && variantsRestocked.isEmpty() && !catalogChanged();
+    }
+
+    /**
+     * Only the stock of existing variants changed, so search and facet entries are
+     * still valid.
+     */
+    public boolean isStockOnly() {
+        return !productChanged && !variantsRestocked.isEmpty() && !catalogChanged();
+    }
+
+    private boolean catalogChanged() {
+        return !variantsAdded.isEmpty() || !variantsUpdated.isEmpty() || !variantsDeactivated.isEmpty()
+                || !variantsRemoved.isEmpty() || !specificationsAdded.isEmpty()
+                || !specificationsUpdated.isEmpty() || !specificationsRemoved.isEmpty();
+    }
+}
@@ -0,0 +1,19 @@
+package com.fptu.group1.common.event;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published when products were created, updated or deleted. Listeners that keep
+ * in-memory views of the catalog react to it after the transaction commits.
+ */
+public record ProductChangedEvent(Set<Long> productIds) {
+
+    public static ProductChangedEvent of(Long productId) {
+        return new ProductChangedEvent(Set.of(productId));
+    }
+
+    public static ProductChangedEvent of(Collection<Long> productIds) {
+        return new ProductChangedEvent(Set.copyOf(productIds));
+    }
+}
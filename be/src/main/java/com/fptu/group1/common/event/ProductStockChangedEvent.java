@@ -0,0 +1,16 @@
+package com.fptu.group1.common.event;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published when only variant stock of the given products changed (e.g. by checkout,
+ * or an admin update that just restocked). Only stock-dependent views need to react;
+ * the search and facet indexes do not.
+ */
+public record ProductStockChangedEvent(Set<Long> productIds) {
+
+    public static ProductStockChangedEvent of(Collection<Long> productIds) {
+        return new ProductStockChangedEvent(Set.copyOf(productIds));
+    }
+}
@@ -0,0 +1,19 @@
+package com.fptu.group1.common.exception;
+
+/**
+ * The request is valid but cannot be taken on right now, e.g. because a queue is full.
+ * Answered with 503 and a Retry-After header.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -3,10 +3,12 @@ package com.fptu.group1.common.exception.handler;
 import com.fptu.group1.common.constant.MessageConst;
 import com.fptu.group1.common.exception.BadRequestException;
 import com.fptu.group1.common.exception.ResourceNotFoundException;
+import com.fptu.group1.common.exception.ServiceUnavailableException;
 import com.fptu.group1.common.exception.UnauthorizedException;
 import com.fptu.group1.common.exception.dto.ErrorResponseBody;
 import com.fptu.group1.exception.DuplicateException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -71,6 +73,18 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.CONFLICT);
     }
     
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponseBody> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        ErrorResponseBody body = ErrorResponseBody.builder()
+                .code("E0503")
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(body);
+    }
+
     @ExceptionHandler(UnauthorizedException.class)
     public ResponseEntity<ErrorResponseBody> handleUnauthorizedException(UnauthorizedException ex) {
         ErrorResponseBody body = ErrorResponseBody.builder()
@@ -0,0 +1,47 @@
+package com.fptu.group1.common.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.fptu.group1.common.exception.BadRequestException;
+
+/**
+ * Encodes and decodes the opaque cursors of the staff order search. Results are
+ * ordered by (created_at DESC, order_id DESC); a cursor carries both keys of the last
+ * row of a page, so the next page is a seek instead of an OFFSET scan.
+ */
+public final class OrderCursorHelper {
+
+    private static final String SEPARATOR = "|";
+
+    private OrderCursorHelper() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static String encode(LocalDateTime createdAt, Long orderId) {
+        String raw = createdAt + SEPARATOR + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Position decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 2);
+            if (parts.length != 2) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new Position(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // NumberFormatException is an IllegalArgumentException
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Keys of the last row of the previous page.
+     */
+    public record Position(LocalDateTime createdAt, Long orderId) {
+    }
+}
@@ -0,0 +1,133 @@
+package com.fptu.group1.common.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import com.fptu.group1.common.exception.BadRequestException;
+import com.fptu.group1.model.Product;
+
+/**
+ * Encodes and decodes the opaque cursors used by keyset pagination on product lists.
+ * A cursor carries the sort key and product ID of the last row of a page, so the next
+ * page is a seek on (sort key, product_id) instead of an OFFSET scan.
+ */
+public final class ProductCursorHelper {
+
+    private static final String SEPARATOR = "|";
+    private static final String ID_PROPERTY = "productId";
+
+    // Sort keys usable for keyset pagination: non-null columns with a stable order
+    private static final Map<String, Function<Product, Object>> KEY_EXTRACTORS = Map.of(
+            "createdAt", Product::getCreatedAt,
+            "name", Product::getName,
+            ID_PROPERTY, Product::getProductId);
+
+    private ProductCursorHelper() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * The sort with product ID appended (in the direction of the first order), so rows with
+     * equal sort keys come back in the same order on every page and the cursor taken
+     * from a page continues exactly where that page ended.
+     */
+    public static Sort withTiebreaker(Sort sort) {
+        if (sort.isUnsorted() || sort.getOrderFor(ID_PROPERTY) != null) {
+            return sort;
+        }
+        return sort.and(Sort.by(sort.toList().get(0).getDirection(), ID_PROPERTY));
+    }
+
+    /**
+     * Whether the given sort can be used for keyset pagination: one supported sort key,
+     * optionally followed by the product ID tiebreaker.
+     */
+    public static boolean supports(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.isEmpty() || orders.size() > 2 || !KEY_EXTRACTORS.containsKey(orders.get(0).getProperty())) {
+            return false;
+        }
+        return orders.size() == 1 || orders.get(1).getProperty().equals(ID_PROPERTY);
+    }
+
+    /**
+     * Cursor for the page following the given rows, or null when there is none
+     * (last page, or a sort that cannot be paginated by keyset).
+     */
+    public static String nextCursor(List<Product> rows, boolean hasNext, Sort sort) {
+        if (!hasNext || rows.isEmpty() || !supports(sort)) {
+            return null;
+        }
+        return encode(rows.get(rows.size() - 1), sort);
+    }
+
+    /**
+     * Build the cursor pointing right after the given product.
+     */
+    public static String encode(Product product, Sort sort) {
+        Sort.Order order = requireKeysetOrder(sort);
+        Object value = KEY_EXTRACTORS.get(order.getProperty()).apply(product);
+        String raw = String.join(SEPARATOR,
+                order.getProperty(),
+                order.getDirection().name(),
+                String.valueOf(product.getProductId()),
+                String.valueOf(value));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Turn a cursor back into a scroll position. The cursor must have been issued for the same sort.
+     */
+    public static KeysetScrollPosition decode(String cursor, Sort sort) {
+        Sort.Order order = requireKeysetOrder(sort);
+
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            parts = raw.split("\\" + SEPARATOR, 4);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+
+        if (parts.length != 4) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        if (!parts[0].equals(order.getProperty()) || !parts[1].equals(order.getDirection().name())) {
+            throw new BadRequestException("Cursor does not match the requested sort order");
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            keys.put(order.getProperty(), parseValue(order.getProperty(), parts[3]));
+            keys.put(ID_PROPERTY, Long.valueOf(parts[2]));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    private static Sort.Order requireKeysetOrder(Sort sort) {
+        if (!supports(sort)) {
+            throw new BadRequestException("Cursor pagination only supports sorting by one of " + KEY_EXTRACTORS.keySet());
+        }
+        return sort.toList().get(0);
+    }
+
+    private static Object parseValue(String property, String value) {
+        return switch (property) {
+            case "createdAt" -> LocalDateTime.parse(value);
+            case ID_PROPERTY -> Long.valueOf(value);
+            default -> value;
+        };
+    }
+}
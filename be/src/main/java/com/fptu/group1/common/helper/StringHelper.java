@@ -1,7 +1,68 @@
 package com.fptu.group1.common.helper;
 
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
 public class StringHelper {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern NON_LATIN = Pattern.compile("[^\\w-]");
+    private static final Pattern WHITESPACE = Pattern.compile("[\\s]");
+
     private StringHelper() {
         // Private constructor to prevent instantiation
     }
+
+    /**
+     * Lower-case the text and strip diacritics, so Vietnamese input matches its
+     * unaccented form (e.g. "Điện thoại" -> "dien thoai").
+     */
+    public static String foldDiacritics(String text) {
+        if (text == null) {
+            return "";
+        }
+        // 'đ' is a distinct letter, not a base letter plus a combining mark
+        String lower = text.toLowerCase(Locale.ROOT).replace('đ', 'd');
+        return COMBINING_MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    /**
+     * Split text into folded alphanumeric search tokens.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_ALPHANUMERIC.split(foldDiacritics(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * URL-friendly slug of a product name: whitespace becomes dashes, other
+     * non-word characters are dropped.
+     */
+    public static String toSlug(String name) {
+        String nowhitespace = WHITESPACE.matcher(name).replaceAll("-");
+        String normalized = NON_LATIN.matcher(nowhitespace).replaceAll("");
+        String slug = normalized.toLowerCase(Locale.ENGLISH);
+
+        // Remove consecutive dashes
+        slug = slug.replaceAll("-+", "-");
+
+        // Remove leading and trailing dashes
+        if (slug.startsWith("-")) {
+            slug = slug.replaceFirst("^-+", "");
+        }
+        if (slug.endsWith("-")) {
+            slug = slug.replaceFirst("-+$", "");
+        }
+
+        return slug;
+    }
 }
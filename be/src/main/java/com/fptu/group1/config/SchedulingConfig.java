@@ -0,0 +1,13 @@
+package com.fptu.group1.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (reservation expiry and write-behind, purges, SSE
+ * heartbeats and stock flushes). The pool size is spring.task.scheduling.pool.size.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,68 +1,238 @@
 package com.fptu.group1.controller;
 
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fptu.group1.common.constant.RouteConst;
+import com.fptu.group1.common.exception.BadRequestException;
 import com.fptu.group1.dto.ApiResponse;
+import com.fptu.group1.dto.request.ProductFilterRequest;
 import com.fptu.group1.dto.response.PublicProductDetailResponse;
 import com.fptu.group1.dto.response.PublicProductPageResponse;
 import com.fptu.group1.service.ProductService;
+import com.fptu.group1.service.cache.ProductDetailCache;
+import com.fptu.group1.service.cache.SerializedProduct;
+import com.fptu.group1.service.stream.StockUpdateHub;
 
 @RestController
 @RequestMapping(RouteConst.API_BASE + "/products")
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductDetailCache productDetailCache;
+    private final ObjectMapper objectMapper;
+    private final StockUpdateHub stockUpdateHub;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductDetailCache productDetailCache, ObjectMapper objectMapper,
+            StockUpdateHub stockUpdateHub) {
         this.productService = productService;
+        this.productDetailCache = productDetailCache;
+        this.objectMapper = objectMapper;
+        this.stockUpdateHub = stockUpdateHub;
     }
 
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ApiResponse<PublicProductPageResponse>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(required = false) String sortBy,
             @RequestParam(defaultValue = "DESC") String sortDir,
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) Long categoryId,
-            @RequestParam(required = false) Long brandId) {
-
-        Sort sort = sortDir.equalsIgnoreCase("ASC") 
-                ? Sort.by(sortBy).ascending() 
-                : Sort.by(sortBy).descending();
+            @RequestParam(required = false) Long brandId,
+            @RequestParam(required = false) List<Long> categoryIds,
+            @RequestParam(required = false) List<Long> brandIds,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(name = "spec", required = false) List<String> specs,
+            @RequestParam(defaultValue = "false") boolean facets,
+            @RequestParam(required = false) List<String> facetSpecs,
+            @RequestParam(required = false) String after) {
+
+        // Keyword search ranks by relevance unless a sort is asked for
+        Sort sort;
+        if (sortBy == null && StringUtils.hasText(keyword)) {
+            sort = Sort.unsorted();
+        } else {
+            // "price" sorts by the cheapest active variant (denormalized on the product)
+            String sortProperty = sortBy == null ? "createdAt" : "price".equalsIgnoreCase(sortBy) ? "minPrice" : sortBy;
+            sort = sortDir.equalsIgnoreCase("ASC")
+                    ? Sort.by(sortProperty).ascending()
+                    : Sort.by(sortProperty).descending();
+        }
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        PublicProductPageResponse response = productService.getAllProducts(pageable, keyword, categoryId, brandId);
+        ProductFilterRequest filter = ProductFilterRequest.builder()
+                .keyword(keyword)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .includeFacets(facets)
+                .build();
+        if (categoryId != null) {
+            filter.getCategoryIds().add(categoryId);
+        }
+        if (categoryIds != null) {
+            filter.getCategoryIds().addAll(categoryIds);
+        }
+        if (brandId != null) {
+            filter.getBrandIds().add(brandId);
+        }
+        if (brandIds != null) {
+            filter.getBrandIds().addAll(brandIds);
+        }
+        if (specs != null) {
+            // Each value is "key:value", e.g. spec=RAM:8GB&spec=RAM:12GB
+            for (String spec : specs) {
+                int separator = spec.indexOf(':');
+                if (separator <= 0 || separator == spec.length() - 1) {
+                    throw new BadRequestException("Invalid spec filter '" + spec + "', expected key:value");
+                }
+                filter.getSpecifications()
+                        .computeIfAbsent(spec.substring(0, separator).trim(), key -> new HashSet<>())
+                        .add(spec.substring(separator + 1).trim());
+            }
+        }
+        if (facetSpecs != null) {
+            filter.getFacetSpecKeys().addAll(facetSpecs);
+        }
+
+        PublicProductPageResponse response = productService.getAllProducts(pageable, filter, after);
 
         return ResponseEntity.ok(ApiResponse.success("Products retrieved successfully", response));
     }
 
+    /**
+     * Product detail, written from pre-serialized bytes. A matching If-None-Match is
+     * answered with 304 straight from the cache, without calling the service.
+     */
     @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ApiResponse<PublicProductDetailResponse>> getProductById(
-            @PathVariable("id") Long productId) {
+    public ResponseEntity<byte[]> getProductById(
+            @PathVariable("id") Long productId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 
-        PublicProductDetailResponse response = productService.getProductById(productId);
+        SerializedProduct serialized = productDetailCache.findSerializedById(productId);
+        if (serialized == null) {
+            serialized = productDetailCache.serialize(productService.getProductById(productId), this::serializeDetail);
+        }
 
-        return ResponseEntity.ok(ApiResponse.success("Product retrieved successfully", response));
+        return toResponse(serialized, ifNoneMatch, acceptEncoding);
     }
 
     @GetMapping(value = "/slug/{slug}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ApiResponse<PublicProductDetailResponse>> getProductBySlug(
-            @PathVariable("slug") String slug) {
+    public ResponseEntity<byte[]> getProductBySlug(
+            @PathVariable("slug") String slug,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 
-        PublicProductDetailResponse response = productService.getProductBySlug(slug);
+        SerializedProduct serialized = productDetailCache.findSerializedBySlug(slug);
+        if (serialized == null) {
+            serialized = productDetailCache.serialize(productService.getProductBySlug(slug), this::serializeDetail);
+        }
 
-        return ResponseEntity.ok(ApiResponse.success("Product retrieved successfully", response));
+        return toResponse(serialized, ifNoneMatch, acceptEncoding);
+    }
+
+    /**
+     * Live stock of the given variants as Server-Sent Events: their current stock first,
+     * then a small event whenever it changes.
+     */
+    @GetMapping(value = "/stock/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStock(
+            @RequestParam Set<Long> variantIds) {
+
+        return stockUpdateHub.subscribe(variantIds);
+    }
+
+    private byte[] serializeDetail(PublicProductDetailResponse detail) {
+        try {
+            return objectMapper.writeValueAsBytes(ApiResponse.success("Product retrieved successfully", detail));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize product " + detail.getProductId(), e);
+        }
+    }
+
+    private ResponseEntity<byte[]> toResponse(SerializedProduct serialized, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        // no-cache: clients may store the body but must revalidate it with the ETag
+        CacheControl cacheControl = CacheControl.noCache().cachePublic();
+
+        if (serialized.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(serialized.etag(gzip))
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(serialized.etag(gzip))
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(serialized.gzip());
+        }
+        return response.body(serialized.json());
     }
-}
 
+    /**
+     * Whether Accept-Encoding allows gzip: listed (or covered by {@code *}) with a
+     * q-value above zero. {@code gzip;q=0} refuses it.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (!StringUtils.hasText(acceptEncoding)) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean accepted = qValue(parts) > 0;
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                return accepted;
+            }
+            if (name.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static double qValue(String[] codingParts) {
+        for (int i = 1; i < codingParts.length; i++) {
+            String parameter = codingParts[i].trim();
+            if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    // Malformed weight: treat the coding as not acceptable
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,36 @@
+package com.fptu.group1.controller.admin;
+
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fptu.group1.common.constant.AuthorityConst;
+import com.fptu.group1.common.constant.RouteConst;
+import com.fptu.group1.dto.ApiResponse;
+import com.fptu.group1.dto.response.CacheStatsResponse;
+import com.fptu.group1.service.cache.ProductDetailCache;
+
+@RestController
+@RequestMapping(RouteConst.API_BASE + "/admin/cache")
+public class CacheAdminController {
+
+    private final ProductDetailCache productDetailCache;
+
+    public CacheAdminController(ProductDetailCache productDetailCache) {
+        this.productDetailCache = productDetailCache;
+    }
+
+    @GetMapping(value = "/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize(AuthorityConst.AUTH_ROLE_ADMIN)
+    public ResponseEntity<ApiResponse<List<CacheStatsResponse>>> getCacheStats() {
+
+        List<CacheStatsResponse> response = List.of(productDetailCache.stats());
+
+        return ResponseEntity.ok(ApiResponse.success("Cache statistics retrieved successfully", response));
+    }
+}
@@ -0,0 +1,59 @@
+package com.fptu.group1.controller.admin;
+
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fptu.group1.common.constant.AuthorityConst;
+import com.fptu.group1.common.constant.RouteConst;
+import com.fptu.group1.dto.ApiResponse;
+import com.fptu.group1.dto.response.FlashSaleVariantResponse;
+import com.fptu.group1.service.inventory.FlashSaleCoordinator;
+
+@RestController
+@RequestMapping(RouteConst.API_BASE + "/admin/flash-sale/variants")
+public class FlashSaleAdminController {
+
+    private final FlashSaleCoordinator flashSaleCoordinator;
+
+    public FlashSaleAdminController(FlashSaleCoordinator flashSaleCoordinator) {
+        this.flashSaleCoordinator = flashSaleCoordinator;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize(AuthorityConst.AUTH_ROLE_ADMIN)
+    public ResponseEntity<ApiResponse<List<FlashSaleVariantResponse>>> getHotVariants() {
+
+        List<FlashSaleVariantResponse> response = flashSaleCoordinator.getHotVariants();
+
+        return ResponseEntity.ok(ApiResponse.success("Flash-sale variants retrieved successfully", response));
+    }
+
+    @PutMapping(value = "/{variantId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize(AuthorityConst.AUTH_ROLE_ADMIN)
+    public ResponseEntity<ApiResponse<FlashSaleVariantResponse>> markHot(
+            @PathVariable("variantId") Long variantId) {
+
+        FlashSaleVariantResponse response = flashSaleCoordinator.markHot(variantId);
+
+        return ResponseEntity.ok(ApiResponse.success("Flash-sale mode enabled", response));
+    }
+
+    @DeleteMapping(value = "/{variantId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize(AuthorityConst.AUTH_ROLE_ADMIN)
+    public ResponseEntity<ApiResponse<Void>> unmarkHot(
+            @PathVariable("variantId") Long variantId) {
+
+        flashSaleCoordinator.unmarkHot(variantId);
+
+        return ResponseEntity.ok(ApiResponse.success("Flash-sale mode disabled", null));
+    }
+}
@@ -1,8 +1,15 @@
 package com.fptu.group1.controller.admin;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -13,14 +20,17 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.fptu.group1.common.constant.AuthorityConst;
 import com.fptu.group1.common.constant.RouteConst;
+import com.fptu.group1.common.exception.BadRequestException;
 import com.fptu.group1.dto.ApiResponse;
 import com.fptu.group1.dto.request.UpdateOrderStatusRequest;
 import com.fptu.group1.dto.response.OrderDetailResponse;
 import com.fptu.group1.dto.response.OrderPageResponse;
 import com.fptu.group1.service.OrderService;
+import com.fptu.group1.service.export.OrderExporter;
 
 import jakarta.validation.Valid;
 
@@ -28,10 +38,14 @@ import jakarta.validation.Valid;
 @RequestMapping(RouteConst.API_BASE + "/admin/order")
 public class OrderAdminController {
 
+    private static final DateTimeFormatter EXPORT_FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
     private final OrderService orderService;
+    private final OrderExporter orderExporter;
 
-    public OrderAdminController(OrderService orderService) {
+    public OrderAdminController(OrderService orderService, OrderExporter orderExporter) {
         this.orderService = orderService;
+        this.orderExporter = orderExporter;
     }
 
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
@@ -53,6 +67,39 @@ public class OrderAdminController {
         return ResponseEntity.ok(ApiResponse.success("Orders retrieved successfully", response));
     }
 
+    /**
+     * Stream all orders in the filter with their lines, as CSV (one record per line) or
+     * NDJSON (one object per order). Rows go from the database cursor straight to the
+     * response, so any export size runs in constant memory.
+     */
+    @GetMapping(value = "/export")
+    @PreAuthorize(AuthorityConst.AUTH_ROLE_ADMIN)
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) Long statusId) {
+
+        OrderExporter.Format exportFormat;
+        try {
+            exportFormat = OrderExporter.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported export format '" + format + "', expected csv or ndjson");
+        }
+        MediaType contentType = exportFormat == OrderExporter.Format.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON;
+        String fileName = "orders-" + LocalDateTime.now().format(EXPORT_FILE_TIMESTAMP) + "." + exportFormat.name().toLowerCase(Locale.ROOT);
+
+        StreamingResponseBody body = outputStream ->
+                orderExporter.export(exportFormat, createdFrom, createdTo, statusId, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
     @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize(AuthorityConst.AUTH_ROLE_ADMIN)
     public ResponseEntity<ApiResponse<OrderDetailResponse>> getOrderById(
@@ -7,6 +7,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -26,6 +27,7 @@ import com.fptu.group1.dto.request.AddProductRequest;
 import com.fptu.group1.dto.request.UpdateProductRequest;
 import com.fptu.group1.dto.response.AddProductResponse;
 import com.fptu.group1.dto.response.ProductDetailResponse;
+import com.fptu.group1.dto.response.ProductImportJobResponse;
 import com.fptu.group1.dto.response.ProductPageResponse;
 import com.fptu.group1.service.ProductAdminService;
 
@@ -125,16 +127,24 @@ public class ProductAdminController {
     public ResponseEntity<ApiResponse<ProductPageResponse>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(required = false) String sortBy,
             @RequestParam(defaultValue = "DESC") String sortDir,
-            @RequestParam(required = false) String keyword) {
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String after) {
 
-        Sort sort = sortDir.equalsIgnoreCase("ASC") 
-                ? Sort.by(sortBy).ascending() 
-                : Sort.by(sortBy).descending();
+        // Keyword search ranks by relevance unless a sort is asked for
+        Sort sort;
+        if (sortBy == null && StringUtils.hasText(keyword)) {
+            sort = Sort.unsorted();
+        } else {
+            String sortProperty = sortBy != null ? sortBy : "createdAt";
+            sort = sortDir.equalsIgnoreCase("ASC")
+                    ? Sort.by(sortProperty).ascending()
+                    : Sort.by(sortProperty).descending();
+        }
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        ProductPageResponse response = productAdminService.getAllProducts(pageable, keyword);
+        ProductPageResponse response = productAdminService.getAllProducts(pageable, keyword, after);
 
         return ResponseEntity.ok(ApiResponse.success("Products retrieved successfully", response));
     }
@@ -158,5 +168,39 @@ public class ProductAdminController {
 
         return ResponseEntity.ok(ApiResponse.success("Product deleted successfully", null));
     }
-}
 
+    /**
+     * Bulk import from a CSV or NDJSON file (multipart/form-data, part "file").
+     *
+     * NDJSON: one product per line, shaped like the /add/json body.
+     * CSV: header row, one record per variant; records with the same slug (or name)
+     * in a row form one product. Columns: name, slug, short_description,
+     * full_description, brand_id, category_id, model_number, release_year,
+     * default_price, image_url, sku, attributes, price, stock, is_active, plus
+     * spec:&lt;key&gt; for specifications.
+     *
+     * The file is imported in the background; poll the returned job for progress and
+     * rejected lines.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize(AuthorityConst.AUTH_ROLE_ADMIN)
+    public ResponseEntity<ApiResponse<ProductImportJobResponse>> importProducts(
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(defaultValue = "csv") String format) {
+
+        ProductImportJobResponse response = productAdminService.startImport(file, format);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Product import accepted", response));
+    }
+
+    @GetMapping(value = "/import/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize(AuthorityConst.AUTH_ROLE_ADMIN)
+    public ResponseEntity<ApiResponse<ProductImportJobResponse>> getImportJob(
+            @PathVariable String jobId) {
+
+        ProductImportJobResponse response = productAdminService.getImportJob(jobId);
+
+        return ResponseEntity.ok(ApiResponse.success("Import status retrieved successfully", response));
+    }
+}
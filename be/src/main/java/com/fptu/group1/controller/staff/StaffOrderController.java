@@ -1,8 +1,12 @@
 package com.fptu.group1.controller.staff;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -10,17 +14,22 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.fptu.group1.common.constant.AuthorityConst;
 import com.fptu.group1.common.constant.RouteConst;
 import com.fptu.group1.dto.ApiResponse;
+import com.fptu.group1.dto.request.OrderSearchRequest;
 import com.fptu.group1.dto.request.UpdateOrderStatusRequest;
 import com.fptu.group1.dto.response.OrderDetailResponse;
 import com.fptu.group1.dto.response.OrderPageResponse;
+import com.fptu.group1.dto.response.OrderSearchResponse;
 import com.fptu.group1.service.OrderService;
+import com.fptu.group1.service.stream.OrderStatusHub;
 
 import jakarta.validation.Valid;
 
@@ -29,9 +38,11 @@ import jakarta.validation.Valid;
 public class StaffOrderController {
 
     private final OrderService orderService;
+    private final OrderStatusHub orderStatusHub;
 
-    public StaffOrderController(OrderService orderService) {
+    public StaffOrderController(OrderService orderService, OrderStatusHub orderStatusHub) {
         this.orderService = orderService;
+        this.orderStatusHub = orderStatusHub;
     }
 
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
@@ -53,6 +64,60 @@ public class StaffOrderController {
         return ResponseEntity.ok(ApiResponse.success("Orders retrieved successfully", response));
     }
 
+    /**
+     * Search orders by any combination of user, status, creation date range, total range
+     * and SKU, newest first. Pass the returned nextCursor as {@code after} for the next page.
+     */
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize(AuthorityConst.AUTH_ROLE_STAFF_OR_ADMIN)
+    public ResponseEntity<ApiResponse<OrderSearchResponse>> searchOrders(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long statusId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) BigDecimal minTotal,
+            @RequestParam(required = false) BigDecimal maxTotal,
+            @RequestParam(required = false) String sku,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String after) {
+
+        OrderSearchRequest filter = OrderSearchRequest.builder()
+                .userId(userId)
+                .statusId(statusId)
+                .createdFrom(createdFrom)
+                .createdTo(createdTo)
+                .minTotal(minTotal)
+                .maxTotal(maxTotal)
+                .sku(sku != null && !sku.isBlank() ? sku.trim() : null)
+                .build();
+        OrderSearchResponse response = orderService.searchOrders(filter, size, after);
+
+        return ResponseEntity.ok(ApiResponse.success("Orders retrieved successfully", response));
+    }
+
+    /**
+     * Live status changes of every order, as Server-Sent Events.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize(AuthorityConst.AUTH_ROLE_STAFF_OR_ADMIN)
+    public SseEmitter streamOrderStatuses(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return orderStatusHub.subscribeAll(lastEventId);
+    }
+
+    /**
+     * Live status of one order, as Server-Sent Events. The current status is sent first;
+     * a client reconnecting with Last-Event-ID gets the changes it missed instead.
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize(AuthorityConst.AUTH_ROLE_STAFF_OR_ADMIN)
+    public SseEmitter streamOrderStatus(
+            @PathVariable("id") Long orderId,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+
+        return orderStatusHub.subscribeOrder(orderId, lastEventId, () -> orderService.getOrderStatus(orderId));
+    }
+
     @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize(AuthorityConst.AUTH_ROLE_STAFF_OR_ADMIN)
     public ResponseEntity<ApiResponse<OrderDetailResponse>> getOrderById(
@@ -6,6 +6,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -34,16 +35,24 @@ public class StaffProductController {
     public ResponseEntity<ApiResponse<ProductPageResponse>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(required = false) String sortBy,
             @RequestParam(defaultValue = "DESC") String sortDir,
-            @RequestParam(required = false) String keyword) {
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String after) {
 
-        Sort sort = sortDir.equalsIgnoreCase("ASC")
-                ? Sort.by(sortBy).ascending()
-                : Sort.by(sortBy).descending();
+        // Keyword search ranks by relevance unless a sort is asked for
+        Sort sort;
+        if (sortBy == null && StringUtils.hasText(keyword)) {
+            sort = Sort.unsorted();
+        } else {
+            String sortProperty = sortBy != null ? sortBy : "createdAt";
+            sort = sortDir.equalsIgnoreCase("ASC")
+                    ? Sort.by(sortProperty).ascending()
+                    : Sort.by(sortProperty).descending();
+        }
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        ProductPageResponse response = productAdminService.getAllProducts(pageable, keyword);
+        ProductPageResponse response = productAdminService.getAllProducts(pageable, keyword, after);
 
         return ResponseEntity.ok(ApiResponse.success("Products retrieved successfully", response));
     }
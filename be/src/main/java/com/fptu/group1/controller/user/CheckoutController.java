@@ -5,15 +5,20 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.fptu.group1.common.constant.AuthorityConst;
 import com.fptu.group1.common.constant.RouteConst;
+import com.fptu.group1.common.exception.BadRequestException;
 import com.fptu.group1.dto.ApiResponse;
 import com.fptu.group1.dto.request.CheckoutRequest;
+import com.fptu.group1.dto.response.CheckoutIntentResponse;
 import com.fptu.group1.dto.response.CheckoutResponse;
 import com.fptu.group1.security.CustomUserDetails;
 import com.fptu.group1.service.CheckoutService;
@@ -24,6 +29,8 @@ import jakarta.validation.Valid;
 @RequestMapping(RouteConst.API_BASE + "/user/checkout")
 public class CheckoutController {
 
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100;
+
     private final CheckoutService checkoutService;
 
     public CheckoutController(CheckoutService checkoutService) {
@@ -34,15 +41,49 @@ public class CheckoutController {
     @PreAuthorize(AuthorityConst.AUTH_ROLE_ALL_USERS)
     public ResponseEntity<ApiResponse<CheckoutResponse>> checkout(
             Authentication authentication,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody CheckoutRequest request) {
 
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            throw new BadRequestException("Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+
         Long userId = getUserIdFromAuthentication(authentication);
-        CheckoutResponse response = checkoutService.checkout(userId, request);
+        CheckoutResponse response = checkoutService.checkout(userId, request, idempotencyKey);
 
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success("Order created successfully", response));
     }
 
+    /**
+     * Accept a checkout and place it in the background. Poll the returned intent for
+     * the order.
+     */
+    @PostMapping(value = "/async", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize(AuthorityConst.AUTH_ROLE_ALL_USERS)
+    public ResponseEntity<ApiResponse<CheckoutIntentResponse>> submitCheckout(
+            Authentication authentication,
+            @Valid @RequestBody CheckoutRequest request) {
+
+        Long userId = getUserIdFromAuthentication(authentication);
+        CheckoutIntentResponse response = checkoutService.submitCheckout(userId, request);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Checkout accepted", response));
+    }
+
+    @GetMapping(value = "/intents/{intentId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize(AuthorityConst.AUTH_ROLE_ALL_USERS)
+    public ResponseEntity<ApiResponse<CheckoutIntentResponse>> getCheckoutIntent(
+            Authentication authentication,
+            @PathVariable String intentId) {
+
+        Long userId = getUserIdFromAuthentication(authentication);
+        CheckoutIntentResponse response = checkoutService.getCheckoutIntent(userId, intentId);
+
+        return ResponseEntity.ok(ApiResponse.success("Checkout status retrieved successfully", response));
+    }
+
     private Long getUserIdFromAuthentication(Authentication authentication) {
         if (authentication.getPrincipal() instanceof CustomUserDetails userDetails) {
             return userDetails.getAccountId().longValue();
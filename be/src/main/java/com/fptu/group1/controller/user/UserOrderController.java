@@ -0,0 +1,44 @@
+package com.fptu.group1.controller.user;
+
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fptu.group1.common.constant.AuthorityConst;
+import com.fptu.group1.common.constant.RouteConst;
+import com.fptu.group1.security.CustomUserDetails;
+import com.fptu.group1.service.stream.OrderStatusHub;
+
+@RestController
+@RequestMapping(RouteConst.API_BASE + "/user/orders")
+public class UserOrderController {
+
+    private final OrderStatusHub orderStatusHub;
+
+    public UserOrderController(OrderStatusHub orderStatusHub) {
+        this.orderStatusHub = orderStatusHub;
+    }
+
+    /**
+     * Live status changes of the current user's orders, as Server-Sent Events. A client
+     * reconnecting with Last-Event-ID first gets the changes it missed.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize(AuthorityConst.AUTH_ROLE_ALL_USERS)
+    public SseEmitter streamOrderStatuses(Authentication authentication,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return orderStatusHub.subscribeUser(getUserIdFromAuthentication(authentication), lastEventId);
+    }
+
+    private Long getUserIdFromAuthentication(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof CustomUserDetails userDetails) {
+            return userDetails.getAccountId().longValue();
+        }
+        throw new RuntimeException("Unable to get user ID from authentication");
+    }
+}
@@ -0,0 +1,47 @@
+package com.fptu.group1.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Filters of the staff order search. Every filter is optional; the ones given are
+ * combined with AND.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Staff order search filters")
+public class OrderSearchRequest {
+    
+    @Schema(description = "Orders of this user")
+    private Long userId;
+    
+    @Schema(description = "Orders in this status")
+    private Long statusId;
+    
+    @Schema(description = "Created at or after")
+    private LocalDateTime createdFrom;
+    
+    @Schema(description = "Created before")
+    private LocalDateTime createdTo;
+    
+    @Schema(description = "Minimum total price")
+    private BigDecimal minTotal;
+    
+    @Schema(description = "Maximum total price")
+    private BigDecimal maxTotal;
+    
+    @Schema(description = "Orders with a line of this SKU (exact match)")
+    private String sku;
+
+    public boolean hasCreatedRange() {
+        return createdFrom != null || createdTo != null;
+    }
+}
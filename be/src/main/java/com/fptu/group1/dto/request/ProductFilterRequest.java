@@ -0,0 +1,57 @@
+package com.fptu.group1.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Filters for the public product catalog")
+public class ProductFilterRequest {
+    
+    @Schema(description = "Search keyword")
+    private String keyword;
+    
+    @Schema(description = "Category IDs (any of), each including its subcategories")
+    @Builder.Default
+    private Set<Long> categoryIds = new HashSet<>();
+    
+    @Schema(description = "Brand IDs (any of)")
+    @Builder.Default
+    private Set<Long> brandIds = new HashSet<>();
+    
+    @Schema(description = "Minimum price (inclusive), compared with the cheapest active variant")
+    private BigDecimal minPrice;
+    
+    @Schema(description = "Maximum price (exclusive), compared with the cheapest active variant")
+    private BigDecimal maxPrice;
+    
+    @Schema(description = "Specification filters: spec key -> accepted values (any of)")
+    @Builder.Default
+    private Map<String, Set<String>> specifications = new HashMap<>();
+    
+    @Schema(description = "Whether facet counts should be returned with the results")
+    private boolean includeFacets;
+    
+    @Schema(description = "Specification keys to compute facet counts for")
+    @Builder.Default
+    private Set<String> facetSpecKeys = new HashSet<>();
+
+    /**
+     * Whether any filter besides the keyword is set.
+     */
+    public boolean hasAttributeFilters() {
+        return !categoryIds.isEmpty() || !brandIds.isEmpty() || minPrice != null || maxPrice != null
+                || !specifications.isEmpty();
+    }
+}
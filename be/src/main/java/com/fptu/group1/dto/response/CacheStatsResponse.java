@@ -0,0 +1,39 @@
+package com.fptu.group1.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Counters of an in-memory cache since startup")
+public class CacheStatsResponse {
+    
+    @Schema(description = "Cache name")
+    private String name;
+    
+    @Schema(description = "Number of cached entries")
+    private long entries;
+    
+    @Schema(description = "Estimated size of the cached entries in bytes")
+    private long weightBytes;
+    
+    @Schema(description = "Configured size limit in bytes")
+    private long maxWeightBytes;
+    
+    @Schema(description = "Lookups served from the cache")
+    private long hits;
+    
+    @Schema(description = "Lookups that had to load from the database")
+    private long misses;
+    
+    @Schema(description = "Entries dropped to stay under the size limit")
+    private long evictions;
+    
+    @Schema(description = "Entries dropped because the product changed")
+    private long invalidations;
+}
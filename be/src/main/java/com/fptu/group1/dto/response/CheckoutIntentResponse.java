@@ -0,0 +1,35 @@
+package com.fptu.group1.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Queued checkout")
+public class CheckoutIntentResponse {
+    
+    @Schema(description = "Intent ID, used to poll for the result")
+    private String intentId;
+    
+    @Schema(description = "QUEUED, PROCESSING, COMPLETED or FAILED")
+    private String status;
+    
+    @Schema(description = "Placed order, once COMPLETED")
+    private CheckoutResponse order;
+    
+    @Schema(description = "Reason, once FAILED")
+    private String error;
+    
+    @Schema(description = "Submitted at")
+    private LocalDateTime createdAt;
+    
+    @Schema(description = "Last status change")
+    private LocalDateTime updatedAt;
+}
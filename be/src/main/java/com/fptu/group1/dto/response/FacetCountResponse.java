@@ -0,0 +1,24 @@
+package com.fptu.group1.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Number of matching products for one facet value")
+public class FacetCountResponse {
+    
+    @Schema(description = "Facet value to filter on (ID, spec value or 'from-to' price range)")
+    private String value;
+    
+    @Schema(description = "Display label")
+    private String label;
+    
+    @Schema(description = "Number of matching products")
+    private long count;
+}
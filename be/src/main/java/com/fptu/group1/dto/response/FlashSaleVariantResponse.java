@@ -0,0 +1,30 @@
+package com.fptu.group1.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Variant in flash-sale mode")
+public class FlashSaleVariantResponse {
+    
+    @Schema(description = "Variant ID")
+    private Long variantId;
+    
+    @Schema(description = "Product ID")
+    private Long productId;
+    
+    @Schema(description = "Variant SKU")
+    private String sku;
+    
+    @Schema(description = "Checkouts waiting in the variant's queue")
+    private int queued;
+    
+    @Schema(description = "Whether the variant is sold out; checkouts are rejected without queueing")
+    private boolean soldOut;
+}
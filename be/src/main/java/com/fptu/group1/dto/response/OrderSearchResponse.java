@@ -0,0 +1,29 @@
+package com.fptu.group1.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Page of staff order search results, newest first")
+public class OrderSearchResponse {
+    
+    @Schema(description = "List of orders")
+    private List<OrderListResponse> orders;
+    
+    @Schema(description = "Page size")
+    private int size;
+    
+    @Schema(description = "Cursor for the next page; null on the last page")
+    private String nextCursor;
+    
+    @Schema(description = "Filter the search was driven by (USER, STATUS, SKU or CREATED_AT)")
+    private String drivenBy;
+}
@@ -0,0 +1,29 @@
+package com.fptu.group1.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Order status pushed over the order event stream")
+public class OrderStatusEventResponse {
+    
+    @Schema(description = "Order ID")
+    private Long orderId;
+    
+    @Schema(description = "Status ID")
+    private Long statusId;
+    
+    @Schema(description = "Status name")
+    private String statusName;
+    
+    @Schema(description = "When the status was set, or read for the initial event")
+    private LocalDateTime occurredAt;
+}
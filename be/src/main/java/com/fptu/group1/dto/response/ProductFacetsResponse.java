@@ -0,0 +1,37 @@
+package com.fptu.group1.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Facet counts for the current catalog filters. Each facet is counted with every filter "
+        + "applied except its own, so other values of a selected facet keep their counts")
+public class ProductFacetsResponse {
+    
+    @Schema(description = "Counts per brand")
+    @Builder.Default
+    private List<FacetCountResponse> brands = new ArrayList<>();
+    
+    @Schema(description = "Counts per category")
+    @Builder.Default
+    private List<FacetCountResponse> categories = new ArrayList<>();
+    
+    @Schema(description = "Counts per price bucket")
+    @Builder.Default
+    private List<FacetCountResponse> priceBuckets = new ArrayList<>();
+    
+    @Schema(description = "Counts per value of the requested specification keys")
+    @Builder.Default
+    private Map<String, List<FacetCountResponse>> specifications = new LinkedHashMap<>();
+}
@@ -0,0 +1,21 @@
+package com.fptu.group1.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Product of an import file that was not imported")
+public class ProductImportErrorResponse {
+    
+    @Schema(description = "Line of the file the product starts on", example = "42")
+    private Long line;
+    
+    @Schema(description = "Why the product was rejected", example = "SKU 'LAPTOP-ASUS-001-RED' already exists")
+    private String message;
+}
@@ -0,0 +1,54 @@
+package com.fptu.group1.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Progress of a bulk product import")
+public class ProductImportJobResponse {
+    
+    @Schema(description = "Job ID, used to poll for progress")
+    private String jobId;
+    
+    @Schema(description = "Uploaded file name")
+    private String fileName;
+    
+    @Schema(description = "CSV or NDJSON")
+    private String format;
+    
+    @Schema(description = "QUEUED, RUNNING, COMPLETED or FAILED")
+    private String status;
+    
+    @Schema(description = "Products read from the file so far")
+    private long productsRead;
+    
+    @Schema(description = "Products inserted so far")
+    private long productsImported;
+    
+    @Schema(description = "Variants inserted so far")
+    private long variantsImported;
+    
+    @Schema(description = "Products rejected so far")
+    private long productsFailed;
+    
+    @Schema(description = "Rejected products with their reason; only the first ones are kept")
+    private List<ProductImportErrorResponse> errors;
+    
+    @Schema(description = "Reason the whole import stopped, once FAILED")
+    private String error;
+    
+    @Schema(description = "Submitted at")
+    private LocalDateTime createdAt;
+    
+    @Schema(description = "Last progress update")
+    private LocalDateTime updatedAt;
+}
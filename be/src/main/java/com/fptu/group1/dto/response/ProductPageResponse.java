@@ -35,5 +35,9 @@ public class ProductPageResponse {
     
     @Schema(description = "Whether this is the last page")
     private boolean last;
+    
+    @Schema(description = "Opaque cursor for the next page, pass it back as 'after'. Null on the last page. "
+            + "In cursor mode totalElements and totalPages are not computed")
+    private String nextCursor;
 }
 
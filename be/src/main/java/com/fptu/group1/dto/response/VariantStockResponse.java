@@ -0,0 +1,21 @@
+package com.fptu.group1.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Stock level pushed over the stock event stream")
+public class VariantStockResponse {
+    
+    @Schema(description = "Variant ID")
+    private Long variantId;
+    
+    @Schema(description = "Units in stock")
+    private Integer stock;
+}
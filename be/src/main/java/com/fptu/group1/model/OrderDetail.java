@@ -57,6 +57,14 @@ public class OrderDetail {
     @JoinColumn(name = "variant_id", nullable = false, insertable = false, updatable = false)
     private ProductVariant variant;
 
+    // Product name at the time of order.
+    @Column(name = "product_name", length = 255)
+    private String productName;
+
+    // Variant SKU at the time of order.
+    @Column(name = "sku", length = 100)
+    private String sku;
+
     // Quantity of the variant ordered.
     @Column(name = "quantity", nullable = false)
     private Integer quantity;
@@ -106,6 +106,15 @@ public class Product {
     @Column(name = "image_url", length = 500)
     private String imageUrl;
 
+    // Lowest price among active variants (default price when there is none).
+    // Denormalized for listing and price sorting, kept in sync on every variant write.
+    @Column(name = "min_price", precision = 18, scale = 2)
+    private BigDecimal minPrice;
+
+    // Highest price among active variants (default price when there is none).
+    @Column(name = "max_price", precision = 18, scale = 2)
+    private BigDecimal maxPrice;
+
     // Product variants (different sizes, colors, etc.).
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @Builder.Default
@@ -1,9 +1,13 @@
 package com.fptu.group1.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.fptu.group1.model.Cart;
@@ -12,10 +16,20 @@ import com.fptu.group1.model.Cart;
 public interface CartRepository extends JpaRepository<Cart, Long> {
     List<Cart> findByUserId(Long userId);
     
+    boolean existsByUserId(Long userId);
+    
     Optional<Cart> findByUserIdAndVariantId(Long userId, Long variantId);
     
     void deleteByUserIdAndVariantId(Long userId, Long variantId);
     
-    void deleteByUserId(Long userId);
+    // Bulk delete: the derived version loads every row and deletes them one by one
+    @Modifying
+    @Query("DELETE FROM Cart c WHERE c.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+
+    // Lines an order was placed from; returns how many of them were still in the cart
+    @Modifying
+    @Query("DELETE FROM Cart c WHERE c.userId = :userId AND c.cartId IN :cartIds")
+    int deleteByUserIdAndCartIdIn(@Param("userId") Long userId, @Param("cartIds") Collection<Long> cartIds);
 }
 
@@ -1,15 +1,30 @@
 package com.fptu.group1.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.fptu.group1.model.Category;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByName(String name);
     boolean existsByName(String name);
+    long countByParentId(Long parentId);
+
+    /**
+     * Every category, locked until the transaction ends. Re-parenting checks for cycles
+     * against these rows, so two concurrent moves cannot each pass the check and
+     * together close a loop.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Category c")
+    List<Category> findAllForUpdate();
 }
 
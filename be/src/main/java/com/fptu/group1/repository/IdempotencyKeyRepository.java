@@ -0,0 +1,95 @@
+package com.fptu.group1.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JDBC access to the IdempotencyKeys table, the durable side of the idempotency store.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+
+    public static final String STATUS_IN_PROGRESS = "IN_PROGRESS";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO dbo.IdempotencyKeys (user_id, idempotency_key, request_hash, status, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String FIND_SQL =
+            "SELECT request_hash, status, response_body, created_at FROM dbo.IdempotencyKeys WHERE user_id = ? AND idempotency_key = ?";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE dbo.IdempotencyKeys SET status = ?, response_body = ?, completed_at = ? WHERE user_id = ? AND idempotency_key = ?";
+
+    private static final String DELETE_IN_PROGRESS_SQL =
+            "DELETE FROM dbo.IdempotencyKeys WHERE user_id = ? AND idempotency_key = ? AND status = ?";
+
+    private static final String DELETE_IN_PROGRESS_OLDER_THAN_SQL =
+            "DELETE FROM dbo.IdempotencyKeys WHERE user_id = ? AND idempotency_key = ? AND status = ? AND created_at < ?";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM dbo.IdempotencyKeys WHERE created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Claim a key for a new request.
+     *
+     * @return false when the key is already recorded for this user
+     */
+    public boolean tryInsertInProgress(Long userId, String key, String requestHash) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, userId, key, requestHash, STATUS_IN_PROGRESS, Timestamp.valueOf(LocalDateTime.now()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public Optional<Record> find(Long userId, String key) {
+        List<Record> records = jdbcTemplate.query(FIND_SQL, (rs, rowNum) -> new Record(
+                rs.getString("request_hash"),
+                rs.getString("status"),
+                rs.getString("response_body"),
+                rs.getTimestamp("created_at").toLocalDateTime()), userId, key);
+        return records.stream().findFirst();
+    }
+
+    public void complete(Long userId, String key, String responseBody) {
+        jdbcTemplate.update(COMPLETE_SQL, STATUS_COMPLETED, responseBody, Timestamp.valueOf(LocalDateTime.now()), userId, key);
+    }
+
+    /**
+     * Release a key whose request failed, so that a retry runs it again. Completed
+     * rows are kept.
+     */
+    public void deleteInProgress(Long userId, String key) {
+        jdbcTemplate.update(DELETE_IN_PROGRESS_SQL, userId, key, STATUS_IN_PROGRESS);
+    }
+
+    /**
+     * Drop an IN_PROGRESS row left behind by a request that never finished (e.g. the
+     * server stopped mid-request; its transaction was rolled back).
+     *
+     * @return whether a row was removed
+     */
+    public boolean deleteAbandoned(Long userId, String key, LocalDateTime startedBefore) {
+        return jdbcTemplate.update(DELETE_IN_PROGRESS_OLDER_THAN_SQL, userId, key, STATUS_IN_PROGRESS, Timestamp.valueOf(startedBefore)) > 0;
+    }
+
+    public int purgeOlderThan(LocalDateTime createdBefore) {
+        return jdbcTemplate.update(PURGE_SQL, Timestamp.valueOf(createdBefore));
+    }
+
+    public record Record(String requestHash, String status, String responseBody, LocalDateTime createdAt) {
+    }
+}
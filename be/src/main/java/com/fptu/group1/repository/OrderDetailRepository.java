@@ -3,12 +3,24 @@ package com.fptu.group1.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.fptu.group1.dto.response.OrderItemResponse;
 import com.fptu.group1.model.OrderDetail;
 
 @Repository
-public interface OrderDetailRepository extends JpaRepository<OrderDetail, Long> {
+public interface OrderDetailRepository extends JpaRepository<OrderDetail, Long>, OrderDetailRepositoryCustom {
     List<OrderDetail> findByOrderId(Long orderId);
+
+    // All lines of an order with their variant and product in one query. The name and SKU
+    // snapshot taken at checkout wins; the catalog only fills in lines from before it existed
+    @Query("SELECT new com.fptu.group1.dto.response.OrderItemResponse("
+            + "od.orderDetailId, od.variantId, v.productId, COALESCE(od.productName, p.name, 'Unknown Product'), "
+            + "COALESCE(od.sku, v.sku), v.attributes, od.quantity, od.unitPrice, od.warrantyMonths) "
+            + "FROM OrderDetail od LEFT JOIN od.variant v LEFT JOIN Product p ON p.productId = v.productId "
+            + "WHERE od.orderId = :orderId ORDER BY od.orderDetailId")
+    List<OrderItemResponse> findItemsByOrderId(@Param("orderId") Long orderId);
 }
 
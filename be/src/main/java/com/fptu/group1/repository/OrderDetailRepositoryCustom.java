@@ -0,0 +1,18 @@
+package com.fptu.group1.repository;
+
+import java.util.List;
+
+import com.fptu.group1.model.OrderDetail;
+
+/**
+ * Bulk writes of order lines that JPA cannot batch (IDENTITY keys force one INSERT
+ * round trip per entity).
+ */
+public interface OrderDetailRepositoryCustom {
+
+    /**
+     * Insert all lines as a single JDBC batch in the caller's transaction. The generated
+     * IDs are not read back and the entities are not attached to the persistence context.
+     */
+    void insertAll(List<OrderDetail> orderDetails);
+}
@@ -0,0 +1,34 @@
+package com.fptu.group1.repository;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fptu.group1.model.OrderDetail;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class OrderDetailRepositoryCustomImpl implements OrderDetailRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO dbo.OrderDetails (order_id, variant_id, product_name, sku, quantity, unit_price, warranty_months) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<OrderDetail> orderDetails) {
+        if (orderDetails.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, orderDetails, orderDetails.size(), (ps, detail) -> {
+            ps.setLong(1, detail.getOrderId());
+            ps.setLong(2, detail.getVariantId());
+            ps.setString(3, detail.getProductName());
+            ps.setString(4, detail.getSku());
+            ps.setInt(5, detail.getQuantity());
+            ps.setBigDecimal(6, detail.getUnitPrice());
+            ps.setInt(7, detail.getWarrantyMonths() != null ? detail.getWarrantyMonths() : 0);
+        });
+    }
+}
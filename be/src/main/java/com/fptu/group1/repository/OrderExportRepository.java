@@ -0,0 +1,93 @@
+package com.fptu.group1.repository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Forward-only read of orders with their lines for exports. Rows are handed to the
+ * caller one by one as the driver fetches them ({@code order-export.fetch-size} at a
+ * time), so memory use does not depend on how many orders are exported.
+ */
+@Repository
+public class OrderExportRepository {
+
+    private static final String EXPORT_SQL =
+            "SELECT o.order_id, o.created_at, o.user_id, o.status_id, o.total_price, o.shipping_address, o.note, "
+            + "od.order_detail_id, od.variant_id, od.sku, od.product_name, od.quantity, od.unit_price, od.warranty_months "
+            + "FROM dbo.Orders o LEFT JOIN dbo.OrderDetails od ON od.order_id = o.order_id "
+            + "WHERE 1 = 1%s ORDER BY o.order_id, od.order_detail_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderExportRepository(DataSource dataSource,
+            @Value("${order-export.fetch-size:1000}") int fetchSize) {
+        // Own template: the fetch size only applies to exports
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Call {@code consumer} for every order line in the filter, ordered by order and
+     * line. An order without lines yields one row with null line fields.
+     */
+    public void forEachLine(LocalDateTime createdFrom, LocalDateTime createdTo, Long statusId, Consumer<Line> consumer) {
+        StringBuilder where = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        if (createdFrom != null) {
+            where.append(" AND o.created_at >= ?");
+            params.add(Timestamp.valueOf(createdFrom));
+        }
+        if (createdTo != null) {
+            where.append(" AND o.created_at < ?");
+            params.add(Timestamp.valueOf(createdTo));
+        }
+        if (statusId != null) {
+            where.append(" AND o.status_id = ?");
+            params.add(statusId);
+        }
+
+        jdbcTemplate.query(String.format(EXPORT_SQL, where), rs -> {
+            consumer.accept(toLine(rs));
+        }, params.toArray());
+    }
+
+    private static Line toLine(ResultSet rs) throws SQLException {
+        long orderDetailId = rs.getLong("order_detail_id");
+        boolean hasLine = !rs.wasNull();
+        return new Line(
+                rs.getLong("order_id"),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getLong("user_id"),
+                rs.getLong("status_id"),
+                rs.getBigDecimal("total_price"),
+                rs.getString("shipping_address"),
+                rs.getString("note"),
+                hasLine ? orderDetailId : null,
+                hasLine ? rs.getLong("variant_id") : null,
+                rs.getString("sku"),
+                rs.getString("product_name"),
+                hasLine ? rs.getInt("quantity") : null,
+                rs.getBigDecimal("unit_price"),
+                hasLine ? rs.getInt("warranty_months") : null);
+    }
+
+    /**
+     * One order line with its order's columns; line fields are null for an order without lines.
+     */
+    public record Line(Long orderId, LocalDateTime createdAt, Long userId, Long statusId, BigDecimal totalPrice,
+            String shippingAddress, String note, Long orderDetailId, Long variantId, String sku, String productName,
+            Integer quantity, BigDecimal unitPrice, Integer warrantyMonths) {
+    }
+}
@@ -0,0 +1,237 @@
+package com.fptu.group1.repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.fptu.group1.common.helper.OrderCursorHelper;
+import com.fptu.group1.dto.request.OrderSearchRequest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JDBC queries of the staff order search: the keyset-paginated search itself and the
+ * statistics its planner estimates selectivity from. See create_order_search_indexes.sql
+ * for the indexes named here.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class OrderSearchRepository {
+
+    public static final String INDEX_USER = "IX_Orders_user_id_created_at";
+    public static final String INDEX_STATUS = "IX_Orders_status_id_created_at";
+    public static final String INDEX_CREATED_AT = "IX_Orders_created_at";
+    public static final String INDEX_SKU = "IX_OrderDetails_sku_order_id";
+
+    // Row count from the partition metadata, first/last from the two ends of the created_at index
+    private static final String TOTALS_SQL =
+            "SELECT (SELECT SUM(p.rows) FROM sys.partitions p WHERE p.object_id = OBJECT_ID(N'dbo.Orders') AND p.index_id IN (0, 1)) AS orders, "
+            + "(SELECT MIN(created_at) FROM dbo.Orders) AS first_created, (SELECT MAX(created_at) FROM dbo.Orders) AS last_created";
+
+    // Histogram of the statistics behind an index, with the row count they were built from
+    private static final String HISTOGRAM_SQL =
+            "SELECT CAST(h.range_high_key AS bigint) AS high_key, h.equal_rows, h.distinct_range_rows, sp.rows AS stats_rows "
+            + "FROM sys.stats s "
+            + "CROSS APPLY sys.dm_db_stats_properties(s.object_id, s.stats_id) sp "
+            + "CROSS APPLY sys.dm_db_stats_histogram(s.object_id, s.stats_id) h "
+            + "WHERE s.object_id = OBJECT_ID(N'dbo.Orders') AND s.name = ?";
+
+    // Exact figures, only used while an index has no statistics yet (i.e. the table is still small)
+    private static final String DISTINCT_USERS_SQL =
+            "SELECT COUNT_BIG(*) FROM (SELECT DISTINCT user_id FROM dbo.Orders) u";
+
+    private static final String COUNT_BY_STATUS_SQL =
+            "SELECT status_id, COUNT_BIG(*) AS orders FROM dbo.Orders GROUP BY status_id";
+
+    private static final String COUNT_SKU_LINES_SQL =
+            "SELECT COUNT_BIG(*) FROM dbo.OrderDetails WHERE sku = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Estimates read from metadata rather than the table: the row count of the partitions,
+     * and distinct users and orders per status from the histograms SQL Server keeps (and
+     * samples) for the user and status indexes, status counts scaled to the current row
+     * count. Falls back to exact queries for an index without statistics.
+     */
+    public Statistics loadStatistics() {
+        Statistics totals = jdbcTemplate.queryForObject(TOTALS_SQL, (rs, rowNum) -> new Statistics(
+                rs.getLong("orders"),
+                0,
+                toLocalDateTime(rs.getTimestamp("first_created")),
+                toLocalDateTime(rs.getTimestamp("last_created")),
+                Map.of()));
+
+        long distinctUsers;
+        List<HistogramStep> users = histogram(INDEX_USER);
+        if (users.isEmpty()) {
+            Long exact = jdbcTemplate.queryForObject(DISTINCT_USERS_SQL, Long.class);
+            distinctUsers = exact != null ? exact : 0;
+        } else {
+            // One user per step boundary plus the distinct users between boundaries
+            distinctUsers = Math.round(users.stream()
+                    .mapToDouble(step -> (step.equalRows() > 0 ? 1 : 0) + step.distinctRangeRows())
+                    .sum());
+        }
+
+        Map<Long, Long> ordersByStatus = new HashMap<>();
+        List<HistogramStep> statuses = histogram(INDEX_STATUS);
+        if (statuses.isEmpty()) {
+            jdbcTemplate.query(COUNT_BY_STATUS_SQL, rs -> {
+                ordersByStatus.put(rs.getLong("status_id"), rs.getLong("orders"));
+            });
+        } else {
+            // Few statuses, so each one is a histogram step of its own
+            double scale = scale(totals.orders(), statuses);
+            for (HistogramStep step : statuses) {
+                ordersByStatus.put(step.highKey(), Math.round(step.equalRows() * scale));
+            }
+        }
+        return new Statistics(totals.orders(), distinctUsers,
+                totals.firstCreated(), totals.lastCreated(), Map.copyOf(ordersByStatus));
+    }
+
+    /**
+     * Exact number of order lines with this SKU; an index-only seek.
+     */
+    public long countLinesWithSku(String sku) {
+        Long lines = jdbcTemplate.queryForObject(COUNT_SKU_LINES_SQL, Long.class, sku);
+        return lines != null ? lines : 0;
+    }
+
+    /**
+     * Up to {@code limit} matching orders after the cursor, newest first.
+     *
+     * @param index Orders index to drive the search through, or null to drive it from
+     *              the SKU index of OrderDetails
+     */
+    public List<Row> search(OrderSearchRequest filter, String index, OrderCursorHelper.Position after, int limit) {
+        try {
+            return search(filter, index, after, limit, true);
+        } catch (DataAccessException e) {
+            // e.g. an index was dropped or renamed; slower without the hint, but still correct
+            log.warn("Order search hinted with {} failed, running it without index hints: {}",
+                    index != null ? index : INDEX_SKU, e.getMostSpecificCause().getMessage());
+            return search(filter, index, after, limit, false);
+        }
+    }
+
+    private List<Row> search(OrderSearchRequest filter, String index, OrderCursorHelper.Position after, int limit,
+            boolean hinted) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT TOP (?) o.order_id, o.user_id, o.total_price, o.shipping_address, o.status_id, o.created_at FROM dbo.Orders o");
+        List<Object> params = new ArrayList<>();
+        params.add(limit);
+        if (index != null && hinted) {
+            sql.append(" WITH (INDEX(").append(index).append("))");
+        }
+        sql.append(" WHERE 1 = 1");
+
+        if (filter.getUserId() != null) {
+            sql.append(" AND o.user_id = ?");
+            params.add(filter.getUserId());
+        }
+        if (filter.getStatusId() != null) {
+            sql.append(" AND o.status_id = ?");
+            params.add(filter.getStatusId());
+        }
+        if (filter.getCreatedFrom() != null) {
+            sql.append(" AND o.created_at >= ?");
+            params.add(Timestamp.valueOf(filter.getCreatedFrom()));
+        }
+        if (filter.getCreatedTo() != null) {
+            sql.append(" AND o.created_at < ?");
+            params.add(Timestamp.valueOf(filter.getCreatedTo()));
+        }
+        if (filter.getMinTotal() != null) {
+            sql.append(" AND o.total_price >= ?");
+            params.add(filter.getMinTotal());
+        }
+        if (filter.getMaxTotal() != null) {
+            sql.append(" AND o.total_price <= ?");
+            params.add(filter.getMaxTotal());
+        }
+        if (filter.getSku() != null) {
+            if (index == null) {
+                sql.append(" AND o.order_id IN (SELECT od.order_id FROM dbo.OrderDetails od");
+                if (hinted) {
+                    sql.append(" WITH (INDEX(").append(INDEX_SKU).append("))");
+                }
+                sql.append(" WHERE od.sku = ?)");
+            } else {
+                sql.append(" AND EXISTS (SELECT 1 FROM dbo.OrderDetails od WHERE od.order_id = o.order_id AND od.sku = ?)");
+            }
+            params.add(filter.getSku());
+        }
+        if (after != null) {
+            sql.append(" AND (o.created_at < ? OR (o.created_at = ? AND o.order_id < ?))");
+            Timestamp createdAt = Timestamp.valueOf(after.createdAt());
+            params.add(createdAt);
+            params.add(createdAt);
+            params.add(after.orderId());
+        }
+        sql.append(" ORDER BY o.created_at DESC, o.order_id DESC");
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new Row(
+                rs.getLong("order_id"),
+                rs.getLong("user_id"),
+                rs.getBigDecimal("total_price"),
+                rs.getString("shipping_address"),
+                rs.getLong("status_id"),
+                rs.getTimestamp("created_at").toLocalDateTime()), params.toArray());
+    }
+
+    /**
+     * Steps of the index's statistics histogram; empty when it has none yet or the login
+     * may not read them (older server, no permission on the statistics).
+     */
+    private List<HistogramStep> histogram(String index) {
+        try {
+            return jdbcTemplate.query(HISTOGRAM_SQL, (rs, rowNum) -> new HistogramStep(
+                    rs.getLong("high_key"),
+                    rs.getDouble("equal_rows"),
+                    rs.getDouble("distinct_range_rows"),
+                    rs.getLong("stats_rows")), index);
+        } catch (DataAccessException e) {
+            log.debug("Statistics of {} not readable, counting exactly: {}", index, e.getMostSpecificCause().getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Factor from the rows the statistics were built on to the rows there are now.
+     */
+    private static double scale(long orders, List<HistogramStep> steps) {
+        long statsRows = steps.get(0).statsRows();
+        return statsRows > 0 ? (double) orders / statsRows : 1.0;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private record HistogramStep(long highKey, double equalRows, double distinctRangeRows, long statsRows) {
+    }
+
+    public record Row(Long orderId, Long userId, BigDecimal totalPrice, String shippingAddress, Long statusId,
+            LocalDateTime createdAt) {
+    }
+
+    /**
+     * Table-wide figures for selectivity estimates; first/last are null when there are
+     * no orders.
+     */
+    public record Statistics(long orders, long distinctUsers, LocalDateTime firstCreated, LocalDateTime lastCreated,
+            Map<Long, Long> ordersByStatus) {
+    }
+}
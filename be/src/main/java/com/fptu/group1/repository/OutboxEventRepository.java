@@ -0,0 +1,161 @@
+package com.fptu.group1.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.fptu.group1.common.event.OutboxMessage;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JDBC access to the OutboxEvents table. Inserts join the caller's transaction, so an
+ * event is stored exactly when the change it describes commits.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxEventRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO dbo.OutboxEvents (aggregate_type, aggregate_id, event_type, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    // Skips events still backing off after a failure, and every later event of their aggregate
+    private static final String FIND_PENDING_SQL =
+            "SELECT TOP (?) e.event_id, e.aggregate_type, e.aggregate_id, e.event_type, e.payload, e.created_at, e.attempts "
+            + "FROM dbo.OutboxEvents e WHERE e.processed_at IS NULL "
+            + "AND NOT EXISTS (SELECT 1 FROM dbo.OutboxEvents b WHERE b.processed_at IS NULL "
+            + "AND b.next_attempt_at > ? AND b.aggregate_type = e.aggregate_type AND b.aggregate_id = e.aggregate_id "
+            + "AND b.event_id <= e.event_id) "
+            + "ORDER BY e.event_id";
+
+    // Already published events of one type, for a reconnecting Server-Sent Events client
+    private static final String FIND_PUBLISHED_AFTER_SQL =
+            "SELECT TOP (?) event_id, aggregate_type, aggregate_id, event_type, payload, created_at "
+            + "FROM dbo.OutboxEvents WHERE processed_at IS NOT NULL AND event_type = ? AND event_id > ? ";
+
+    private static final String OF_AGGREGATE_SQL = "AND aggregate_type = ? AND aggregate_id = ? ";
+
+    private static final String OF_USER_ORDERS_SQL =
+            "AND aggregate_type = ? AND aggregate_id IN (SELECT order_id FROM dbo.Orders WHERE user_id = ?) ";
+
+    private static final String IN_ORDER_SQL = "ORDER BY event_id";
+
+    private static final String MARK_PROCESSED_SQL =
+            "UPDATE dbo.OutboxEvents SET processed_at = ? WHERE event_id = ?";
+
+    private static final String RECORD_FAILURE_SQL =
+            "UPDATE dbo.OutboxEvents SET attempts = attempts + 1, last_error = ?, next_attempt_at = ? WHERE event_id = ?";
+
+    private static final String GIVE_UP_SQL =
+            "UPDATE dbo.OutboxEvents SET attempts = attempts + 1, last_error = ?, processed_at = ? WHERE event_id = ?";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM dbo.OutboxEvents WHERE processed_at < ?";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void append(String aggregateType, Long aggregateId, String eventType, String payload) {
+        jdbcTemplate.update(INSERT_SQL, aggregateType, aggregateId, eventType, payload, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Append one event per aggregate in a single JDBC batch.
+     *
+     * @param payloads serialized payload by aggregate ID
+     */
+    public void appendAll(String aggregateType, String eventType, Map<Long, String> payloads) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, payloads.entrySet().stream()
+                .map(entry -> new Object[] { aggregateType, entry.getKey(), eventType, entry.getValue(), now })
+                .toList());
+    }
+
+    /**
+     * The oldest unprocessed events that are due, in insertion order. An aggregate whose
+     * earliest pending event is waiting for its retry is left out entirely.
+     */
+    public List<PendingEvent> findPending(int limit) {
+        return jdbcTemplate.query(FIND_PENDING_SQL, (rs, rowNum) -> new PendingEvent(
+                mapMessage(rs, rowNum),
+                rs.getInt("attempts")), limit, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Events of a type that the relay has already published, after the given event ID,
+     * oldest first.
+     */
+    public List<OutboxMessage> findPublishedAfter(String eventType, long afterEventId, int limit) {
+        return jdbcTemplate.query(FIND_PUBLISHED_AFTER_SQL + IN_ORDER_SQL, this::mapMessage,
+                limit, eventType, afterEventId);
+    }
+
+    public List<OutboxMessage> findPublishedAfter(String eventType, String aggregateType, Long aggregateId,
+            long afterEventId, int limit) {
+        return jdbcTemplate.query(FIND_PUBLISHED_AFTER_SQL + OF_AGGREGATE_SQL + IN_ORDER_SQL, this::mapMessage,
+                limit, eventType, afterEventId, aggregateType, aggregateId);
+    }
+
+    /**
+     * Like {@link #findPublishedAfter(String, long, int)}, limited to events of the
+     * orders of one user.
+     */
+    public List<OutboxMessage> findPublishedForUserOrdersAfter(String eventType, String orderAggregateType,
+            Long userId, long afterEventId, int limit) {
+        return jdbcTemplate.query(FIND_PUBLISHED_AFTER_SQL + OF_USER_ORDERS_SQL + IN_ORDER_SQL, this::mapMessage,
+                limit, eventType, afterEventId, orderAggregateType, userId);
+    }
+
+    public void markProcessed(List<Long> eventIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(MARK_PROCESSED_SQL, eventIds, eventIds.size(), (ps, eventId) -> {
+            ps.setTimestamp(1, now);
+            ps.setLong(2, eventId);
+        });
+    }
+
+    /**
+     * Count a failed delivery; the event is not fetched again before {@code nextAttemptAt}.
+     */
+    public void recordFailure(Long eventId, String error, LocalDateTime nextAttemptAt) {
+        jdbcTemplate.update(RECORD_FAILURE_SQL, truncate(error), Timestamp.valueOf(nextAttemptAt), eventId);
+    }
+
+    /**
+     * Stop retrying an event. It stays in the table with its last error until purged.
+     */
+    public void giveUp(Long eventId, String error) {
+        jdbcTemplate.update(GIVE_UP_SQL, truncate(error), Timestamp.valueOf(LocalDateTime.now()), eventId);
+    }
+
+    public int purgeProcessedBefore(LocalDateTime processedBefore) {
+        return jdbcTemplate.update(PURGE_SQL, Timestamp.valueOf(processedBefore));
+    }
+
+    private OutboxMessage mapMessage(ResultSet rs, int rowNum) throws SQLException {
+        return new OutboxMessage(
+                rs.getLong("event_id"),
+                rs.getString("aggregate_type"),
+                rs.getLong("aggregate_id"),
+                rs.getString("event_type"),
+                rs.getString("payload"),
+                rs.getTimestamp("created_at").toLocalDateTime());
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    public record PendingEvent(OutboxMessage message, int attempts) {
+    }
+}
@@ -0,0 +1,123 @@
+package com.fptu.group1.repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.fptu.group1.model.Product;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Set-based lookups and batched product inserts for bulk product import. Each call
+ * handles a whole chunk of products in a few statements instead of one round trip per
+ * row. Variants and specifications go through the batch inserts of their own
+ * repositories.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductImportRepository {
+
+    // SQL Server accepts at most 2100 parameters per statement
+    private static final int MAX_IN_LIST = 1000;
+    // The product columns plus the row's position in the statement
+    private static final int PRODUCT_COLUMNS = 13;
+    private static final int PRODUCTS_PER_INSERT = 2000 / PRODUCT_COLUMNS;
+
+    // MERGE instead of INSERT so that OUTPUT can return the source row number next to the
+    // generated ID; an INSERT's OUTPUT only sees the inserted columns, in no given order
+    private static final String INSERT_PRODUCTS_SQL =
+            "MERGE INTO dbo.Products USING (VALUES %s) AS src (name, slug, short_description, description, brand_id, "
+            + "category_id, model_number, release_year, default_price, image_url, is_deleted, created_at, source_row) "
+            + "ON 1 = 0 WHEN NOT MATCHED THEN INSERT (name, slug, short_description, description, brand_id, category_id, "
+            + "model_number, release_year, default_price, image_url, is_deleted, created_at) "
+            + "VALUES (src.name, src.slug, src.short_description, src.description, src.brand_id, src.category_id, "
+            + "src.model_number, src.release_year, src.default_price, src.image_url, src.is_deleted, src.created_at) "
+            + "OUTPUT src.source_row, INSERTED.product_id;";
+
+    // Same rule as ProductRepository.refreshPriceRange, for many products at once
+    private static final String REFRESH_PRICE_RANGES_SQL =
+            "UPDATE p SET p.min_price = COALESCE(r.min_price, p.default_price), p.max_price = COALESCE(r.max_price, p.default_price) "
+            + "FROM dbo.Products p OUTER APPLY (SELECT MIN(v.price) AS min_price, MAX(v.price) AS max_price "
+            + "FROM dbo.ProductVariants v WHERE v.product_id = p.product_id AND v.is_active = 1) r "
+            + "WHERE p.product_id IN ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * The given slugs that are already taken, as stored.
+     */
+    public Set<String> findExistingSlugs(Collection<String> slugs) {
+        return findExisting("SELECT slug FROM dbo.Products WHERE slug IN ", slugs, String.class);
+    }
+
+    public Set<String> findExistingNames(Collection<String> names) {
+        return findExisting("SELECT name FROM dbo.Products WHERE name IN ", names, String.class);
+    }
+
+    public Set<String> findExistingSkus(Collection<String> skus) {
+        return findExisting("SELECT sku FROM dbo.ProductVariants WHERE sku IN ", skus, String.class);
+    }
+
+    public Set<Long> findExistingBrandIds(Collection<Long> brandIds) {
+        return findExisting("SELECT brand_id FROM dbo.Brands WHERE brand_id IN ", brandIds, Long.class);
+    }
+
+    public Set<Long> findExistingCategoryIds(Collection<Long> categoryIds) {
+        return findExisting("SELECT category_id FROM dbo.Categories WHERE category_id IN ", categoryIds, Long.class);
+    }
+
+    /**
+     * Insert the products with multi-row statements and set their generated IDs, matched
+     * back to the products by their position in the statement.
+     */
+    public void insertProducts(List<Product> products) {
+        String row = placeholders(PRODUCT_COLUMNS);
+        for (int from = 0; from < products.size(); from += PRODUCTS_PER_INSERT) {
+            List<Product> slice = products.subList(from, Math.min(from + PRODUCTS_PER_INSERT, products.size()));
+            List<Object> args = new ArrayList<>(slice.size() * PRODUCT_COLUMNS);
+            for (int i = 0; i < slice.size(); i++) {
+                Product product = slice.get(i);
+                Collections.addAll(args, product.getName(), product.getSlug(), product.getShortDescription(),
+                        product.getFullDescription(), product.getBrandId(), product.getCategoryId(),
+                        product.getModelNumber(), product.getReleaseYear(), product.getDefaultPrice(),
+                        product.getImageUrl(), product.getIsDeleted(), Timestamp.valueOf(product.getCreatedAt()), i);
+            }
+            String sql = String.format(INSERT_PRODUCTS_SQL, String.join(", ", Collections.nCopies(slice.size(), row)));
+            jdbcTemplate.query(sql,
+                    rs -> {
+                        slice.get(rs.getInt("source_row")).setProductId(rs.getLong("product_id"));
+                    },
+                    args.toArray());
+        }
+    }
+
+    public void refreshPriceRanges(Collection<Long> productIds) {
+        List<Long> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST) {
+            List<Long> slice = ids.subList(from, Math.min(from + MAX_IN_LIST, ids.size()));
+            jdbcTemplate.update(REFRESH_PRICE_RANGES_SQL + placeholders(slice.size()), slice.toArray());
+        }
+    }
+
+    private <T> Set<T> findExisting(String sqlPrefix, Collection<T> values, Class<T> type) {
+        Set<T> existing = new HashSet<>();
+        List<T> distinct = new ArrayList<>(new HashSet<>(values));
+        for (int from = 0; from < distinct.size(); from += MAX_IN_LIST) {
+            List<T> slice = distinct.subList(from, Math.min(from + MAX_IN_LIST, distinct.size()));
+            existing.addAll(jdbcTemplate.queryForList(sqlPrefix + placeholders(slice.size()), type, slice.toArray()));
+        }
+        return existing;
+    }
+
+    private static String placeholders(int count) {
+        return "(" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+}
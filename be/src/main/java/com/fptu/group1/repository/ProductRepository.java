@@ -1,10 +1,19 @@
 package com.fptu.group1.repository;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,7 +21,7 @@ import org.springframework.stereotype.Repository;
 import com.fptu.group1.model.Product;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
     Optional<Product> findBySlug(String slug);
     boolean existsBySlug(String slug);
     boolean existsByName(String name);
@@ -23,13 +32,30 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p WHERE p.isDeleted = false AND p.productId = :id")
     Optional<Product> findActiveById(@Param("id") Long id);
     
-    @Query("SELECT p FROM Product p WHERE p.isDeleted = false AND (p.name LIKE %:keyword% OR p.slug LIKE %:keyword%)")
-    Page<Product> searchActiveProducts(@Param("keyword") String keyword, Pageable pageable);
-    
-    @Query("SELECT p FROM Product p WHERE p.isDeleted = false AND (:categoryId IS NULL OR p.categoryId = :categoryId) AND (:brandId IS NULL OR p.brandId = :brandId)")
-    Page<Product> findActiveByCategoryAndBrand(@Param("categoryId") Long categoryId, @Param("brandId") Long brandId, Pageable pageable);
-    
-    @Query("SELECT p FROM Product p WHERE p.isDeleted = false AND (p.name LIKE %:keyword% OR p.slug LIKE %:keyword%) AND (:categoryId IS NULL OR p.categoryId = :categoryId) AND (:brandId IS NULL OR p.brandId = :brandId)")
-    Page<Product> searchActiveProductsWithFilters(@Param("keyword") String keyword, @Param("categoryId") Long categoryId, @Param("brandId") Long brandId, Pageable pageable);
-}
+    List<Product> findByIsDeletedFalse();
+
+    List<Product> findByCategoryIdAndIsDeletedFalse(Long categoryId);
 
+    @Query("SELECT p FROM Product p WHERE p.isDeleted = false AND p.productId IN :ids")
+    List<Product> findActiveByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Load active products by ID, keeping the order of the given IDs (e.g. search relevance).
+     */
+    default List<Product> findActiveByIdsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Product> byId = findActiveByIdIn(ids).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // Recompute the denormalized active-variant price range; falls back to the default price
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.minPrice = COALESCE((SELECT MIN(v.price) FROM ProductVariant v WHERE v.productId = p.productId AND v.isActive = true), p.defaultPrice), p.maxPrice = COALESCE((SELECT MAX(v.price) FROM ProductVariant v WHERE v.productId = p.productId AND v.isActive = true), p.defaultPrice) WHERE p.productId = :productId")
+    int refreshPriceRange(@Param("productId") Long productId);
+}
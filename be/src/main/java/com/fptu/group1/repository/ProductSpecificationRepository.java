@@ -1,5 +1,6 @@
 package com.fptu.group1.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,7 +9,9 @@ import org.springframework.stereotype.Repository;
 import com.fptu.group1.model.ProductSpecification;
 
 @Repository
-public interface ProductSpecificationRepository extends JpaRepository<ProductSpecification, Long> {
+public interface ProductSpecificationRepository extends JpaRepository<ProductSpecification, Long>, ProductSpecificationRepositoryCustom {
     List<ProductSpecification> findByProductId(Long productId);
+
+    List<ProductSpecification> findByProductIdIn(Collection<Long> productIds);
 }
 
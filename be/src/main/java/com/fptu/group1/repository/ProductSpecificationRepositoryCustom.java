@@ -0,0 +1,16 @@
+package com.fptu.group1.repository;
+
+import java.util.List;
+
+import com.fptu.group1.model.ProductSpecification;
+
+/**
+ * Batched writes of many specifications at once, bypassing the persistence context.
+ */
+public interface ProductSpecificationRepositoryCustom {
+
+    /**
+     * Insert new specifications as a single JDBC batch. Generated IDs are not read back.
+     */
+    void insertAll(List<ProductSpecification> specifications);
+}
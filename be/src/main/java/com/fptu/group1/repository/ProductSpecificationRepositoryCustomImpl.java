@@ -0,0 +1,25 @@
+package com.fptu.group1.repository;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fptu.group1.model.ProductSpecification;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class ProductSpecificationRepositoryCustomImpl implements ProductSpecificationRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO dbo.ProductSpecifications (product_id, spec_key, spec_value) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<ProductSpecification> specifications) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, specifications.stream()
+                .map(s -> new Object[] { s.getProductId(), s.getSpecKey(), s.getSpecValue() })
+                .toList());
+    }
+}
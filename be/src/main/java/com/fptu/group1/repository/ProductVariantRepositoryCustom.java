@@ -0,0 +1,79 @@
+package com.fptu.group1.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fptu.group1.model.ProductVariant;
+
+/**
+ * Stock updates that have to be done as plain conditional SQL rather than through the
+ * persistence context, and batched writes of many variants at once.
+ */
+public interface ProductVariantRepositoryCustom {
+
+    /**
+     * Take the given quantities off stock, one conditional UPDATE per variant sent as a
+     * single JDBC batch. A variant is only decremented if it has enough stock left, so
+     * concurrent callers can never drive stock below zero.
+     *
+     * Runs in the caller's transaction and bypasses the persistence context: variants
+     * already loaded keep their old stock value.
+     *
+     * @param quantitiesByVariantId quantity to remove per variant ID
+     * @return IDs of the variants that did not have enough stock (nothing was taken
+     *         from those); empty when every line succeeded
+     */
+    List<Long> decrementStock(Map<Long, Integer> quantitiesByVariantId);
+
+    /**
+     * Put stock back, e.g. for a claim whose order was not placed after all.
+     */
+    void incrementStock(Long variantId, int quantity);
+
+    /**
+     * Add the given amounts (negative to take stock away) to the current stock, as one
+     * JDBC batch. Being relative, it keeps units that checkouts took meanwhile taken. A
+     * variant is only changed if its stock stays at or above zero.
+     *
+     * @return IDs of the variants left unchanged because their stock would have gone
+     *         below zero
+     */
+    List<Long> adjustStock(Map<Long, Integer> deltasByVariantId);
+
+    /**
+     * Current stock of a variant, read with an update lock held until the caller's
+     * transaction ends. Null when the variant does not exist.
+     */
+    Integer findStockForUpdate(Long variantId);
+
+    /**
+     * Current stock of the given variants, without loading entities. Unknown IDs are
+     * left out.
+     */
+    List<VariantStock> findStock(Collection<Long> variantIds);
+
+    /**
+     * Insert new variants as a single JDBC batch. Generated IDs are not read back, and
+     * the rows are not added to the persistence context.
+     */
+    void insertAll(List<ProductVariant> variants);
+
+    /**
+     * Write SKU, attributes, price and active flag of existing variants as one JDBC
+     * batch. Stock is not written; see {@link #adjustStock}.
+     */
+    void updateDetails(List<ProductVariant> variants);
+
+    void deactivate(Collection<Long> variantIds);
+
+    /**
+     * The given variants that order lines or cart lines still point to, and which
+     * therefore cannot be deleted.
+     */
+    Set<Long> findReferencedIds(Collection<Long> variantIds);
+
+    record VariantStock(Long variantId, Long productId, int stock) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.fptu.group1.repository;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fptu.group1.model.ProductVariant;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class ProductVariantRepositoryCustomImpl implements ProductVariantRepositoryCustom {
+
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE dbo.ProductVariants SET stock = stock - ? WHERE variant_id = ? AND stock >= ?";
+
+    private static final String INCREMENT_STOCK_SQL =
+            "UPDATE dbo.ProductVariants SET stock = stock + ? WHERE variant_id = ?";
+
+    private static final String ADJUST_STOCK_SQL =
+            "UPDATE dbo.ProductVariants SET stock = stock + ? WHERE variant_id = ? AND stock + ? >= 0";
+
+    private static final String UPDATE_DETAILS_SQL =
+            "UPDATE dbo.ProductVariants SET sku = ?, attributes = ?, price = ?, is_active = ? WHERE variant_id = ?";
+
+    private static final String DEACTIVATE_SQL =
+            "UPDATE dbo.ProductVariants SET is_active = 0 WHERE variant_id = ?";
+
+    private static final String FIND_STOCK_SQL =
+            "SELECT variant_id, product_id, stock FROM dbo.ProductVariants WHERE variant_id IN (%s)";
+
+    // Well below SQL Server's limit of 2100 parameters per statement
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO dbo.ProductVariants (product_id, sku, attributes, price, stock, is_active) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String FIND_REFERENCED_SQL =
+            "SELECT variant_id FROM dbo.OrderDetails WHERE variant_id IN (%1$s) "
+            + "UNION SELECT variant_id FROM dbo.Cart WHERE variant_id IN (%1$s)";
+
+    private static final String FIND_STOCK_FOR_UPDATE_SQL =
+            "SELECT stock FROM dbo.ProductVariants WITH (UPDLOCK, ROWLOCK) WHERE variant_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> decrementStock(Map<Long, Integer> quantitiesByVariantId) {
+        if (quantitiesByVariantId.isEmpty()) {
+            return List.of();
+        }
+        return updateStock(DECREMENT_STOCK_SQL, quantitiesByVariantId);
+    }
+
+    @Override
+    public void incrementStock(Long variantId, int quantity) {
+        jdbcTemplate.update(INCREMENT_STOCK_SQL, quantity, variantId);
+    }
+
+    @Override
+    public List<Long> adjustStock(Map<Long, Integer> deltasByVariantId) {
+        if (deltasByVariantId.isEmpty()) {
+            return List.of();
+        }
+        return updateStock(ADJUST_STOCK_SQL, deltasByVariantId);
+    }
+
+    // One conditional stock UPDATE per variant, binding (amount, variant ID, amount); returns the IDs that matched no row
+    private List<Long> updateStock(String sql, Map<Long, Integer> amountsByVariantId) {
+        // Update rows in ID order so that concurrent checkouts lock them in the same order
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(new TreeMap<>(amountsByVariantId).entrySet());
+        int[] updated = jdbcTemplate.batchUpdate(sql, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setLong(2, line.getKey());
+            ps.setInt(3, line.getValue());
+        })[0];
+
+        List<Long> insufficient = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == Statement.SUCCESS_NO_INFO) {
+                throw new IllegalStateException("JDBC driver did not report update counts for the stock batch");
+            }
+            if (updated[i] == 0) {
+                insufficient.add(lines.get(i).getKey());
+            }
+        }
+        return insufficient;
+    }
+
+    @Override
+    public Integer findStockForUpdate(Long variantId) {
+        List<Integer> stock = jdbcTemplate.queryForList(FIND_STOCK_FOR_UPDATE_SQL, Integer.class, variantId);
+        return stock.isEmpty() ? null : stock.get(0);
+    }
+
+    @Override
+    public List<VariantStock> findStock(Collection<Long> variantIds) {
+        List<Long> ids = new ArrayList<>(variantIds);
+        List<VariantStock> stock = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+            String sql = String.format(FIND_STOCK_SQL, String.join(",", Collections.nCopies(chunk.size(), "?")));
+            stock.addAll(jdbcTemplate.query(sql, (rs, rowNum) -> new VariantStock(
+                    rs.getLong("variant_id"),
+                    rs.getLong("product_id"),
+                    rs.getInt("stock")), chunk.toArray()));
+        }
+        return stock;
+    }
+
+    @Override
+    public void insertAll(List<ProductVariant> variants) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, variants.stream()
+                .map(v -> new Object[] { v.getProductId(), v.getSku(), v.getAttributes(), v.getPrice(), v.getStock(), v.getIsActive() })
+                .toList());
+    }
+
+    @Override
+    public void updateDetails(List<ProductVariant> variants) {
+        jdbcTemplate.batchUpdate(UPDATE_DETAILS_SQL, variants.stream()
+                .map(v -> new Object[] { v.getSku(), v.getAttributes(), v.getPrice(), v.getIsActive(), v.getVariantId() })
+                .toList());
+    }
+
+    @Override
+    public void deactivate(Collection<Long> variantIds) {
+        jdbcTemplate.batchUpdate(DEACTIVATE_SQL, variantIds.stream()
+                .map(variantId -> new Object[] { variantId })
+                .toList());
+    }
+
+    @Override
+    public Set<Long> findReferencedIds(Collection<Long> variantIds) {
+        List<Long> ids = new ArrayList<>(variantIds);
+        Set<Long> referenced = new HashSet<>();
+        // Each ID is bound twice, once per table
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY / 2) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY / 2, ids.size()));
+            String sql = String.format(FIND_REFERENCED_SQL, String.join(",", Collections.nCopies(chunk.size(), "?")));
+            List<Object> args = new ArrayList<>(chunk);
+            args.addAll(chunk);
+            referenced.addAll(jdbcTemplate.queryForList(sql, Long.class, args.toArray()));
+        }
+        return referenced;
+    }
+}
@@ -0,0 +1,74 @@
+package com.fptu.group1.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JDBC access to the StockReservations table, the write-behind copy of the in-memory
+ * reservation ledger. Batched, since the ledger flushes many holds at once.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockReservationRepository {
+
+    private static final String FIND_LIVE_SQL =
+            "SELECT user_id, variant_id, quantity, expires_at FROM dbo.StockReservations WHERE expires_at > ?";
+
+    private static final String UPSERT_SQL =
+            "MERGE dbo.StockReservations WITH (HOLDLOCK) AS target "
+            + "USING (SELECT ? AS user_id, ? AS variant_id) AS source "
+            + "ON target.user_id = source.user_id AND target.variant_id = source.variant_id "
+            + "WHEN MATCHED THEN UPDATE SET quantity = ?, expires_at = ?, updated_at = SYSDATETIME() "
+            + "WHEN NOT MATCHED THEN INSERT (user_id, variant_id, quantity, expires_at, updated_at) "
+            + "VALUES (source.user_id, source.variant_id, ?, ?, SYSDATETIME());";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM dbo.StockReservations WHERE user_id = ? AND variant_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<Reservation> findLive(LocalDateTime now) {
+        return jdbcTemplate.query(FIND_LIVE_SQL, (rs, rowNum) -> new Reservation(
+                rs.getLong("user_id"),
+                rs.getLong("variant_id"),
+                rs.getInt("quantity"),
+                rs.getTimestamp("expires_at").toLocalDateTime()), Timestamp.valueOf(now));
+    }
+
+    public void upsertAll(List<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, reservations, reservations.size(), (ps, reservation) -> {
+            Timestamp expiresAt = Timestamp.valueOf(reservation.expiresAt());
+            ps.setLong(1, reservation.userId());
+            ps.setLong(2, reservation.variantId());
+            ps.setInt(3, reservation.quantity());
+            ps.setTimestamp(4, expiresAt);
+            ps.setInt(5, reservation.quantity());
+            ps.setTimestamp(6, expiresAt);
+        });
+    }
+
+    public void deleteAll(List<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_SQL, reservations, reservations.size(), (ps, reservation) -> {
+            ps.setLong(1, reservation.userId());
+            ps.setLong(2, reservation.variantId());
+        });
+    }
+
+    /**
+     * One row of the table. For deletes only the user and variant are used.
+     */
+    public record Reservation(Long userId, Long variantId, int quantity, LocalDateTime expiresAt) {
+    }
+}
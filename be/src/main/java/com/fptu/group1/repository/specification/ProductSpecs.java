@@ -0,0 +1,105 @@
+package com.fptu.group1.repository.specification;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.fptu.group1.dto.request.ProductFilterRequest;
+import com.fptu.group1.model.Product;
+import com.fptu.group1.model.ProductSpecification;
+
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+/**
+ * Composable JPA specifications for product queries. Used where the filters have to be
+ * combined with keyset (scroll) pagination, which the @Query methods cannot do.
+ */
+public final class ProductSpecs {
+
+    private ProductSpecs() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static Specification<Product> isActive() {
+        return (root, query, cb) -> cb.isFalse(root.get("isDeleted"));
+    }
+
+    public static Specification<Product> idIn(Collection<Long> productIds) {
+        return (root, query, cb) -> root.get("productId").in(productIds);
+    }
+
+    public static Specification<Product> categoryIn(Collection<Long> categoryIds) {
+        return (root, query, cb) -> categoryIds == null || categoryIds.isEmpty() ? null : root.get("categoryId").in(categoryIds);
+    }
+
+    public static Specification<Product> brandIn(Collection<Long> brandIds) {
+        return (root, query, cb) -> brandIds == null || brandIds.isEmpty() ? null : root.get("brandId").in(brandIds);
+    }
+
+    /**
+     * Price between min (inclusive) and max (exclusive), compared with the cheapest
+     * active variant and falling back to the default price.
+     */
+    public static Specification<Product> priceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return (root, query, cb) -> {
+            if (minPrice == null && maxPrice == null) {
+                return null;
+            }
+            Expression<BigDecimal> price = cb.coalesce(root.<BigDecimal>get("minPrice"), root.<BigDecimal>get("defaultPrice"));
+            if (minPrice == null) {
+                return cb.lessThan(price, maxPrice);
+            }
+            if (maxPrice == null) {
+                return cb.greaterThanOrEqualTo(price, minPrice);
+            }
+            return cb.and(cb.greaterThanOrEqualTo(price, minPrice), cb.lessThan(price, maxPrice));
+        };
+    }
+
+    /**
+     * Product has a specification with the given key and one of the given values.
+     * Key and values are compared trimmed and case-insensitively.
+     */
+    public static Specification<Product> hasSpecification(String specKey, Set<String> specValues) {
+        return (root, query, cb) -> {
+            if (specValues == null || specValues.isEmpty()) {
+                return null;
+            }
+            List<String> values = specValues.stream()
+                    .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toList());
+
+            Subquery<Integer> subquery = query.subquery(Integer.class);
+            Root<ProductSpecification> spec = subquery.from(ProductSpecification.class);
+            subquery.select(cb.literal(1)).where(
+                    cb.equal(spec.get("productId"), root.get("productId")),
+                    cb.equal(cb.lower(cb.trim(spec.get("specKey"))), specKey.trim().toLowerCase(Locale.ROOT)),
+                    cb.lower(cb.trim(spec.get("specValue"))).in(values));
+            return cb.exists(subquery);
+        };
+    }
+
+    /**
+     * Active products matching every attribute filter of the catalog request (the
+     * keyword is not part of it).
+     */
+    public static Specification<Product> activeWithFilters(ProductFilterRequest filter) {
+        Specification<Product> spec = Specification.allOf(
+                isActive(),
+                categoryIn(filter.getCategoryIds()),
+                brandIn(filter.getBrandIds()),
+                priceBetween(filter.getMinPrice(), filter.getMaxPrice()));
+        for (Map.Entry<String, Set<String>> entry : filter.getSpecifications().entrySet()) {
+            spec = spec.and(hasSpecification(entry.getKey(), entry.getValue()));
+        }
+        return spec;
+    }
+}
@@ -3,10 +3,22 @@ package com.fptu.group1.service;
 import org.springframework.stereotype.Service;
 
 import com.fptu.group1.dto.request.CheckoutRequest;
+import com.fptu.group1.dto.response.CheckoutIntentResponse;
 import com.fptu.group1.dto.response.CheckoutResponse;
 
 @Service
 public interface CheckoutService {
-    CheckoutResponse checkout(Long userId, CheckoutRequest request);
+    /**
+     * @param idempotencyKey optional client key; a retry with the same key gets the
+     *                       original response instead of placing a second order
+     */
+    CheckoutResponse checkout(Long userId, CheckoutRequest request, String idempotencyKey);
+
+    /**
+     * Queue a checkout and return at once; the order is placed by a background worker.
+     */
+    CheckoutIntentResponse submitCheckout(Long userId, CheckoutRequest request);
+
+    CheckoutIntentResponse getCheckoutIntent(Long userId, String intentId);
 }
 
@@ -3,14 +3,19 @@ package com.fptu.group1.service;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import com.fptu.group1.dto.request.OrderSearchRequest;
 import com.fptu.group1.dto.request.UpdateOrderStatusRequest;
 import com.fptu.group1.dto.response.OrderDetailResponse;
 import com.fptu.group1.dto.response.OrderPageResponse;
+import com.fptu.group1.dto.response.OrderSearchResponse;
+import com.fptu.group1.dto.response.OrderStatusEventResponse;
 
 @Service
 public interface OrderService {
     OrderPageResponse getAllOrders(Pageable pageable, Long statusId);
     OrderDetailResponse getOrderById(Long orderId);
     OrderDetailResponse updateOrderStatus(Long orderId, UpdateOrderStatusRequest request);
+    OrderStatusEventResponse getOrderStatus(Long orderId);
+    OrderSearchResponse searchOrders(OrderSearchRequest filter, int size, String after);
 }
 
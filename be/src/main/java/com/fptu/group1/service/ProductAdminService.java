@@ -8,13 +8,14 @@ import com.fptu.group1.dto.request.AddProductRequest;
 import com.fptu.group1.dto.request.UpdateProductRequest;
 import com.fptu.group1.dto.response.AddProductResponse;
 import com.fptu.group1.dto.response.ProductDetailResponse;
+import com.fptu.group1.dto.response.ProductImportJobResponse;
 import com.fptu.group1.dto.response.ProductPageResponse;
 
 @Service
 public interface ProductAdminService {
     AddProductResponse addProduct(AddProductRequest request);
     ProductDetailResponse updateProduct(Long productId, UpdateProductRequest request);
-    ProductPageResponse getAllProducts(Pageable pageable, String keyword);
+    ProductPageResponse getAllProducts(Pageable pageable, String keyword, String after);
     ProductDetailResponse getProductById(Long productId);
     void deleteProduct(Long productId);
     
@@ -29,5 +30,15 @@ public interface ProductAdminService {
      * @return AddProductRequest object
      */
     AddProductRequest parseProductRequest(String productJson, String variantsJson, String specsJson);
+
+    /**
+     * Queue a bulk import of a CSV or NDJSON file; products are inserted in the background
+     * @param file Uploaded import file
+     * @param format csv or ndjson
+     * @return The queued job, to poll with {@link #getImportJob}
+     */
+    ProductImportJobResponse startImport(MultipartFile file, String format);
+
+    ProductImportJobResponse getImportJob(String jobId);
 }
 
@@ -3,12 +3,13 @@ package com.fptu.group1.service;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import com.fptu.group1.dto.request.ProductFilterRequest;
 import com.fptu.group1.dto.response.PublicProductDetailResponse;
 import com.fptu.group1.dto.response.PublicProductPageResponse;
 
 @Service
 public interface ProductService {
-    PublicProductPageResponse getAllProducts(Pageable pageable, String keyword, Long categoryId, Long brandId);
+    PublicProductPageResponse getAllProducts(Pageable pageable, ProductFilterRequest filter, String after);
     PublicProductDetailResponse getProductById(Long productId);
     PublicProductDetailResponse getProductBySlug(String slug);
 }
@@ -0,0 +1,352 @@
+package com.fptu.group1.service.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fptu.group1.common.event.CategoryChangedEvent;
+import com.fptu.group1.common.event.ProductChangedEvent;
+import com.fptu.group1.common.event.ProductStockChangedEvent;
+import com.fptu.group1.dto.response.CacheStatsResponse;
+import com.fptu.group1.dto.response.ProductSpecificationResponse;
+import com.fptu.group1.dto.response.PublicProductDetailResponse;
+import com.fptu.group1.dto.response.PublicProductVariantResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read-through cache of fully built public product details, keyed by product ID with a
+ * slug -> ID alias.
+ *
+ * Bounded by an estimated size in bytes rather than an entry count, since a product with
+ * a long description and many variants costs far more than a bare one; the least
+ * recently used entries are evicted first. Entries are dropped after the transaction
+ * that changed the product (or its stock) commits. A load that overlaps such an
+ * invalidation is returned to its caller but not stored, so a stale read can never
+ * outlive the write that replaced it.
+ *
+ * An entry can also carry the serialized response body, so that repeated reads and
+ * conditional requests skip Jackson; it shares the entry's lifetime and size budget.
+ *
+ * The response DTOs are mutable, so the cache keeps its own copy and hands out a fresh
+ * copy on every hit; a caller changing its response cannot change what others are served.
+ */
+@Slf4j
+@Component
+public class ProductDetailCache {
+
+    // Fixed overhead per entry: DTO headers, map nodes, boxed numbers
+    private static final long ENTRY_OVERHEAD_BYTES = 512;
+    private static final long VARIANT_OVERHEAD_BYTES = 160;
+    private static final long SPECIFICATION_OVERHEAD_BYTES = 96;
+
+    // Power of two; products share a generation counter per stripe
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final long maxWeightBytes;
+
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Long> idsBySlug = new ConcurrentHashMap<>();
+    // Bumped on every invalidation of a product in the stripe; loads compare it before storing.
+    // Fixed size: an invalidation of another product in the stripe only skips one store
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    // Bumped on every invalidation; guards loads whose product ID is not known up front
+    private final AtomicLong globalGeneration = new AtomicLong();
+    // Bumped by invalidateAll only; checked by every load
+    private final AtomicLong clearGeneration = new AtomicLong();
+    private long weightBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductDetailCache(@Value("${catalog.cache.product-detail.max-bytes:16777216}") long maxWeightBytes) {
+        this.maxWeightBytes = maxWeightBytes;
+    }
+
+    public PublicProductDetailResponse getById(Long productId, Supplier<PublicProductDetailResponse> loader) {
+        PublicProductDetailResponse cached = lookup(productId);
+        if (cached != null) {
+            return cached;
+        }
+        return load(productId, loader);
+    }
+
+    public PublicProductDetailResponse getBySlug(String slug, Supplier<PublicProductDetailResponse> loader) {
+        Long productId = idsBySlug.get(slug);
+        PublicProductDetailResponse cached = productId != null ? lookup(productId, slug) : null;
+        if (cached != null) {
+            return cached;
+        }
+        return load(productId, loader);
+    }
+
+    /**
+     * Serialized body of a cached product, if it has been serialized since it was loaded.
+     * Counts as a cache hit; does not load anything.
+     */
+    public SerializedProduct findSerializedById(Long productId) {
+        return findSerialized(productId);
+    }
+
+    public SerializedProduct findSerializedBySlug(String slug) {
+        Long productId = idsBySlug.get(slug);
+        return productId != null ? findSerialized(productId) : null;
+    }
+
+    /**
+     * Serialize a value returned by {@link #getById}/{@link #getBySlug} and attach the
+     * bytes to its entry. If the entry was invalidated or replaced in the meantime (or
+     * the caller changed the value) the bytes are returned without being kept.
+     */
+    public SerializedProduct serialize(PublicProductDetailResponse value, Function<PublicProductDetailResponse, byte[]> serializer) {
+        SerializedProduct serialized = SerializedProduct.of(value.getProductId(), serializer.apply(value));
+        synchronized (entries) {
+            Entry entry = entries.get(value.getProductId());
+            if (entry != null && entry.serialized() == null && entry.value().equals(value)) {
+                entry.attach(serialized);
+                weightBytes += serialized.sizeBytes();
+                evictOverweight();
+            }
+        }
+        return serialized;
+    }
+
+    public void invalidate(Long productId) {
+        generations.incrementAndGet(stripe(productId));
+        globalGeneration.incrementAndGet();
+        Entry removed;
+        synchronized (entries) {
+            removed = entries.remove(productId);
+            if (removed != null) {
+                weightBytes -= removed.weightBytes();
+            }
+        }
+        if (removed != null) {
+            idsBySlug.remove(removed.value().getSlug(), productId);
+            invalidations.incrementAndGet();
+        }
+    }
+
+    public void invalidateAll() {
+        clearGeneration.incrementAndGet();
+        globalGeneration.incrementAndGet();
+        synchronized (entries) {
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+            idsBySlug.clear();
+            weightBytes = 0;
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        event.productIds().forEach(this::invalidate);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductStockChanged(ProductStockChangedEvent event) {
+        event.productIds().forEach(this::invalidate);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        // Category names are embedded in every entry of that category
+        invalidateAll();
+    }
+
+    public CacheStatsResponse stats() {
+        synchronized (entries) {
+            return CacheStatsResponse.builder()
+                    .name("product-detail")
+                    .entries(entries.size())
+                    .weightBytes(weightBytes)
+                    .maxWeightBytes(maxWeightBytes)
+                    .hits(hits.get())
+                    .misses(misses.get())
+                    .evictions(evictions.get())
+                    .invalidations(invalidations.get())
+                    .build();
+        }
+    }
+
+    private SerializedProduct findSerialized(Long productId) {
+        synchronized (entries) {
+            Entry entry = entries.get(productId);
+            if (entry != null && entry.serialized() != null) {
+                hits.incrementAndGet();
+                return entry.serialized();
+            }
+        }
+        return null;
+    }
+
+    private PublicProductDetailResponse lookup(Long productId) {
+        return lookup(productId, null);
+    }
+
+    /**
+     * A copy of the cached value, or null on a miss (or when it no longer has the slug).
+     */
+    private PublicProductDetailResponse lookup(Long productId, String slug) {
+        PublicProductDetailResponse value;
+        synchronized (entries) {
+            Entry entry = entries.get(productId);
+            if (entry == null || (slug != null && !slug.equals(entry.value().getSlug()))) {
+                return null;
+            }
+            hits.incrementAndGet();
+            value = entry.value();
+        }
+        // Never changed after it was stored, so it can be copied outside the lock
+        return copy(value);
+    }
+
+    private PublicProductDetailResponse load(Long knownProductId, Supplier<PublicProductDetailResponse> loader) {
+        misses.incrementAndGet();
+        long clearBefore = clearGeneration.get();
+        long globalBefore = globalGeneration.get();
+        long generationBefore = knownProductId != null ? generations.get(stripe(knownProductId)) : 0L;
+
+        PublicProductDetailResponse value = loader.get();
+
+        Long productId = value.getProductId();
+        boolean invalidatedMeanwhile = knownProductId != null && knownProductId.equals(productId)
+                ? generations.get(stripe(productId)) != generationBefore
+                : globalGeneration.get() != globalBefore;
+        if (!invalidatedMeanwhile && clearGeneration.get() == clearBefore) {
+            // The caller keeps the loaded instance, the cache keeps its own
+            store(productId, copy(value));
+        }
+        return value;
+    }
+
+    private void store(Long productId, PublicProductDetailResponse value) {
+        long weight = weigh(value);
+        if (weight > maxWeightBytes) {
+            return;
+        }
+        synchronized (entries) {
+            Entry previous = entries.put(productId, new Entry(value, weight));
+            if (previous != null) {
+                weightBytes -= previous.weightBytes();
+            }
+            weightBytes += weight;
+            evictOverweight();
+        }
+        if (value.getSlug() != null) {
+            idsBySlug.put(value.getSlug(), productId);
+        }
+    }
+
+    // Caller holds the entries lock
+    private void evictOverweight() {
+        Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+        while (weightBytes > maxWeightBytes && eldest.hasNext()) {
+            Map.Entry<Long, Entry> evicted = eldest.next();
+            eldest.remove();
+            weightBytes -= evicted.getValue().weightBytes();
+            idsBySlug.remove(evicted.getValue().value().getSlug(), evicted.getKey());
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static int stripe(Long productId) {
+        return Long.hashCode(productId) & (GENERATION_STRIPES - 1);
+    }
+
+    private static PublicProductDetailResponse copy(PublicProductDetailResponse value) {
+        return PublicProductDetailResponse.builder()
+                .productId(value.getProductId())
+                .name(value.getName())
+                .slug(value.getSlug())
+                .shortDescription(value.getShortDescription())
+                .fullDescription(value.getFullDescription())
+                .brandId(value.getBrandId())
+                .brandName(value.getBrandName())
+                .categoryId(value.getCategoryId())
+                .categoryName(value.getCategoryName())
+                .modelNumber(value.getModelNumber())
+                .releaseYear(value.getReleaseYear())
+                .defaultPrice(value.getDefaultPrice())
+                .imageUrl(value.getImageUrl())
+                .variants(value.getVariants().stream()
+                        .map(variant -> PublicProductVariantResponse.builder()
+                                .variantId(variant.getVariantId())
+                                .sku(variant.getSku())
+                                .attributes(variant.getAttributes())
+                                .price(variant.getPrice())
+                                .stock(variant.getStock())
+                                .isActive(variant.getIsActive())
+                                .build())
+                        .collect(Collectors.toCollection(ArrayList::new)))
+                .specifications(value.getSpecifications().stream()
+                        .map(specification -> ProductSpecificationResponse.builder()
+                                .specId(specification.getSpecId())
+                                .specKey(specification.getSpecKey())
+                                .specValue(specification.getSpecValue())
+                                .build())
+                        .collect(Collectors.toCollection(ArrayList::new)))
+                .build();
+    }
+
+    private static long weigh(PublicProductDetailResponse value) {
+        long weight = ENTRY_OVERHEAD_BYTES
+                + chars(value.getName()) + chars(value.getSlug()) + chars(value.getShortDescription())
+                + chars(value.getFullDescription()) + chars(value.getBrandName()) + chars(value.getCategoryName())
+                + chars(value.getModelNumber()) + chars(value.getImageUrl());
+        for (PublicProductVariantResponse variant : value.getVariants()) {
+            weight += VARIANT_OVERHEAD_BYTES + chars(variant.getSku()) + chars(variant.getAttributes());
+        }
+        for (ProductSpecificationResponse specification : value.getSpecifications()) {
+            weight += SPECIFICATION_OVERHEAD_BYTES + chars(specification.getSpecKey()) + chars(specification.getSpecValue());
+        }
+        return weight;
+    }
+
+    private static long chars(String text) {
+        // Latin-1 strings are stored one byte per char, Vietnamese text needs two
+        return text == null ? 0 : 40L + 2L * text.length();
+    }
+
+    private static final class Entry {
+
+        private final PublicProductDetailResponse value;
+        private final long valueWeightBytes;
+        private SerializedProduct serialized;
+
+        Entry(PublicProductDetailResponse value, long valueWeightBytes) {
+            this.value = value;
+            this.valueWeightBytes = valueWeightBytes;
+        }
+
+        PublicProductDetailResponse value() {
+            return value;
+        }
+
+        SerializedProduct serialized() {
+            return serialized;
+        }
+
+        void attach(SerializedProduct serialized) {
+            this.serialized = serialized;
+        }
+
+        long weightBytes() {
+            return valueWeightBytes + (serialized != null ? serialized.sizeBytes() : 0);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.fptu.group1.service.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A product detail response serialized once and kept as ready-to-write bytes, in plain
+ * UTF-8 JSON and gzip form.
+ *
+ * The version is a digest of the JSON, so it changes exactly when the response body
+ * changes (product fields, variants, stock, category name) and stays stable across
+ * restarts. The two encodings are different representations and get different strong
+ * ETags.
+ */
+public record SerializedProduct(Long productId, String version, byte[] json, byte[] gzip) {
+
+    private static final int VERSION_BYTES = 12;
+
+    public static SerializedProduct of(Long productId, byte[] json) {
+        return new SerializedProduct(productId, digest(json), json, gzip(json));
+    }
+
+    public String etag(boolean gzipped) {
+        return "\"" + productId + "-" + version + (gzipped ? "-gz" : "") + "\"";
+    }
+
+    /**
+     * Whether an If-None-Match header names this version, in either encoding. Uses the
+     * weak comparison If-None-Match calls for, so {@code W/"..."} (e.g. from a proxy
+     * that re-encoded the body) matches too.
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag(false)) || candidate.equals(etag(true))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long sizeBytes() {
+        return json.length + gzip.length;
+    }
+
+    private static String digest(byte[] json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(hash, 0, VERSION_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,272 @@
+package com.fptu.group1.service.category;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fptu.group1.dto.response.CategoryResponse;
+import com.fptu.group1.model.Category;
+
+/**
+ * Immutable snapshot of the category hierarchy.
+ *
+ * Nodes are addressed by their position in {@code ids} (sorted, so lookups are a binary
+ * search). The parent -> children adjacency is stored CSR-style: the children of node
+ * {@code i} are {@code children[childStart[i] .. childStart[i + 1])}.
+ *
+ * Every node also gets a pre-order interval: the subtree of node {@code i} is exactly
+ * the nodes at {@code preorder[enter[i] .. exit[i])}, so "is a descendant of" is two
+ * integer comparisons and a subtree is one contiguous slice. Never modified after
+ * construction, so it can be read without locking and replaced as a whole.
+ */
+public final class CategoryTree {
+
+    private static final int NO_PARENT = -1;
+
+    private final long[] ids;
+    private final String[] names;
+    private final String[] descriptions;
+    private final int[] parents;
+    private final int[] childStart;
+    private final int[] children;
+    private final int[] enter;
+    private final int[] exit;
+    private final int[] preorder;
+
+    private CategoryTree(long[] ids, String[] names, String[] descriptions, int[] parents, int[] childStart, int[] children) {
+        this.ids = ids;
+        this.names = names;
+        this.descriptions = descriptions;
+        this.parents = parents;
+        this.childStart = childStart;
+        this.children = children;
+        this.enter = new int[ids.length];
+        this.exit = new int[ids.length];
+        this.preorder = new int[ids.length];
+        numberSubtrees();
+    }
+
+    public static CategoryTree empty() {
+        return of(Collections.emptyList());
+    }
+
+    public static CategoryTree of(List<Category> categories) {
+        List<Category> sorted = new ArrayList<>(categories);
+        sorted.sort(Comparator.comparing(Category::getCategoryId));
+
+        int size = sorted.size();
+        long[] ids = new long[size];
+        String[] names = new String[size];
+        String[] descriptions = new String[size];
+        for (int i = 0; i < size; i++) {
+            Category category = sorted.get(i);
+            ids[i] = category.getCategoryId();
+            names[i] = category.getName();
+            descriptions[i] = category.getDescription();
+        }
+
+        // Parent positions, then count children per parent and lay them out contiguously
+        int[] parents = new int[size];
+        int[] childStart = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            Long parentId = sorted.get(i).getParentId();
+            int parent = parentId != null ? Arrays.binarySearch(ids, parentId) : NO_PARENT;
+            // A dangling parent_id is treated as a root
+            parents[i] = parent >= 0 ? parent : NO_PARENT;
+            if (parents[i] != NO_PARENT) {
+                childStart[parents[i] + 1]++;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            childStart[i + 1] += childStart[i];
+        }
+        int[] children = new int[childStart[size]];
+        int[] next = Arrays.copyOf(childStart, size);
+        for (int i = 0; i < size; i++) {
+            if (parents[i] != NO_PARENT) {
+                children[next[parents[i]]++] = i;
+            }
+        }
+
+        return new CategoryTree(ids, names, descriptions, parents, childStart, children);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean contains(Long categoryId) {
+        return indexOf(categoryId) >= 0;
+    }
+
+    public int childCount(Long categoryId) {
+        int node = indexOf(categoryId);
+        return node >= 0 ? childStart[node + 1] - childStart[node] : 0;
+    }
+
+    /**
+     * Whether {@code categoryId} is {@code ancestorId} itself or lies below it.
+     */
+    public boolean isInSubtree(Long categoryId, Long ancestorId) {
+        int node = indexOf(categoryId);
+        int ancestor = indexOf(ancestorId);
+        return node >= 0 && ancestor >= 0 && enter[ancestor] <= enter[node] && enter[node] < exit[ancestor];
+    }
+
+    /**
+     * The given categories plus all of their descendants. Unknown IDs are kept as they
+     * are, so they still match nothing rather than everything.
+     */
+    public Set<Long> withDescendants(Collection<Long> categoryIds) {
+        Set<Long> result = new HashSet<>();
+        for (Long categoryId : categoryIds) {
+            int node = indexOf(categoryId);
+            if (node < 0) {
+                result.add(categoryId);
+                continue;
+            }
+            for (int position = enter[node]; position < exit[node]; position++) {
+                result.add(ids[preorder[position]]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Per-category totals including everything filed under its descendants, e.g. product
+     * counts for a filter that matches whole subtrees. {@code counts} holds each
+     * category's own total; categories missing from this snapshot keep theirs unchanged.
+     */
+    public Map<Long, Integer> rollUp(Map<Long, Integer> counts) {
+        int[] totals = new int[ids.length];
+        Map<Long, Integer> result = new HashMap<>();
+        counts.forEach((categoryId, count) -> {
+            int node = indexOf(categoryId);
+            if (node >= 0) {
+                totals[node] += count;
+            } else {
+                result.put(categoryId, count);
+            }
+        });
+        // Children come after their parent in pre-order, so walking it backwards finishes
+        // each subtree before its total is added to the parent
+        for (int position = ids.length - 1; position >= 0; position--) {
+            int node = preorder[position];
+            int parent = parents[node];
+            // The back-edge of a corrupt parent cycle is not followed
+            if (parent != NO_PARENT && enter[parent] < enter[node]) {
+                totals[parent] += totals[node];
+            }
+            if (totals[node] > 0) {
+                result.put(ids[node], totals[node]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Every category with its subtree, in ID order.
+     */
+    public List<CategoryResponse> toResponses() {
+        List<CategoryResponse> responses = new ArrayList<>(ids.length);
+        for (int node = 0; node < ids.length; node++) {
+            responses.add(toResponse(node, new boolean[ids.length]));
+        }
+        return responses;
+    }
+
+    /**
+     * The category with its subtree, or null when it is not in this snapshot.
+     */
+    public CategoryResponse toResponse(Long categoryId) {
+        int node = indexOf(categoryId);
+        return node >= 0 ? toResponse(node, new boolean[ids.length]) : null;
+    }
+
+    /**
+     * Responses for the children of a category, e.g. for a category that was just
+     * written and whose own row is not yet in this snapshot.
+     */
+    public List<CategoryResponse> childResponses(Long categoryId) {
+        int node = indexOf(categoryId);
+        return node >= 0 ? childResponses(node, new boolean[ids.length]) : new ArrayList<>();
+    }
+
+    private CategoryResponse toResponse(int node, boolean[] onPath) {
+        onPath[node] = true;
+        CategoryResponse response = CategoryResponse.builder()
+                .categoryId(ids[node])
+                .name(names[node])
+                .description(descriptions[node])
+                .parentId(parents[node] != NO_PARENT ? ids[parents[node]] : null)
+                .children(childResponses(node, onPath))
+                .build();
+        onPath[node] = false;
+        return response;
+    }
+
+    private List<CategoryResponse> childResponses(int node, boolean[] onPath) {
+        List<CategoryResponse> responses = new ArrayList<>(childStart[node + 1] - childStart[node]);
+        for (int i = childStart[node]; i < childStart[node + 1]; i++) {
+            // Skip back-edges so that corrupt parent links cannot recurse forever
+            if (!onPath[children[i]]) {
+                responses.add(toResponse(children[i], onPath));
+            }
+        }
+        return responses;
+    }
+
+    /**
+     * Assign pre-order intervals with an iterative DFS from the roots. Nodes caught in a
+     * parent cycle are unreachable from any root; they are numbered afterwards, with the
+     * back-edge ignored, so every node still has a valid interval.
+     */
+    private void numberSubtrees() {
+        int size = ids.length;
+        boolean[] visited = new boolean[size];
+        int[] stack = new int[size];
+        int[] cursor = new int[size];
+        int counter = 0;
+
+        for (int pass = 0; pass < 2; pass++) {
+            for (int start = 0; start < size; start++) {
+                if (visited[start] || (pass == 0 && parents[start] != NO_PARENT)) {
+                    continue;
+                }
+                int depth = 0;
+                stack[depth] = start;
+                cursor[start] = childStart[start];
+                visited[start] = true;
+                enter[start] = counter;
+                preorder[counter++] = start;
+                while (depth >= 0) {
+                    int node = stack[depth];
+                    if (cursor[node] < childStart[node + 1]) {
+                        int child = children[cursor[node]++];
+                        if (!visited[child]) {
+                            visited[child] = true;
+                            cursor[child] = childStart[child];
+                            enter[child] = counter;
+                            preorder[counter++] = child;
+                            stack[++depth] = child;
+                        }
+                    } else {
+                        exit[node] = counter;
+                        depth--;
+                    }
+                }
+            }
+        }
+    }
+
+    private int indexOf(Long categoryId) {
+        return categoryId != null ? Arrays.binarySearch(ids, categoryId) : -1;
+    }
+}
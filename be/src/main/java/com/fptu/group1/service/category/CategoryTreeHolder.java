@@ -0,0 +1,48 @@
+package com.fptu.group1.service.category;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fptu.group1.common.event.CategoryChangedEvent;
+import com.fptu.group1.repository.CategoryRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds the current {@link CategoryTree}. The tree is loaded with a single query at
+ * startup and rebuilt after every committed category write; readers always see one
+ * complete snapshot.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryTreeHolder {
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile CategoryTree tree = CategoryTree.empty();
+
+    // Serialized so that a slower, older rebuild cannot overwrite a newer snapshot
+    @PostConstruct
+    public synchronized void rebuild() {
+        long startTime = System.currentTimeMillis();
+        CategoryTree newTree = CategoryTree.of(categoryRepository.findAll());
+        tree = newTree;
+        log.info("Category tree built: {} categories in {}ms", newTree.size(), System.currentTimeMillis() - startTime);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuild();
+    }
+
+    public CategoryTree current() {
+        return tree;
+    }
+}
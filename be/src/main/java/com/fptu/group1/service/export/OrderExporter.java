@@ -0,0 +1,173 @@
+package com.fptu.group1.service.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fptu.group1.repository.OrderExportRepository;
+import com.fptu.group1.repository.OrderExportRepository.Line;
+import com.fptu.group1.service.order.OrderStatusDictionary;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Writes orders straight from the export cursor to an output stream.
+ *
+ * CSV has one record per order line, repeating the order columns. NDJSON has one JSON
+ * object per order with its lines in {@code items}; since rows arrive ordered by order,
+ * only the order being written is held at any time.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderExporter {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private static final String CSV_HEADER = "order_id,created_at,user_id,status,total_price,shipping_address,note,"
+            + "order_detail_id,variant_id,sku,product_name,quantity,unit_price,warranty_months";
+
+    private final OrderExportRepository orderExportRepository;
+    private final OrderStatusDictionary orderStatusDictionary;
+    private final ObjectMapper objectMapper;
+
+    public void export(Format format, LocalDateTime createdFrom, LocalDateTime createdTo, Long statusId,
+            OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            if (format == Format.CSV) {
+                writeCsv(createdFrom, createdTo, statusId, writer);
+            } else {
+                writeNdjson(createdFrom, createdTo, statusId, writer);
+            }
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the query was abandoned with it
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void writeCsv(LocalDateTime createdFrom, LocalDateTime createdTo, Long statusId, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        orderExportRepository.forEachLine(createdFrom, createdTo, statusId, line -> {
+            try {
+                writer.write(csvRecord(line));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private String csvRecord(Line line) {
+        return String.join(",",
+                csv(line.orderId()),
+                csv(line.createdAt()),
+                csv(line.userId()),
+                csv(orderStatusDictionary.nameOf(line.statusId())),
+                csv(line.totalPrice()),
+                csv(line.shippingAddress()),
+                csv(line.note()),
+                csv(line.orderDetailId()),
+                csv(line.variantId()),
+                csv(line.sku()),
+                csv(line.productName()),
+                csv(line.quantity()),
+                csv(line.unitPrice()),
+                csv(line.warrantyMonths())) + "\r\n";
+    }
+
+    /**
+     * RFC 4180 field: quoted when it contains a separator, quote or line break.
+     *
+     * Text that a spreadsheet would read as a formula (starting with =, +, -, @, tab or
+     * carriage return) is prefixed with an apostrophe, so an address or note typed by a
+     * customer cannot run in the admin's spreadsheet. Numbers are written as they are.
+     */
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (value instanceof CharSequence && !text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    private void writeNdjson(LocalDateTime createdFrom, LocalDateTime createdTo, Long statusId, Writer writer) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        Long[] currentOrder = new Long[1];
+
+        orderExportRepository.forEachLine(createdFrom, createdTo, statusId, line -> {
+            try {
+                if (!Objects.equals(currentOrder[0], line.orderId())) {
+                    if (currentOrder[0] != null) {
+                        endOrder(generator);
+                    }
+                    startOrder(generator, line);
+                    currentOrder[0] = line.orderId();
+                }
+                if (line.orderDetailId() != null) {
+                    writeItem(generator, line);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        if (currentOrder[0] != null) {
+            endOrder(generator);
+        }
+        generator.flush();
+    }
+
+    private void startOrder(JsonGenerator generator, Line line) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("orderId", line.orderId());
+        generator.writeStringField("createdAt", line.createdAt().toString());
+        generator.writeNumberField("userId", line.userId());
+        generator.writeNumberField("statusId", line.statusId());
+        generator.writeStringField("statusName", orderStatusDictionary.nameOf(line.statusId()));
+        generator.writeNumberField("totalPrice", line.totalPrice());
+        generator.writeStringField("shippingAddress", line.shippingAddress());
+        generator.writeStringField("note", line.note());
+        generator.writeArrayFieldStart("items");
+    }
+
+    private static void writeItem(JsonGenerator generator, Line line) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("orderDetailId", line.orderDetailId());
+        generator.writeNumberField("variantId", line.variantId());
+        generator.writeStringField("sku", line.sku());
+        generator.writeStringField("productName", line.productName());
+        generator.writeNumberField("quantity", line.quantity());
+        generator.writeNumberField("unitPrice", line.unitPrice());
+        generator.writeNumberField("warrantyMonths", line.warrantyMonths());
+        generator.writeEndObject();
+    }
+
+    private static void endOrder(JsonGenerator generator) throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
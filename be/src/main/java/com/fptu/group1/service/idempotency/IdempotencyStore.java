@@ -0,0 +1,209 @@
+package com.fptu.group1.service.idempotency;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fptu.group1.common.exception.BadRequestException;
+import com.fptu.group1.exception.DuplicateException;
+import com.fptu.group1.repository.IdempotencyKeyRepository;
+import com.fptu.group1.repository.IdempotencyKeyRepository.Record;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs a request at most once per (user, Idempotency-Key) and replays its response
+ * to retries.
+ *
+ * Recent keys live in a bounded in-memory map. A duplicate arriving while the first
+ * attempt is still running waits for it and gets the same outcome. Every key is also
+ * recorded in the IdempotencyKeys table: IN_PROGRESS before the request runs, and
+ * COMPLETED with the serialized response inside the request's own transaction (see
+ * {@link #recordCompletion}). So a retry after a restart, or one that reaches another
+ * instance, still replays instead of running again. A failed attempt releases its
+ * key, so the client can retry it for real.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final long abandonedAfterMinutes;
+    private final long retentionHours;
+
+    private final Map<MemoryKey, Attempt> attempts;
+
+    public IdempotencyStore(IdempotencyKeyRepository idempotencyKeyRepository, ObjectMapper objectMapper,
+            @Value("${idempotency.max-entries:10000}") int maxEntries,
+            @Value("${idempotency.abandoned-after-minutes:5}") long abandonedAfterMinutes,
+            @Value("${idempotency.retention-hours:24}") long retentionHours) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.abandonedAfterMinutes = abandonedAfterMinutes;
+        this.retentionHours = retentionHours;
+        this.attempts = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MemoryKey, Attempt> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Run {@code action} unless this key was seen before for the user, in which case
+     * the earlier response is returned (after waiting for it if still running).
+     *
+     * @param request the request body, used to reject a key reused for a different request
+     * @throws DuplicateException (409) when another instance is still running the request;
+     *         the client should retry it later with the same key
+     */
+    public <T> T execute(Long userId, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        String requestHash = hash(request);
+        MemoryKey memoryKey = new MemoryKey(userId, key);
+        Attempt attempt = new Attempt(requestHash);
+        Attempt existing;
+        synchronized (attempts) {
+            existing = attempts.putIfAbsent(memoryKey, attempt);
+        }
+        if (existing != null) {
+            checkSameRequest(existing.requestHash, requestHash);
+            return responseType.cast(await(existing.result));
+        }
+
+        boolean owner = false;
+        try {
+            T replay = claimOrReplay(userId, key, requestHash, responseType);
+            if (replay != null) {
+                attempt.result.complete(replay);
+                return replay;
+            }
+            owner = true;
+
+            T response = action.get();
+            attempt.result.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            attempt.result.completeExceptionally(e);
+            synchronized (attempts) {
+                attempts.remove(memoryKey, attempt);
+            }
+            if (owner) {
+                idempotencyKeyRepository.deleteInProgress(userId, key);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Store the response of a keyed request. Call it inside the request's transaction so
+     * the response is durable exactly when the request's effects are.
+     */
+    public void recordCompletion(Long userId, String key, Object response) {
+        try {
+            idempotencyKeyRepository.complete(userId, key, objectMapper.writeValueAsString(response));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response for Idempotency-Key " + key, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = idempotencyKeyRepository.purgeOlderThan(LocalDateTime.now().minusHours(retentionHours));
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /**
+     * Record the key as IN_PROGRESS, or return the stored response when a previous
+     * attempt already completed.
+     *
+     * @return null when the caller now owns the key and must run the request
+     */
+    private <T> T claimOrReplay(Long userId, String key, String requestHash, Class<T> responseType) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (idempotencyKeyRepository.tryInsertInProgress(userId, key, requestHash)) {
+                return null;
+            }
+            Record record = idempotencyKeyRepository.find(userId, key).orElse(null);
+            if (record == null) {
+                // Released by a failed attempt in the meantime
+                continue;
+            }
+            checkSameRequest(record.requestHash(), requestHash);
+            if (IdempotencyKeyRepository.STATUS_COMPLETED.equals(record.status())) {
+                return deserialize(record.responseBody(), responseType);
+            }
+            // IN_PROGRESS on another instance, or left behind by one that stopped mid-request
+            LocalDateTime abandonedBefore = LocalDateTime.now().minusMinutes(abandonedAfterMinutes);
+            if (!idempotencyKeyRepository.deleteAbandoned(userId, key, abandonedBefore)) {
+                throw new DuplicateException("A request with this Idempotency-Key is still being processed");
+            }
+        }
+        throw new DuplicateException("A request with this Idempotency-Key is still being processed");
+    }
+
+    private <T> T deserialize(String body, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(body, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for idempotent request cannot be read", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to hash request for idempotency check", e);
+        }
+    }
+
+    private static void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new BadRequestException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request", e);
+        } catch (ExecutionException e) {
+            // Same outcome as the first attempt
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private record MemoryKey(Long userId, String key) {
+    }
+
+    private static final class Attempt {
+
+        private final String requestHash;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Attempt(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.fptu.group1.service.impl;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
@@ -22,6 +24,8 @@ import com.fptu.group1.repository.CartRepository;
 import com.fptu.group1.repository.ProductRepository;
 import com.fptu.group1.repository.ProductVariantRepository;
 import com.fptu.group1.service.CartService;
+import com.fptu.group1.service.inventory.FlashSaleCoordinator;
+import com.fptu.group1.service.inventory.ReservationLedger;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -34,6 +38,8 @@ public class CartServiceImpl implements CartService {
     private final CartRepository cartRepository;
     private final ProductVariantRepository productVariantRepository;
     private final ProductRepository productRepository;
+    private final ReservationLedger reservationLedger;
+    private final FlashSaleCoordinator flashSaleCoordinator;
 
     @Override
     @Transactional
@@ -46,23 +52,16 @@ public class CartServiceImpl implements CartService {
             throw new BadRequestException("Product variant is not active");
         }
 
-        // Check stock availability
-        if (variant.getStock() < request.getQuantity()) {
-            throw new BadRequestException("Insufficient stock. Available: " + variant.getStock() + ", Requested: " + request.getQuantity());
-        }
-
         // Check if item already exists in cart
         Optional<Cart> existingCart = cartRepository.findByUserIdAndVariantId(userId, request.getVariantId());
+        int newQuantity = existingCart.map(Cart::getQuantity).orElse(0) + request.getQuantity();
+
+        // Reserve the whole line quantity; stock held by other carts is not available
+        holdStock(userId, variant, newQuantity);
         
         if (existingCart.isPresent()) {
             // Update quantity
             Cart cart = existingCart.get();
-            int newQuantity = cart.getQuantity() + request.getQuantity();
-            
-            if (variant.getStock() < newQuantity) {
-                throw new BadRequestException("Insufficient stock. Available: " + variant.getStock() + ", Requested: " + newQuantity);
-            }
-            
             cart.setQuantity(newQuantity);
             cartRepository.save(cart);
         } else {
@@ -83,9 +82,25 @@ public class CartServiceImpl implements CartService {
     @Transactional(readOnly = true)
     public CartResponse getCart(Long userId) {
         List<Cart> cartItems = cartRepository.findByUserId(userId);
+
+        // Load variants and their products for the whole cart with one query each
+        Map<Long, ProductVariant> variants = productVariantRepository.findAllById(cartItems.stream()
+                        .map(Cart::getVariantId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ProductVariant::getVariantId, Function.identity()));
+        Map<Long, Product> products = productRepository.findAllById(variants.values().stream()
+                        .map(ProductVariant::getProductId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
         
         List<CartItemResponse> items = cartItems.stream()
-                .map(this::buildCartItemResponse)
+                .map(cart -> {
+                    ProductVariant variant = variants.get(cart.getVariantId());
+                    Product product = variant != null ? products.get(variant.getProductId()) : null;
+                    return buildCartItemResponse(cart, variant, product);
+                })
                 .collect(Collectors.toList());
 
         BigDecimal totalPrice = items.stream()
@@ -116,9 +131,7 @@ public class CartServiceImpl implements CartService {
             throw new BadRequestException("Product variant is not active");
         }
 
-        if (variant.getStock() < request.getQuantity()) {
-            throw new BadRequestException("Insufficient stock. Available: " + variant.getStock() + ", Requested: " + request.getQuantity());
-        }
+        holdStock(userId, variant, request.getQuantity());
 
         cart.setQuantity(request.getQuantity());
         cartRepository.save(cart);
@@ -132,29 +145,37 @@ public class CartServiceImpl implements CartService {
         Cart cart = cartRepository.findByUserIdAndVariantId(userId, variantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart item not found"));
         cartRepository.delete(cart);
+        reservationLedger.release(userId, variantId);
     }
 
     @Override
     @Transactional
     public void clearCart(Long userId) {
         cartRepository.deleteByUserId(userId);
+        reservationLedger.releaseAll(userId);
     }
 
-    private CartItemResponse buildCartItemResponse(Cart cart) {
-        ProductVariant variant = productVariantRepository.findById(cart.getVariantId())
-                .orElse(null);
-        
-        Product product = null;
+    private void holdStock(Long userId, ProductVariant variant, int quantity) {
+        if (flashSaleCoordinator.isHot(variant.getVariantId())) {
+            // Flash-sale stock is not reserved by carts; it goes to whoever checks out first
+            if (variant.getStock() < quantity) {
+                throw new BadRequestException("Insufficient stock. Available: " + variant.getStock() + ", Requested: " + quantity);
+            }
+            return;
+        }
+        if (!reservationLedger.hold(userId, variant.getVariantId(), quantity, variant.getStock())) {
+            int available = variant.getStock() - reservationLedger.heldByOthers(variant.getVariantId(), userId);
+            throw new BadRequestException("Insufficient stock. Available: " + Math.max(0, available) + ", Requested: " + quantity);
+        }
+    }
+
+    private CartItemResponse buildCartItemResponse(Cart cart, ProductVariant variant, Product product) {
         String productName = "Unknown Product";
         String productImageUrl = null;
         
-        if (variant != null) {
-            product = productRepository.findById(variant.getProductId())
-                    .orElse(null);
-            if (product != null) {
-                productName = product.getName();
-                productImageUrl = product.getImageUrl();
-            }
+        if (product != null) {
+            productName = product.getName();
+            productImageUrl = product.getImageUrl();
         }
 
         BigDecimal subtotal = variant != null 
@@ -1,11 +1,12 @@
 package com.fptu.group1.service.impl;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.fptu.group1.common.event.CategoryChangedEvent;
 import com.fptu.group1.common.exception.BadRequestException;
 import com.fptu.group1.common.exception.ResourceNotFoundException;
 import com.fptu.group1.dto.request.CreateCategoryRequest;
@@ -14,6 +15,8 @@ import com.fptu.group1.dto.response.CategoryResponse;
 import com.fptu.group1.model.Category;
 import com.fptu.group1.repository.CategoryRepository;
 import com.fptu.group1.service.CategoryService;
+import com.fptu.group1.service.category.CategoryTree;
+import com.fptu.group1.service.category.CategoryTreeHolder;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +27,8 @@ import lombok.extern.slf4j.Slf4j;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CategoryTreeHolder categoryTreeHolder;
 
     @Override
     @Transactional
@@ -55,6 +60,7 @@ public class CategoryServiceImpl implements CategoryService {
                 .build();
 
         category = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getCategoryId()));
 
         return buildCategoryResponse(category);
     }
@@ -86,10 +92,15 @@ public class CategoryServiceImpl implements CategoryService {
             if (!categoryRepository.existsById(request.getParentId())) {
                 throw new ResourceNotFoundException("Parent category not found with ID: " + request.getParentId());
             }
-            // Prevent circular reference
+            // Prevent circular reference: the new parent may not be this category or one of its descendants
             if (request.getParentId().equals(categoryId)) {
                 throw new BadRequestException("Category cannot be its own parent");
             }
+            // Checked against the locked rows, not the cached tree, which may not show a move still committing
+            if (!request.getParentId().equals(category.getParentId())
+                    && CategoryTree.of(categoryRepository.findAllForUpdate()).isInSubtree(request.getParentId(), categoryId)) {
+                throw new BadRequestException("Category cannot be moved under its own subcategory " + request.getParentId());
+            }
         }
 
         // Update category fields
@@ -98,25 +109,23 @@ public class CategoryServiceImpl implements CategoryService {
         if (request.getParentId() != null) category.setParentId(request.getParentId());
 
         category = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getCategoryId()));
 
         return buildCategoryResponse(category);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<CategoryResponse> getAllCategories() {
-        List<Category> categories = categoryRepository.findAll();
-        return categories.stream()
-                .map(this::buildCategoryResponse)
-                .collect(Collectors.toList());
+        return categoryTreeHolder.current().toResponses();
     }
 
     @Override
-    @Transactional(readOnly = true)
     public CategoryResponse getCategoryById(Long categoryId) {
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + categoryId));
-        return buildCategoryResponse(category);
+        CategoryResponse response = categoryTreeHolder.current().toResponse(categoryId);
+        if (response == null) {
+            throw new ResourceNotFoundException("Category not found with ID: " + categoryId);
+        }
+        return response;
     }
 
     @Override
@@ -126,26 +135,23 @@ public class CategoryServiceImpl implements CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with ID: " + categoryId));
 
         // Check if category has children
-        List<Category> children = categoryRepository.findAll().stream()
-                .filter(c -> categoryId.equals(c.getParentId()))
-                .collect(Collectors.toList());
+        long childCount = categoryRepository.countByParentId(categoryId);
         
-        if (!children.isEmpty()) {
-            throw new BadRequestException("Cannot delete category with ID " + categoryId + " because it has " + children.size() + " child category(ies)");
+        if (childCount > 0) {
+            throw new BadRequestException("Cannot delete category with ID " + categoryId + " because it has " + childCount + " child category(ies)");
         }
 
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
     }
 
+    /**
+     * Response for a category written in the current transaction. Its own fields come
+     * from the entity; the children come from the tree, which a write to this row does
+     * not change (the tree itself is refreshed after commit).
+     */
     private CategoryResponse buildCategoryResponse(Category category) {
-        // Load children
-        List<Category> children = categoryRepository.findAll().stream()
-                .filter(c -> category.getCategoryId().equals(c.getParentId()))
-                .collect(Collectors.toList());
-
-        List<CategoryResponse> childResponses = children.stream()
-                .map(this::buildCategoryResponse)
-                .collect(Collectors.toList());
+        List<CategoryResponse> childResponses = categoryTreeHolder.current().childResponses(category.getCategoryId());
 
         return CategoryResponse.builder()
                 .categoryId(category.getCategoryId())
@@ -2,31 +2,53 @@ package com.fptu.group1.service.impl;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fptu.group1.common.event.OrderPlacedEvent;
+import com.fptu.group1.common.event.ProductStockChangedEvent;
 import com.fptu.group1.common.exception.BadRequestException;
 import com.fptu.group1.common.exception.ResourceNotFoundException;
 import com.fptu.group1.dto.request.CheckoutRequest;
+import com.fptu.group1.dto.response.CheckoutIntentResponse;
 import com.fptu.group1.dto.response.CheckoutResponse;
 import com.fptu.group1.model.Cart;
 import com.fptu.group1.model.Order;
 import com.fptu.group1.model.OrderDetail;
 import com.fptu.group1.model.OrderStatus;
 import com.fptu.group1.model.Payment;
+import com.fptu.group1.model.Product;
 import com.fptu.group1.model.ProductVariant;
 import com.fptu.group1.repository.CartRepository;
 import com.fptu.group1.repository.OrderDetailRepository;
 import com.fptu.group1.repository.OrderRepository;
-import com.fptu.group1.repository.OrderStatusRepository;
 import com.fptu.group1.repository.PaymentRepository;
+import com.fptu.group1.repository.ProductRepository;
 import com.fptu.group1.repository.ProductVariantRepository;
 import com.fptu.group1.service.CheckoutService;
+import com.fptu.group1.service.idempotency.IdempotencyStore;
+import com.fptu.group1.service.inventory.FlashSaleCoordinator;
+import com.fptu.group1.service.inventory.ReservationLedger;
+import com.fptu.group1.service.order.CheckoutLine;
+import com.fptu.group1.service.order.OrderIntent;
+import com.fptu.group1.service.order.OrderPipeline;
+import com.fptu.group1.service.order.OrderStatusDictionary;
+import com.fptu.group1.service.outbox.OutboxWriter;
 
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -38,78 +60,259 @@ public class CheckoutServiceImpl implements CheckoutService {
     private final CartRepository cartRepository;
     private final OrderRepository orderRepository;
     private final OrderDetailRepository orderDetailRepository;
-    private final OrderStatusRepository orderStatusRepository;
+    private final OrderStatusDictionary orderStatusDictionary;
     private final PaymentRepository paymentRepository;
+    private final ProductRepository productRepository;
     private final ProductVariantRepository productVariantRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReservationLedger reservationLedger;
+    private final FlashSaleCoordinator flashSaleCoordinator;
+    private final IdempotencyStore idempotencyStore;
+    private final OrderPipeline orderPipeline;
+    private final OutboxWriter outboxWriter;
+    private final PlatformTransactionManager transactionManager;
 
-    @PersistenceContext
-    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
 
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        orderPipeline.start(this::processBatch);
+    }
+
+    /**
+     * Lines of flash-sale variants are claimed through their queue before the checkout
+     * transaction starts, so waiting in the queue does not hold a pooled connection.
+     * Claimed stock is committed right away and given back if the order fails.
+     */
     @Override
-    @Transactional
-    public CheckoutResponse checkout(Long userId, CheckoutRequest request) {
-        // Get user's cart
+    public CheckoutResponse checkout(Long userId, CheckoutRequest request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return doCheckout(userId, request, null);
+        }
+        return idempotencyStore.execute(userId, idempotencyKey, request, CheckoutResponse.class,
+                () -> doCheckout(userId, request, idempotencyKey));
+    }
+
+    private CheckoutResponse doCheckout(Long userId, CheckoutRequest request, String idempotencyKey) {
+        // Charged at the prices current when the order is placed
+        List<CheckoutLine> lines = cartRepository.findByUserId(userId).stream()
+                .map(cart -> CheckoutLine.of(cart, null))
+                .collect(Collectors.toList());
+        return placeAlone(userId, request, idempotencyKey, lines);
+    }
+
+    private CheckoutResponse placeAlone(Long userId, CheckoutRequest request, String idempotencyKey, List<CheckoutLine> lines) {
+        PreparedCheckout prepared = prepare(lines);
+        try {
+            return transactionTemplate.execute(status -> placeOrder(userId, request, idempotencyKey, prepared));
+        } catch (RuntimeException e) {
+            restoreClaims(prepared);
+            throw e;
+        }
+    }
+
+    /**
+     * Snapshots the cart lines and their current prices into the intent; the order is
+     * placed from that snapshot. Stock is validated by the pipeline worker when the
+     * order is placed.
+     */
+    @Override
+    public CheckoutIntentResponse submitCheckout(Long userId, CheckoutRequest request) {
         List<Cart> cartItems = cartRepository.findByUserId(userId);
-        
         if (cartItems.isEmpty()) {
             throw new BadRequestException("Cart is empty");
         }
+        Map<Long, BigDecimal> prices = productVariantRepository.findAllById(cartItems.stream()
+                        .map(Cart::getVariantId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ProductVariant::getVariantId, ProductVariant::getPrice));
+        List<CheckoutLine> lines = cartItems.stream()
+                .map(cart -> CheckoutLine.of(cart, prices.get(cart.getVariantId())))
+                .collect(Collectors.toList());
+        return orderPipeline.submit(userId, request, lines).toResponse();
+    }
+
+    @Override
+    public CheckoutIntentResponse getCheckoutIntent(Long userId, String intentId) {
+        return orderPipeline.find(userId, intentId)
+                .map(OrderIntent::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Checkout not found with ID: " + intentId));
+    }
+
+    /**
+     * Place a batch of queued checkouts in one transaction. If any of them fails, the
+     * group is rolled back and each is placed in its own transaction, so only the bad
+     * one fails. A second checkout of the same user in a batch runs after the group,
+     * because it may have snapshotted the same cart lines as the first one.
+     */
+    private void processBatch(List<OrderIntent> batch) {
+        Map<OrderIntent, PreparedCheckout> group = new LinkedHashMap<>();
+        List<OrderIntent> deferred = new ArrayList<>();
+        Set<Long> users = new HashSet<>();
+        for (OrderIntent intent : batch) {
+            if (!users.add(intent.getUserId())) {
+                deferred.add(intent);
+                continue;
+            }
+            try {
+                group.put(intent, prepare(intent.getLines()));
+            } catch (RuntimeException e) {
+                intent.fail(failureMessage(e));
+            }
+        }
+
+        try {
+            List<CheckoutResponse> responses = transactionTemplate.execute(status -> group.entrySet().stream()
+                    .map(entry -> placeOrder(entry.getKey().getUserId(), entry.getKey().getRequest(), null, entry.getValue()))
+                    .collect(Collectors.toList()));
+            Iterator<CheckoutResponse> placed = responses.iterator();
+            group.keySet().forEach(intent -> intent.complete(placed.next()));
+        } catch (RuntimeException groupFailure) {
+            group.forEach((intent, prepared) -> {
+                try {
+                    intent.complete(transactionTemplate.execute(status -> placeOrder(intent.getUserId(), intent.getRequest(), null, prepared)));
+                } catch (RuntimeException e) {
+                    restoreClaims(prepared);
+                    intent.fail(failureMessage(e));
+                }
+            });
+        }
+
+        for (OrderIntent intent : deferred) {
+            try {
+                intent.complete(placeAlone(intent.getUserId(), intent.getRequest(), null, intent.getLines()));
+            } catch (RuntimeException e) {
+                intent.fail(failureMessage(e));
+            }
+        }
+    }
+
+    /**
+     * Claim the flash-sale lines of a checkout, outside any transaction.
+     */
+    private PreparedCheckout prepare(List<CheckoutLine> lines) {
+        if (lines.isEmpty()) {
+            throw new BadRequestException("Cart is empty");
+        }
+
+        PreparedCheckout prepared = new PreparedCheckout(lines, new HashMap<>());
+        try {
+            for (CheckoutLine line : lines) {
+                if (flashSaleCoordinator.isHot(line.variantId())) {
+                    flashSaleCoordinator.claim(line.variantId(), line.quantity());
+                    prepared.claimed().merge(line.variantId(), line.quantity(), Integer::sum);
+                }
+            }
+        } catch (RuntimeException e) {
+            restoreClaims(prepared);
+            throw e;
+        }
+        return prepared;
+    }
+
+    private void restoreClaims(PreparedCheckout prepared) {
+        prepared.claimed().forEach(flashSaleCoordinator::restore);
+    }
+
+    private static String failureMessage(RuntimeException e) {
+        if (e instanceof BadRequestException || e instanceof ResourceNotFoundException) {
+            return e.getMessage();
+        }
+        log.error("Queued checkout failed", e);
+        return "Checkout could not be processed, please try again";
+    }
 
-        // Validate cart items and calculate total
+    private CheckoutResponse placeOrder(Long userId, CheckoutRequest request, String idempotencyKey, PreparedCheckout prepared) {
+        List<CheckoutLine> lines = prepared.lines();
+        Set<Long> claimedVariantIds = prepared.claimed().keySet();
+        // Validate the lines against one bulk-loaded variant map and calculate total
         BigDecimal totalPrice = BigDecimal.ZERO;
+        Map<Long, ProductVariant> variants = productVariantRepository.findAllById(lines.stream()
+                        .map(CheckoutLine::variantId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ProductVariant::getVariantId, Function.identity()));
+        Map<Long, BigDecimal> unitPrices = new HashMap<>();
+        Map<Long, Integer> quantities = new HashMap<>();
         
-        for (Cart cartItem : cartItems) {
-            ProductVariant variant = productVariantRepository.findById(cartItem.getVariantId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product variant not found with ID: " + cartItem.getVariantId()));
+        for (CheckoutLine line : lines) {
+            ProductVariant variant = variants.get(line.variantId());
+            if (variant == null) {
+                throw new ResourceNotFoundException("Product variant not found with ID: " + line.variantId());
+            }
 
             if (Boolean.FALSE.equals(variant.getIsActive())) {
                 throw new BadRequestException("Product variant " + variant.getSku() + " is not active");
             }
 
-            if (variant.getStock() < cartItem.getQuantity()) {
-                throw new BadRequestException("Insufficient stock for variant " + variant.getSku() + ". Available: " + variant.getStock() + ", Requested: " + cartItem.getQuantity());
+            BigDecimal unitPrice = line.unitPrice() != null ? line.unitPrice() : variant.getPrice();
+            unitPrices.put(line.cartId(), unitPrice);
+            totalPrice = totalPrice.add(unitPrice.multiply(BigDecimal.valueOf(line.quantity())));
+            if (claimedVariantIds.contains(variant.getVariantId())) {
+                // Already taken off stock by the flash-sale queue
+                continue;
+            }
+
+            // Stock held by other carts is not for sale. Early, friendly check only; the
+            // conditional update below is what prevents overselling
+            int available = variant.getStock() - reservationLedger.heldByOthers(variant.getVariantId(), userId);
+            if (available < line.quantity()) {
+                throw new BadRequestException("Insufficient stock for variant " + variant.getSku() + ". Available: " + Math.max(0, available) + ", Requested: " + line.quantity());
             }
 
-            totalPrice = totalPrice.add(variant.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())));
+            quantities.merge(variant.getVariantId(), line.quantity(), Integer::sum);
         }
 
+        // Take stock atomically: each line only succeeds if enough is still left at update time
+        List<Long> insufficient = productVariantRepository.decrementStock(quantities);
+        if (!insufficient.isEmpty()) {
+            String skus = insufficient.stream()
+                    .map(variantId -> variants.get(variantId).getSku())
+                    .collect(Collectors.joining(", "));
+            // Rolls back the stock taken for the other lines
+            throw new BadRequestException("Insufficient stock for variant(s): " + skus);
+        }
+        eventPublisher.publishEvent(ProductStockChangedEvent.of(variants.values().stream()
+                .map(ProductVariant::getProductId)
+                .collect(Collectors.toSet())));
+
         // Get default order status (PENDING)
-        OrderStatus defaultStatus = orderStatusRepository.findByStatusName(OrderStatus.OrderStatusName.PENDING)
-                .orElseThrow(() -> new ResourceNotFoundException("Default order status not found"));
+        Long defaultStatusId = orderStatusDictionary.idOf(OrderStatus.OrderStatusName.PENDING);
 
         // Create order
         Order order = Order.builder()
                 .userId(userId)
                 .totalPrice(totalPrice)
                 .shippingAddress(request.getShippingAddress())
-                .statusId(defaultStatus.getStatusId())
+                .statusId(defaultStatusId)
                 .note(request.getNote())
                 .voucherId(request.getVoucherId())
                 .createdAt(LocalDateTime.now())
                 .build();
 
         order = orderRepository.save(order);
-        entityManager.flush();
-
-        // Create order details and update stock
-        for (Cart cartItem : cartItems) {
-            ProductVariant variant = productVariantRepository.findById(cartItem.getVariantId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product variant not found"));
-
-            // Create order detail
-            OrderDetail orderDetail = OrderDetail.builder()
-                    .orderId(order.getOrderId())
-                    .variantId(cartItem.getVariantId())
-                    .quantity(cartItem.getQuantity())
-                    .unitPrice(variant.getPrice())
-                    .warrantyMonths(0) // Default warranty
-                    .build();
-            orderDetailRepository.save(orderDetail);
-
-            // Update stock
-            variant.setStock(variant.getStock() - cartItem.getQuantity());
-            productVariantRepository.save(variant);
-        }
+
+        // Create order details, all lines in one batch, with the product name and SKU as of now
+        Long orderId = order.getOrderId();
+        Map<Long, String> productNames = productRepository.findAllById(variants.values().stream()
+                        .map(ProductVariant::getProductId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getProductId, Product::getName));
+        List<OrderDetail> orderDetails = lines.stream()
+                .map(line -> OrderDetail.builder()
+                        .orderId(orderId)
+                        .variantId(line.variantId())
+                        .productName(productNames.get(variants.get(line.variantId()).getProductId()))
+                        .sku(variants.get(line.variantId()).getSku())
+                        .quantity(line.quantity())
+                        .unitPrice(unitPrices.get(line.cartId()))
+                        .warrantyMonths(0) // Default warranty
+                        .build())
+                .collect(Collectors.toList());
+        orderDetailRepository.insertAll(orderDetails);
 
         // Create payment record
         Payment payment = Payment.builder()
@@ -120,12 +323,23 @@ public class CheckoutServiceImpl implements CheckoutService {
                 .build();
         paymentRepository.save(payment);
 
-        // Clear cart
-        cartRepository.deleteByUserId(userId);
+        // Remove the ordered lines; their stock holds are released once the order commits.
+        // A line already gone was ordered by another checkout or removed meanwhile
+        int removed = cartRepository.deleteByUserIdAndCartIdIn(userId, lines.stream()
+                .map(CheckoutLine::cartId)
+                .collect(Collectors.toSet()));
+        if (removed != lines.size()) {
+            throw new BadRequestException("Cart changed during checkout, please check out again");
+        }
+        OrderPlacedEvent placed = new OrderPlacedEvent(order.getOrderId(), userId, lines.stream()
+                .map(CheckoutLine::variantId)
+                .collect(Collectors.toSet()));
+        eventPublisher.publishEvent(placed);
+        outboxWriter.append(OutboxWriter.AGGREGATE_ORDER, order.getOrderId(), OutboxWriter.ORDER_PLACED, placed);
 
-        String statusName = order.getStatus() != null ? order.getStatus().getStatusName().name() : "PENDING";
+        String statusName = orderStatusDictionary.nameOf(order.getStatusId());
 
-        return CheckoutResponse.builder()
+        CheckoutResponse response = CheckoutResponse.builder()
                 .orderId(order.getOrderId())
                 .totalPrice(order.getTotalPrice())
                 .shippingAddress(order.getShippingAddress())
@@ -134,6 +348,16 @@ public class CheckoutServiceImpl implements CheckoutService {
                 .createdAt(order.getCreatedAt())
                 .message("Order created successfully")
                 .build();
+        if (idempotencyKey != null) {
+            // Commits together with the order, so a retry can never place it twice
+            idempotencyStore.recordCompletion(userId, idempotencyKey, response);
+        }
+        return response;
     }
-}
 
+    /**
+     * The lines of a checkout, with the flash-sale quantities already claimed for them.
+     */
+    private record PreparedCheckout(List<CheckoutLine> lines, Map<Long, Integer> claimed) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.fptu.group1.service.impl;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -7,24 +8,29 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import com.fptu.group1.common.event.OrderStatusChangedEvent;
+import com.fptu.group1.common.exception.BadRequestException;
 import com.fptu.group1.common.exception.ResourceNotFoundException;
+import com.fptu.group1.common.helper.OrderCursorHelper;
+import com.fptu.group1.dto.request.OrderSearchRequest;
 import com.fptu.group1.dto.request.UpdateOrderStatusRequest;
 import com.fptu.group1.dto.response.OrderDetailResponse;
 import com.fptu.group1.dto.response.OrderItemResponse;
 import com.fptu.group1.dto.response.OrderListResponse;
 import com.fptu.group1.dto.response.OrderPageResponse;
+import com.fptu.group1.dto.response.OrderSearchResponse;
+import com.fptu.group1.dto.response.OrderStatusEventResponse;
 import com.fptu.group1.model.Order;
-import com.fptu.group1.model.OrderDetail;
 import com.fptu.group1.model.OrderStatus;
-import com.fptu.group1.model.Product;
-import com.fptu.group1.model.ProductVariant;
 import com.fptu.group1.repository.OrderDetailRepository;
 import com.fptu.group1.repository.OrderRepository;
-import com.fptu.group1.repository.OrderStatusRepository;
-import com.fptu.group1.repository.ProductRepository;
-import com.fptu.group1.repository.ProductVariantRepository;
+import com.fptu.group1.repository.OrderSearchRepository;
 import com.fptu.group1.service.OrderService;
+import com.fptu.group1.service.order.OrderSearchPlanner;
+import com.fptu.group1.service.order.OrderStatusDictionary;
+import com.fptu.group1.service.outbox.OutboxWriter;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -34,11 +40,14 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     private final OrderRepository orderRepository;
     private final OrderDetailRepository orderDetailRepository;
-    private final OrderStatusRepository orderStatusRepository;
-    private final ProductRepository productRepository;
-    private final ProductVariantRepository productVariantRepository;
+    private final OrderStatusDictionary orderStatusDictionary;
+    private final OutboxWriter outboxWriter;
+    private final OrderSearchRepository orderSearchRepository;
+    private final OrderSearchPlanner orderSearchPlanner;
 
     @Override
     @Transactional(readOnly = true)
@@ -80,17 +89,74 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with ID: " + orderId));
 
-        OrderStatus status = orderStatusRepository.findById(request.getStatusId())
+        OrderStatus.OrderStatusName statusName = orderStatusDictionary.find(request.getStatusId())
                 .orElseThrow(() -> new ResourceNotFoundException("Order status not found with ID: " + request.getStatusId()));
 
-        order.setStatusId(status.getStatusId());
+        order.setStatusId(request.getStatusId());
         order = orderRepository.save(order);
+        outboxWriter.append(OutboxWriter.AGGREGATE_ORDER, orderId, OutboxWriter.ORDER_STATUS_CHANGED,
+                new OrderStatusChangedEvent(orderId, order.getUserId(), request.getStatusId(), statusName.name()));
 
         return buildOrderDetailResponse(order);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public OrderStatusEventResponse getOrderStatus(Long orderId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with ID: " + orderId));
+        String statusName = orderStatusDictionary.nameOf(order.getStatusId());
+
+        return OrderStatusEventResponse.builder()
+                .orderId(order.getOrderId())
+                .statusId(order.getStatusId())
+                .statusName(statusName)
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Keyset search, newest first, driven by the most selective filter's index. No
+     * total count is computed; the next page is fetched with the returned cursor.
+     */
+    @Override
+    public OrderSearchResponse searchOrders(OrderSearchRequest filter, int size, String after) {
+        if (size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_SEARCH_PAGE_SIZE);
+        }
+        OrderCursorHelper.Position position = StringUtils.hasText(after) ? OrderCursorHelper.decode(after) : null;
+        OrderSearchPlanner.Driver driver = orderSearchPlanner.plan(filter);
+
+        // One extra row tells whether there is a next page
+        List<OrderSearchRepository.Row> rows = orderSearchRepository.search(filter, driver.index(), position, size + 1);
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+
+        List<OrderListResponse> orders = rows.stream()
+                .map(row -> OrderListResponse.builder()
+                        .orderId(row.orderId())
+                        .userId(row.userId())
+                        .totalPrice(row.totalPrice())
+                        .shippingAddress(row.shippingAddress())
+                        .statusId(row.statusId())
+                        .statusName(orderStatusDictionary.nameOf(row.statusId()))
+                        .createdAt(row.createdAt())
+                        .build())
+                .collect(Collectors.toList());
+
+        OrderSearchRepository.Row last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        return OrderSearchResponse.builder()
+                .orders(orders)
+                .size(size)
+                .nextCursor(hasNext ? OrderCursorHelper.encode(last.createdAt(), last.orderId()) : null)
+                .drivenBy(driver.name())
+                .build();
+    }
+
     private OrderListResponse buildOrderListResponse(Order order) {
-        String statusName = order.getStatus() != null ? order.getStatus().getStatusName().name() : "UNKNOWN";
+        String statusName = orderStatusDictionary.nameOf(order.getStatusId());
         
         return OrderListResponse.builder()
                 .orderId(order.getOrderId())
@@ -104,12 +170,9 @@ public class OrderServiceImpl implements OrderService {
     }
 
     private OrderDetailResponse buildOrderDetailResponse(Order order) {
-        String statusName = order.getStatus() != null ? order.getStatus().getStatusName().name() : "UNKNOWN";
+        String statusName = orderStatusDictionary.nameOf(order.getStatusId());
         
-        List<OrderDetail> orderDetails = orderDetailRepository.findByOrderId(order.getOrderId());
-        List<OrderItemResponse> items = orderDetails.stream()
-                .map(this::buildOrderItemResponse)
-                .collect(Collectors.toList());
+        List<OrderItemResponse> items = orderDetailRepository.findItemsByOrderId(order.getOrderId());
 
         return OrderDetailResponse.builder()
                 .orderId(order.getOrderId())
@@ -124,33 +187,5 @@ public class OrderServiceImpl implements OrderService {
                 .createdAt(order.getCreatedAt())
                 .build();
     }
-
-    private OrderItemResponse buildOrderItemResponse(OrderDetail orderDetail) {
-        ProductVariant variant = productVariantRepository.findById(orderDetail.getVariantId())
-                .orElse(null);
-        
-        Product product = null;
-        String productName = "Unknown Product";
-        
-        if (variant != null) {
-            product = productRepository.findById(variant.getProductId())
-                    .orElse(null);
-            if (product != null) {
-                productName = product.getName();
-            }
-        }
-
-        return OrderItemResponse.builder()
-                .orderDetailId(orderDetail.getOrderDetailId())
-                .variantId(orderDetail.getVariantId())
-                .productId(variant != null ? variant.getProductId() : null)
-                .productName(productName)
-                .sku(variant != null ? variant.getSku() : null)
-                .attributes(variant != null ? variant.getAttributes() : null)
-                .quantity(orderDetail.getQuantity())
-                .unitPrice(orderDetail.getUnitPrice())
-                .warrantyMonths(orderDetail.getWarrantyMonths())
-                .build();
-    }
 }
 
@@ -1,28 +1,48 @@
 package com.fptu.group1.service.impl;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import com.fptu.group1.common.event.ProductChangeSet;
+import com.fptu.group1.common.event.ProductChangedEvent;
+import com.fptu.group1.common.event.ProductStockChangedEvent;
 import com.fptu.group1.common.exception.BadRequestException;
 import com.fptu.group1.common.exception.ResourceNotFoundException;
+import com.fptu.group1.common.helper.ProductCursorHelper;
+import com.fptu.group1.common.helper.StringHelper;
 import com.fptu.group1.dto.request.AddProductRequest;
 import com.fptu.group1.dto.request.ProductSpecificationRequest;
 import com.fptu.group1.dto.request.ProductVariantRequest;
 import com.fptu.group1.dto.request.UpdateProductRequest;
 import com.fptu.group1.dto.response.AddProductResponse;
 import com.fptu.group1.dto.response.ProductDetailResponse;
+import com.fptu.group1.dto.response.ProductImportJobResponse;
 import com.fptu.group1.dto.response.ProductListResponse;
 import com.fptu.group1.dto.response.ProductPageResponse;
 import com.fptu.group1.dto.response.ProductSpecificationResponse;
@@ -35,8 +55,14 @@ import com.fptu.group1.repository.CategoryRepository;
 import com.fptu.group1.repository.ProductRepository;
 import com.fptu.group1.repository.ProductSpecificationRepository;
 import com.fptu.group1.repository.ProductVariantRepository;
+import com.fptu.group1.repository.specification.ProductSpecs;
 import com.fptu.group1.service.FileStorageService;
 import com.fptu.group1.service.ProductAdminService;
+import com.fptu.group1.service.importer.ProductImportJob;
+import com.fptu.group1.service.importer.ProductImportReader;
+import com.fptu.group1.service.importer.ProductImporter;
+import com.fptu.group1.service.outbox.OutboxWriter;
+import com.fptu.group1.service.search.ProductSearchIndex;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -58,12 +84,14 @@ public class ProductAdminServiceImpl implements ProductAdminService {
     private final ProductSpecificationRepository productSpecificationRepository;
     private final FileStorageService fileStorageService;
     private final ObjectMapper objectMapper;
+    private final ProductSearchIndex productSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outboxWriter;
+    private final ProductImporter productImporter;
 
     @PersistenceContext
     private EntityManager entityManager;
 
-    private static final Pattern NON_LATIN = Pattern.compile("[^\\w-]");
-    private static final Pattern WHITESPACE = Pattern.compile("[\\s]");
 
     @Override
     @Transactional
@@ -187,6 +215,12 @@ public class ProductAdminServiceImpl implements ProductAdminService {
             }
         }
 
+        // Keep the denormalized price range in sync with the saved variants
+        productRepository.refreshPriceRange(product.getProductId());
+        ProductChangedEvent changed = ProductChangedEvent.of(product.getProductId());
+        eventPublisher.publishEvent(changed);
+        outboxWriter.append(OutboxWriter.AGGREGATE_PRODUCT, product.getProductId(), OutboxWriter.PRODUCT_CREATED, changed);
+
         // Create response
         return AddProductResponse.builder()
                 .productId(product.getProductId())
@@ -210,22 +244,7 @@ public class ProductAdminServiceImpl implements ProductAdminService {
             throw new BadRequestException("Product name is required to generate slug");
         }
 
-        String nowhitespace = WHITESPACE.matcher(name).replaceAll("-");
-        String normalized = NON_LATIN.matcher(nowhitespace).replaceAll("");
-        String slug = normalized.toLowerCase(Locale.ENGLISH);
-        
-        // Remove consecutive dashes
-        slug = slug.replaceAll("-+", "-");
-        
-        // Remove leading and trailing dashes
-        if (slug.startsWith("-")) {
-            slug = slug.replaceFirst("^-+", "");
-        }
-        if (slug.endsWith("-")) {
-            slug = slug.replaceFirst("-+$", "");
-        }
-        
-        return slug;
+        return StringHelper.toSlug(name);
     }
 
     @Override
@@ -263,73 +282,293 @@ public class ProductAdminServiceImpl implements ProductAdminService {
             }
         }
 
-        // Update product fields
-        if (request.getName() != null) product.setName(request.getName());
-        if (slug != null) product.setSlug(slug);
-        if (request.getShortDescription() != null) product.setShortDescription(request.getShortDescription());
-        if (request.getFullDescription() != null) product.setFullDescription(request.getFullDescription());
-        if (request.getBrandId() != null) product.setBrandId(request.getBrandId());
-        if (request.getCategoryId() != null) product.setCategoryId(request.getCategoryId());
-        if (request.getModelNumber() != null) product.setModelNumber(request.getModelNumber());
-        if (request.getReleaseYear() != null) product.setReleaseYear(request.getReleaseYear());
-        if (request.getDefaultPrice() != null) product.setDefaultPrice(request.getDefaultPrice());
-        if (request.getImageUrl() != null) product.setImageUrl(request.getImageUrl());
+        // Update product fields; only values that differ count as a change
+        boolean productChanged = apply(request.getName(), product.getName(), product::setName);
+        productChanged |= apply(slug, product.getSlug(), product::setSlug);
+        productChanged |= apply(request.getShortDescription(), product.getShortDescription(), product::setShortDescription);
+        productChanged |= apply(request.getFullDescription(), product.getFullDescription(), product::setFullDescription);
+        productChanged |= apply(request.getBrandId(), product.getBrandId(), product::setBrandId);
+        productChanged |= apply(request.getCategoryId(), product.getCategoryId(), product::setCategoryId);
+        productChanged |= apply(request.getModelNumber(), product.getModelNumber(), product::setModelNumber);
+        productChanged |= apply(request.getReleaseYear(), product.getReleaseYear(), product::setReleaseYear);
+        productChanged |= apply(request.getDefaultPrice(), product.getDefaultPrice(), product::setDefaultPrice);
+        productChanged |= apply(request.getImageUrl(), product.getImageUrl(), product::setImageUrl);
+
+        // Merge variants by SKU and specifications by key, so unchanged rows keep their IDs
+        ChangeCollector changes = new ChangeCollector();
+        if (request.getVariants() != null) {
+            mergeVariants(productId, request.getVariants(), changes);
+        }
+        if (request.getSpecifications() != null) {
+            mergeSpecifications(productId, request.getSpecifications(), changes);
+        }
+        ProductChangeSet changeSet = changes.toChangeSet(productId, productChanged);
+
+        if (changeSet.isEmpty()) {
+            log.debug("Update of product {} changed nothing", productId);
+            return buildProductDetailResponse(product);
+        }
         product.setUpdatedAt(LocalDateTime.now());
 
-        product = productRepository.save(product);
-        entityManager.flush();
+        if (changeSet.isStockOnly()) {
+            // Search and facet entries do not depend on stock
+            eventPublisher.publishEvent(ProductStockChangedEvent.of(Set.of(productId)));
+        } else {
+            // Variants, their active flag or the default price may have changed
+            productRepository.refreshPriceRange(productId);
+            eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+        }
+        eventPublisher.publishEvent(changeSet);
+        outboxWriter.append(OutboxWriter.AGGREGATE_PRODUCT, productId, OutboxWriter.PRODUCT_UPDATED, changeSet);
+        log.info("Product {} updated: {}", productId, changeSet);
 
-        // Update variants if provided
-        if (request.getVariants() != null) {
-            // Delete existing variants
-            List<ProductVariant> existingVariants = productVariantRepository.findByProductId(productId);
-            productVariantRepository.deleteAll(existingVariants);
+        return buildProductDetailResponse(product);
+    }
 
-            // Create new variants
-            for (ProductVariantRequest variantRequest : request.getVariants()) {
-                ProductVariant variant = ProductVariant.builder()
-                        .productId(product.getProductId())
-                        .sku(variantRequest.getSku())
+    /**
+     * Bring the product's variants in line with the request, matching them by SKU.
+     * Variants left out are deleted, or deactivated when orders or carts still refer to
+     * them.
+     *
+     * Changes are written with targeted UPDATEs rather than through the loaded entities,
+     * which would write every column back. The requested stock is applied as the
+     * difference to the stock read here, so units sold by checkouts meanwhile stay sold.
+     */
+    private void mergeVariants(Long productId, List<ProductVariantRequest> requests, ChangeCollector changes) {
+        Map<String, ProductVariantRequest> incoming = new LinkedHashMap<>();
+        for (ProductVariantRequest variantRequest : requests) {
+            if (incoming.put(matchKey(variantRequest.getSku()), variantRequest) != null) {
+                throw new BadRequestException("Duplicate SKU found in variants");
+            }
+        }
+
+        Map<String, ProductVariant> existingBySku = new HashMap<>();
+        List<ProductVariant> leftOver = new ArrayList<>();
+        List<ProductVariant> loaded = productVariantRepository.findByProductId(productId);
+        // Read only; detached so that later reads see what the UPDATEs below wrote
+        loaded.forEach(entityManager::detach);
+        for (ProductVariant variant : loaded) {
+            if (variant.getSku() == null || existingBySku.putIfAbsent(matchKey(variant.getSku()), variant) != null) {
+                leftOver.add(variant);
+            }
+        }
+
+        List<ProductVariant> toInsert = new ArrayList<>();
+        List<ProductVariant> toUpdate = new ArrayList<>();
+        Map<Long, Integer> stockDeltas = new HashMap<>();
+        Map<Long, String> skusById = new HashMap<>();
+        for (ProductVariantRequest variantRequest : incoming.values()) {
+            int stock = variantRequest.getStock() != null ? variantRequest.getStock() : 0;
+            boolean active = variantRequest.getIsActive() == null || variantRequest.getIsActive();
+            // Stored trimmed: the database only ignores trailing spaces, not leading ones
+            String sku = variantRequest.getSku().trim();
+            ProductVariant current = existingBySku.remove(matchKey(sku));
+            if (current == null) {
+                toInsert.add(ProductVariant.builder()
+                        .productId(productId)
+                        .sku(sku)
                         .attributes(variantRequest.getAttributes())
                         .price(variantRequest.getPrice())
-                        .stock(variantRequest.getStock() != null ? variantRequest.getStock() : 0)
-                        .isActive(variantRequest.getIsActive() == null || variantRequest.getIsActive())
-                        .build();
-                productVariantRepository.save(variant);
+                        .stock(stock)
+                        .isActive(active)
+                        .build());
+                changes.variantsAdded.add(sku);
+                continue;
+            }
+
+            boolean detailsChanged = !Objects.equals(sku, current.getSku())
+                    || !Objects.equals(variantRequest.getAttributes(), current.getAttributes())
+                    || !sameValue(variantRequest.getPrice(), current.getPrice())
+                    || !Boolean.valueOf(active).equals(current.getIsActive());
+            boolean stockChanged = !Integer.valueOf(stock).equals(current.getStock());
+            if (stockChanged) {
+                stockDeltas.put(current.getVariantId(), stock - current.getStock());
+                skusById.put(current.getVariantId(), sku);
+            }
+            if (detailsChanged) {
+                current.setSku(sku);
+                current.setAttributes(variantRequest.getAttributes());
+                current.setPrice(variantRequest.getPrice());
+                current.setIsActive(active);
+                toUpdate.add(current);
+                changes.variantsUpdated.add(current.getSku());
+            } else if (stockChanged) {
+                changes.variantsRestocked.add(current.getSku());
             }
-            entityManager.flush();
         }
+        leftOver.addAll(existingBySku.values());
 
-        // Update specifications if provided
-        if (request.getSpecifications() != null) {
-            // Delete existing specifications
-            List<ProductSpecification> existingSpecs = productSpecificationRepository.findByProductId(productId);
-            productSpecificationRepository.deleteAll(existingSpecs);
+        if (!toInsert.isEmpty()) {
+            List<String> taken = productVariantRepository.findExistingSkus(
+                    toInsert.stream().map(ProductVariant::getSku).toList());
+            if (!taken.isEmpty()) {
+                throw new BadRequestException("Variant with SKU '" + taken.get(0) + "' already exists");
+            }
+        }
 
-            // Create new specifications
-            for (ProductSpecificationRequest specRequest : request.getSpecifications()) {
-                if (specRequest.getSpecKey() != null && !specRequest.getSpecKey().trim().isEmpty()) {
-                    ProductSpecification spec = ProductSpecification.builder()
-                            .productId(product.getProductId())
-                            .specKey(specRequest.getSpecKey())
-                            .specValue(specRequest.getSpecValue())
-                            .build();
-                    productSpecificationRepository.save(spec);
+        if (!leftOver.isEmpty()) {
+            Set<Long> referenced = productVariantRepository.findReferencedIds(
+                    leftOver.stream().map(ProductVariant::getVariantId).toList());
+            List<Long> toDelete = new ArrayList<>();
+            List<Long> toDeactivate = new ArrayList<>();
+            for (ProductVariant variant : leftOver) {
+                String label = variant.getSku() != null ? variant.getSku() : "#" + variant.getVariantId();
+                if (!referenced.contains(variant.getVariantId())) {
+                    toDelete.add(variant.getVariantId());
+                    changes.variantsRemoved.add(label);
+                } else if (Boolean.TRUE.equals(variant.getIsActive())) {
+                    toDeactivate.add(variant.getVariantId());
+                    changes.variantsDeactivated.add(label);
                 }
             }
-            entityManager.flush();
+            if (!toDelete.isEmpty()) {
+                productVariantRepository.deleteAllByIdInBatch(toDelete);
+            }
+            if (!toDeactivate.isEmpty()) {
+                productVariantRepository.deactivate(toDeactivate);
+            }
         }
 
-        return buildProductDetailResponse(product);
+        if (!toUpdate.isEmpty()) {
+            productVariantRepository.updateDetails(toUpdate);
+        }
+        List<Long> oversold = productVariantRepository.adjustStock(stockDeltas);
+        if (!oversold.isEmpty()) {
+            // More was sold meanwhile than the new stock leaves room for
+            throw new BadRequestException("Stock of variant '" + skusById.get(oversold.get(0))
+                    + "' changed during the update, please reload and try again");
+        }
+
+        if (!toInsert.isEmpty()) {
+            productVariantRepository.insertAll(toInsert);
+        }
+    }
+
+    /**
+     * Bring the product's specifications in line with the request, matching them by key.
+     * Entries with a blank key are ignored.
+     */
+    private void mergeSpecifications(Long productId, List<ProductSpecificationRequest> requests, ChangeCollector changes) {
+        Map<String, ProductSpecificationRequest> incoming = new LinkedHashMap<>();
+        for (ProductSpecificationRequest specRequest : requests) {
+            if (specRequest.getSpecKey() == null || specRequest.getSpecKey().trim().isEmpty()) {
+                continue;
+            }
+            if (incoming.put(matchKey(specRequest.getSpecKey()), specRequest) != null) {
+                throw new BadRequestException("Duplicate specification key '" + specRequest.getSpecKey().trim() + "'");
+            }
+        }
+
+        Map<String, ProductSpecification> existingByKey = new HashMap<>();
+        List<ProductSpecification> leftOver = new ArrayList<>();
+        for (ProductSpecification spec : productSpecificationRepository.findByProductId(productId)) {
+            if (spec.getSpecKey() == null || existingByKey.putIfAbsent(matchKey(spec.getSpecKey()), spec) != null) {
+                leftOver.add(spec);
+            }
+        }
+
+        List<ProductSpecification> toInsert = new ArrayList<>();
+        for (ProductSpecificationRequest specRequest : incoming.values()) {
+            String key = specRequest.getSpecKey().trim();
+            ProductSpecification current = existingByKey.remove(matchKey(key));
+            if (current == null) {
+                toInsert.add(ProductSpecification.builder()
+                        .productId(productId)
+                        .specKey(key)
+                        .specValue(specRequest.getSpecValue())
+                        .build());
+                changes.specificationsAdded.add(key);
+            } else if (!Objects.equals(key, current.getSpecKey())
+                    || !Objects.equals(specRequest.getSpecValue(), current.getSpecValue())) {
+                current.setSpecKey(key);
+                current.setSpecValue(specRequest.getSpecValue());
+                changes.specificationsUpdated.add(current.getSpecKey());
+            }
+        }
+        leftOver.addAll(existingByKey.values());
+
+        if (!leftOver.isEmpty()) {
+            productSpecificationRepository.deleteAllByIdInBatch(
+                    leftOver.stream().map(ProductSpecification::getSpecId).toList());
+            leftOver.forEach(spec -> changes.specificationsRemoved.add(String.valueOf(spec.getSpecKey())));
+        }
+        if (!toInsert.isEmpty()) {
+            productSpecificationRepository.insertAll(toInsert);
+        }
+    }
+
+    /**
+     * Set a product field from a partial update. Null means "leave as is".
+     *
+     * @return whether the value changed
+     */
+    private static <T> boolean apply(T value, T current, Consumer<T> setter) {
+        if (value == null || sameValue(value, current)) {
+            return false;
+        }
+        setter.accept(value);
+        return true;
+    }
+
+    // BigDecimal.equals also compares the scale: 25000000 and 25000000.00 are the same price
+    private static boolean sameValue(Object value, Object current) {
+        if (value instanceof BigDecimal decimal && current instanceof BigDecimal currentDecimal) {
+            return decimal.compareTo(currentDecimal) == 0;
+        }
+        return Objects.equals(value, current);
+    }
+
+    // SKUs and spec keys are matched ignoring case and surrounding spaces, and written trimmed
+    private static String matchKey(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class ChangeCollector {
+        private final List<String> variantsAdded = new ArrayList<>();
+        private final List<String> variantsUpdated = new ArrayList<>();
+        private final List<String> variantsRestocked = new ArrayList<>();
+        private final List<String> variantsDeactivated = new ArrayList<>();
+        private final List<String> variantsRemoved = new ArrayList<>();
+        private final List<String> specificationsAdded = new ArrayList<>();
+        private final List<String> specificationsUpdated = new ArrayList<>();
+        private final List<String> specificationsRemoved = new ArrayList<>();
+
+        ProductChangeSet toChangeSet(Long productId, boolean productChanged) {
+            return new ProductChangeSet(productId, productChanged,
+                    List.copyOf(variantsAdded), List.copyOf(variantsUpdated), List.copyOf(variantsRestocked),
+                    List.copyOf(variantsDeactivated), List.copyOf(variantsRemoved),
+                    List.copyOf(specificationsAdded), List.copyOf(specificationsUpdated), List.copyOf(specificationsRemoved));
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
-    public ProductPageResponse getAllProducts(Pageable pageable, String keyword) {
+    public ProductPageResponse getAllProducts(Pageable pageable, String keyword, String after) {
+        // Same tiebreaker for the page and its cursor, so equal sort keys cannot straddle pages
+        pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                ProductCursorHelper.withTiebreaker(pageable.getSort()));
+        boolean keywordSearch = StringUtils.hasText(keyword);
+        if (StringUtils.hasText(after)) {
+            if (keywordSearch) {
+                throw new BadRequestException("Cursor pagination is not available for keyword search");
+            }
+            return getProductsAfter(after, pageable);
+        }
+
         Page<Product> productPage;
         
-        if (StringUtils.hasText(keyword)) {
-            productPage = productRepository.searchActiveProducts(keyword, pageable);
+        if (keywordSearch) {
+            if (pageable.getSort().isSorted()) {
+                // Matched from the in-memory index, then sorted and paged by the database
+                List<Long> matching = productSearchIndex.search(keyword);
+                productPage = matching.isEmpty()
+                        ? Page.empty(pageable)
+                        : productRepository.findAll(ProductSpecs.isActive().and(ProductSpecs.idIn(matching)), pageable);
+            } else {
+                // Served from the in-memory index, in relevance order
+                Page<Long> idPage = productSearchIndex.search(keyword, pageable);
+                productPage = new PageImpl<>(productRepository.findActiveByIdsInOrder(idPage.getContent()), pageable, idPage.getTotalElements());
+            }
         } else {
             productPage = productRepository.findAllActive(pageable);
         }
@@ -346,6 +585,31 @@ public class ProductAdminServiceImpl implements ProductAdminService {
                 .totalPages(productPage.getTotalPages())
                 .first(productPage.isFirst())
                 .last(productPage.isLast())
+                .nextCursor(keywordSearch ? null : ProductCursorHelper.nextCursor(productPage.getContent(), productPage.hasNext(), pageable.getSort()))
+                .build();
+    }
+
+    /**
+     * Cursor mode: keyset seek past the cursor without the COUNT query of the paged variant.
+     */
+    private ProductPageResponse getProductsAfter(String after, Pageable pageable) {
+        Sort sort = pageable.getSort();
+        KeysetScrollPosition position = ProductCursorHelper.decode(after, sort);
+
+        Window<Product> window = productRepository.findBy(
+                ProductSpecs.isActive(),
+                query -> query.sortBy(sort).limit(pageable.getPageSize()).scroll(position));
+
+        List<ProductListResponse> products = window.getContent().stream()
+                .map(this::buildProductListResponse)
+                .collect(Collectors.toList());
+
+        return ProductPageResponse.builder()
+                .products(products)
+                .size(pageable.getPageSize())
+                .first(false)
+                .last(!window.hasNext())
+                .nextCursor(ProductCursorHelper.nextCursor(window.getContent(), window.hasNext(), sort))
                 .build();
     }
 
@@ -366,6 +630,9 @@ public class ProductAdminServiceImpl implements ProductAdminService {
         product.setIsDeleted(true);
         product.setUpdatedAt(LocalDateTime.now());
         productRepository.save(product);
+        ProductChangedEvent changed = ProductChangedEvent.of(productId);
+        eventPublisher.publishEvent(changed);
+        outboxWriter.append(OutboxWriter.AGGREGATE_PRODUCT, productId, OutboxWriter.PRODUCT_DELETED, changed);
     }
 
     private ProductListResponse buildProductListResponse(Product product) {
@@ -490,5 +757,38 @@ public class ProductAdminServiceImpl implements ProductAdminService {
             throw new BadRequestException("Invalid product JSON format: " + e.getMessage());
         }
     }
-}
 
+    @Override
+    public ProductImportJobResponse startImport(org.springframework.web.multipart.MultipartFile file, String format) {
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("Import file is required and cannot be empty");
+        }
+        ProductImportReader.Format importFormat;
+        try {
+            importFormat = ProductImportReader.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported import format '" + format + "', expected csv or ndjson");
+        }
+
+        // The upload is gone once the request ends, so the job reads its own copy
+        Path copy;
+        try {
+            copy = Files.createTempFile("product-import-", "." + format.toLowerCase(Locale.ROOT));
+            file.transferTo(copy);
+        } catch (IOException e) {
+            log.error("Error storing product import file", e);
+            throw new BadRequestException("Failed to store import file: " + e.getMessage());
+        }
+
+        ProductImportJob job = productImporter.submit(file.getOriginalFilename(), importFormat, copy);
+        log.info("Product import {} queued for file {} ({} bytes)", job.getJobId(), file.getOriginalFilename(), file.getSize());
+        return job.toResponse();
+    }
+
+    @Override
+    public ProductImportJobResponse getImportJob(String jobId) {
+        return productImporter.find(jobId)
+                .map(ProductImportJob::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Import job not found with ID: " + jobId));
+    }
+}
@@ -1,16 +1,31 @@
 package com.fptu.group1.service.impl;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
+import com.fptu.group1.common.exception.BadRequestException;
 import com.fptu.group1.common.exception.ResourceNotFoundException;
+import com.fptu.group1.common.helper.ProductCursorHelper;
+import com.fptu.group1.dto.request.ProductFilterRequest;
 import com.fptu.group1.dto.response.ProductSpecificationResponse;
 import com.fptu.group1.dto.response.PublicProductDetailResponse;
 import com.fptu.group1.dto.response.PublicProductListResponse;
@@ -26,8 +41,14 @@ import com.fptu.group1.repository.CategoryRepository;
 import com.fptu.group1.repository.ProductRepository;
 import com.fptu.group1.repository.ProductSpecificationRepository;
 import com.fptu.group1.repository.ProductVariantRepository;
+import com.fptu.group1.repository.specification.ProductSpecs;
 import com.fptu.group1.service.ProductService;
+import com.fptu.group1.service.cache.ProductDetailCache;
+import com.fptu.group1.service.category.CategoryTreeHolder;
+import com.fptu.group1.service.search.ProductFacetIndex;
+import com.fptu.group1.service.search.ProductSearchIndex;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -41,23 +62,66 @@ public class ProductServiceImpl implements ProductService {
     private final ProductSpecificationRepository productSpecificationRepository;
     private final BrandRepository brandRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductDetailCache productDetailCache;
+    private final CategoryTreeHolder categoryTreeHolder;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void initTransactionTemplate() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
 
     @Override
     @Transactional(readOnly = true)
-    public PublicProductPageResponse getAllProducts(Pageable pageable, String keyword, Long categoryId, Long brandId) {
+    public PublicProductPageResponse getAllProducts(Pageable pageable, ProductFilterRequest filter, String after) {
+        // Same tiebreaker for the page and its cursor, so equal sort keys cannot straddle pages
+        pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                ProductCursorHelper.withTiebreaker(pageable.getSort()));
+        // Browsing a category includes everything filed under its subcategories
+        if (!filter.getCategoryIds().isEmpty()) {
+            filter.setCategoryIds(categoryTreeHolder.current().withDescendants(filter.getCategoryIds()));
+        }
+
+        boolean keywordSearch = StringUtils.hasText(filter.getKeyword());
+        if (StringUtils.hasText(after)) {
+            if (keywordSearch) {
+                throw new BadRequestException("Cursor pagination is not available for keyword search");
+            }
+            return getProductsAfter(after, pageable, filter);
+        }
+
         Page<Product> productPage;
+        List<Long> keywordHits = null;
         
-        if (StringUtils.hasText(keyword)) {
-            productPage = productRepository.searchActiveProductsWithFilters(keyword, categoryId, brandId, pageable);
-        } else if (categoryId != null || brandId != null) {
-            productPage = productRepository.findActiveByCategoryAndBrand(categoryId, brandId, pageable);
+        if (keywordSearch) {
+            // Matched from the in-memory indexes, in relevance order unless a sort was asked for
+            keywordHits = productSearchIndex.search(filter.getKeyword());
+            List<Long> matching = keywordHits;
+            if (filter.hasAttributeFilters()) {
+                // Filter inside the search, before the result cap
+                matching = productSearchIndex.search(filter.getKeyword(), productFacetIndex.filter(filter));
+            }
+            if (matching.isEmpty()) {
+                productPage = Page.empty(pageable);
+            } else if (pageable.getSort().isSorted()) {
+                productPage = productRepository.findAll(ProductSpecs.isActive().and(ProductSpecs.idIn(matching)), pageable);
+            } else {
+                int from = (int) Math.min(pageable.getOffset(), matching.size());
+                int to = Math.min(from + pageable.getPageSize(), matching.size());
+                productPage = new PageImpl<>(productRepository.findActiveByIdsInOrder(matching.subList(from, to)), pageable, matching.size());
+            }
+        } else if (filter.hasAttributeFilters()) {
+            productPage = productRepository.findAll(ProductSpecs.activeWithFilters(filter), pageable);
         } else {
             productPage = productRepository.findAllActive(pageable);
         }
 
-        List<PublicProductListResponse> products = productPage.getContent().stream()
-                .map(this::buildPublicProductListResponse)
-                .collect(Collectors.toList());
+        List<PublicProductListResponse> products = buildPublicProductListResponses(productPage.getContent());
 
         return PublicProductPageResponse.builder()
                 .products(products)
@@ -67,52 +131,96 @@ public class ProductServiceImpl implements ProductService {
                 .totalPages(productPage.getTotalPages())
                 .first(productPage.isFirst())
                 .last(productPage.isLast())
+                .nextCursor(keywordSearch ? null : ProductCursorHelper.nextCursor(productPage.getContent(), productPage.hasNext(), pageable.getSort()))
+                .facets(filter.isIncludeFacets() ? productFacetIndex.facets(filter, keywordHits) : null)
                 .build();
     }
 
+    /**
+     * Cursor mode: seek on (sort key, product_id) past the cursor. Spring Data reads one
+     * extra row to detect the end, so no COUNT query is issued.
+     */
+    private PublicProductPageResponse getProductsAfter(String after, Pageable pageable, ProductFilterRequest filter) {
+        Sort sort = pageable.getSort();
+        KeysetScrollPosition position = ProductCursorHelper.decode(after, sort);
+
+        Window<Product> window = productRepository.findBy(
+                ProductSpecs.activeWithFilters(filter),
+                query -> query.sortBy(sort).limit(pageable.getPageSize()).scroll(position));
+
+        return PublicProductPageResponse.builder()
+                .products(buildPublicProductListResponses(window.getContent()))
+                .size(pageable.getPageSize())
+                .first(false)
+                .last(!window.hasNext())
+                .nextCursor(ProductCursorHelper.nextCursor(window.getContent(), window.hasNext(), sort))
+                .facets(filter.isIncludeFacets() ? productFacetIndex.facets(filter, null) : null)
+                .build();
+    }
+
+    /**
+     * Served from the detail cache. Misses load in their own read-only transaction, so a
+     * hit does not take a database connection at all.
+     */
     @Override
-    @Transactional(readOnly = true)
     public PublicProductDetailResponse getProductById(Long productId) {
-        Product product = productRepository.findActiveById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + productId));
-        return buildPublicProductDetailResponse(product);
+        return productDetailCache.getById(productId, () -> readOnlyTransaction.execute(status -> {
+            Product product = productRepository.findActiveById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with ID: " + productId));
+            return buildPublicProductDetailResponse(product);
+        }));
     }
 
     @Override
-    @Transactional(readOnly = true)
     public PublicProductDetailResponse getProductBySlug(String slug) {
-        Product product = productRepository.findBySlug(slug)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with slug: " + slug));
-        
-        if (Boolean.TRUE.equals(product.getIsDeleted())) {
-            throw new ResourceNotFoundException("Product not found with slug: " + slug);
-        }
-        
-        return buildPublicProductDetailResponse(product);
+        return productDetailCache.getBySlug(slug, () -> readOnlyTransaction.execute(status -> {
+            Product product = productRepository.findBySlug(slug)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with slug: " + slug));
+            
+            if (Boolean.TRUE.equals(product.getIsDeleted())) {
+                throw new ResourceNotFoundException("Product not found with slug: " + slug);
+            }
+            
+            return buildPublicProductDetailResponse(product);
+        }));
     }
 
-    private PublicProductListResponse buildPublicProductListResponse(Product product) {
-        Brand brand = product.getBrandId() != null ? brandRepository.findById(product.getBrandId()).orElse(null) : null;
-        Category category = product.getCategoryId() != null ? categoryRepository.findById(product.getCategoryId()).orElse(null) : null;
-
-        // Get price range from variants
-        List<ProductVariant> variants = productVariantRepository.findByProductId(product.getProductId());
-        BigDecimal minPrice = product.getDefaultPrice();
-        BigDecimal maxPrice = product.getDefaultPrice();
-        
-        if (!variants.isEmpty()) {
-            minPrice = variants.stream()
-                    .filter(v -> Boolean.TRUE.equals(v.getIsActive()))
-                    .map(ProductVariant::getPrice)
-                    .min(BigDecimal::compareTo)
-                    .orElse(product.getDefaultPrice());
-            maxPrice = variants.stream()
-                    .filter(v -> Boolean.TRUE.equals(v.getIsActive()))
-                    .map(ProductVariant::getPrice)
-                    .max(BigDecimal::compareTo)
-                    .orElse(product.getDefaultPrice());
+    /**
+     * Build list rows for a whole page at once. Brands and categories are loaded with
+     * one set-based query each, independent of the page size; the price range is read
+     * from the denormalized columns on the product.
+     */
+    private List<PublicProductListResponse> buildPublicProductListResponses(List<Product> products) {
+        if (products.isEmpty()) {
+            return Collections.emptyList();
         }
 
+        Set<Long> brandIds = products.stream()
+                .map(Product::getBrandId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> categoryIds = products.stream()
+                .map(Product::getCategoryId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Map<Long, Brand> brands = brandRepository.findAllById(brandIds).stream()
+                .collect(Collectors.toMap(Brand::getBrandId, Function.identity()));
+        Map<Long, Category> categories = categoryRepository.findAllById(categoryIds).stream()
+                .collect(Collectors.toMap(Category::getCategoryId, Function.identity()));
+
+        return products.stream()
+                .map(product -> buildPublicProductListResponse(product,
+                        brands.get(product.getBrandId()),
+                        categories.get(product.getCategoryId())))
+                .collect(Collectors.toList());
+    }
+
+    private PublicProductListResponse buildPublicProductListResponse(Product product, Brand brand, Category category) {
+        // Rows not yet backfilled by the price range migration fall back to the default price
+        BigDecimal minPrice = product.getMinPrice() != null ? product.getMinPrice() : product.getDefaultPrice();
+        BigDecimal maxPrice = product.getMaxPrice() != null ? product.getMaxPrice() : product.getDefaultPrice();
+
         return PublicProductListResponse.builder()
                 .productId(product.getProductId())
                 .name(product.getName())
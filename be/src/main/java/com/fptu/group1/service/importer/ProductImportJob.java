@@ -0,0 +1,108 @@
+package com.fptu.group1.service.importer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.fptu.group1.dto.response.ProductImportErrorResponse;
+import com.fptu.group1.dto.response.ProductImportJobResponse;
+
+/**
+ * A bulk import accepted by {@link ProductImporter}. Counters are written by the
+ * import thread and read by polling requests.
+ */
+public class ProductImportJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String jobId = UUID.randomUUID().toString();
+    private final String fileName;
+    private final ProductImportReader.Format format;
+    private final int maxErrors;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private final List<ProductImportErrorResponse> errors = new ArrayList<>();
+    private volatile Status status = Status.QUEUED;
+    private volatile long productsRead;
+    private volatile long productsImported;
+    private volatile long variantsImported;
+    private volatile long productsFailed;
+    private volatile String error;
+    private volatile LocalDateTime updatedAt = createdAt;
+
+    ProductImportJob(String fileName, ProductImportReader.Format format, int maxErrors) {
+        this.fileName = fileName;
+        this.format = format;
+        this.maxErrors = maxErrors;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public ProductImportReader.Format getFormat() {
+        return format;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    void markRunning() {
+        status = Status.RUNNING;
+        updatedAt = LocalDateTime.now();
+    }
+
+    void read() {
+        productsRead++;
+    }
+
+    void imported(int variants) {
+        productsImported++;
+        variantsImported += variants;
+        updatedAt = LocalDateTime.now();
+    }
+
+    synchronized void rejected(long line, String message) {
+        productsFailed++;
+        if (errors.size() < maxErrors) {
+            errors.add(ProductImportErrorResponse.builder().line(line).message(message).build());
+        }
+        updatedAt = LocalDateTime.now();
+    }
+
+    void complete() {
+        status = Status.COMPLETED;
+        updatedAt = LocalDateTime.now();
+    }
+
+    void fail(String error) {
+        this.error = error;
+        status = Status.FAILED;
+        updatedAt = LocalDateTime.now();
+    }
+
+    public synchronized ProductImportJobResponse toResponse() {
+        return ProductImportJobResponse.builder()
+                .jobId(jobId)
+                .fileName(fileName)
+                .format(format.name())
+                .status(status.name())
+                .productsRead(productsRead)
+                .productsImported(productsImported)
+                .variantsImported(variantsImported)
+                .productsFailed(productsFailed)
+                .errors(List.copyOf(errors))
+                .error(error)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
@@ -0,0 +1,248 @@
+package com.fptu.group1.service.importer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fptu.group1.common.helper.CsvReader;
+import com.fptu.group1.dto.request.AddProductRequest;
+import com.fptu.group1.dto.request.ProductSpecificationRequest;
+import com.fptu.group1.dto.request.ProductVariantRequest;
+
+/**
+ * Reads products from an import file one at a time.
+ *
+ * NDJSON has one {@link AddProductRequest} object per line. CSV has a header row and
+ * one record per variant; consecutive records with the same slug (or name, when the
+ * slug is blank) belong to one product, whose own columns are taken from its first
+ * record. Columns named {@code spec:<key>} hold specification values.
+ */
+public abstract class ProductImportReader implements Closeable {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    /**
+     * One product of the file, or the reason it could not be read.
+     *
+     * @param line line of the file the product starts on
+     */
+    public record Row(long line, AddProductRequest request, String error) {
+
+        static Row failed(long line, String error) {
+            return new Row(line, null, error);
+        }
+    }
+
+    public static ProductImportReader open(Format format, BufferedReader reader, ObjectReader productReader) throws IOException {
+        return format == Format.CSV ? new Csv(reader) : new Ndjson(reader, productReader);
+    }
+
+    /**
+     * @return the next product, or null at the end of the file
+     * @throws IOException when the file itself is unreadable; errors in a single
+     *         product are reported on its row instead
+     */
+    public abstract Row next() throws IOException;
+
+    private static final class Ndjson extends ProductImportReader {
+
+        private final BufferedReader reader;
+        private final ObjectReader productReader;
+        private long lineNumber;
+
+        Ndjson(BufferedReader reader, ObjectReader productReader) {
+            this.reader = reader;
+            this.productReader = productReader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            try {
+                return new Row(lineNumber, productReader.readValue(line), null);
+            } catch (JsonProcessingException e) {
+                return Row.failed(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class Csv extends ProductImportReader {
+
+        private static final String SPEC_PREFIX = "spec:";
+
+        private final CsvReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private final Map<Integer, String> specColumns = new HashMap<>();
+
+        // First record of the next product, already read while finishing the previous one
+        private List<String> pending;
+        private long pendingLine;
+
+        Csv(BufferedReader reader) throws IOException {
+            this.reader = new CsvReader(reader);
+            List<String> header = this.reader.next();
+            if (header == null) {
+                throw new IOException("The file is empty");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                String column = header.get(i).trim();
+                if (column.regionMatches(true, 0, SPEC_PREFIX, 0, SPEC_PREFIX.length())) {
+                    specColumns.put(i, column.substring(SPEC_PREFIX.length()).trim());
+                } else {
+                    columns.put(column.toLowerCase(Locale.ROOT), i);
+                }
+            }
+            if (!columns.containsKey("name")) {
+                throw new IOException("CSV header must contain a 'name' column");
+            }
+            readPending();
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (pending == null) {
+                return null;
+            }
+            long line = pendingLine;
+            List<List<String>> records = new ArrayList<>();
+            String key = productKey(pending);
+            do {
+                records.add(pending);
+                readPending();
+            } while (pending != null && productKey(pending).equals(key));
+
+            try {
+                return new Row(line, toRequest(records), null);
+            } catch (IllegalArgumentException e) {
+                return Row.failed(line, e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        private void readPending() throws IOException {
+            do {
+                pending = reader.next();
+            } while (pending != null && pending.stream().allMatch(String::isBlank));
+            pendingLine = reader.getRecordLine();
+        }
+
+        private String productKey(List<String> record) {
+            String slug = value(record, "slug");
+            return slug != null ? "slug:" + slug : "name:" + value(record, "name");
+        }
+
+        private AddProductRequest toRequest(List<List<String>> records) {
+            List<String> first = records.get(0);
+            AddProductRequest request = AddProductRequest.builder()
+                    .name(value(first, "name"))
+                    .slug(value(first, "slug"))
+                    .shortDescription(value(first, "short_description"))
+                    .fullDescription(value(first, "full_description"))
+                    .brandId(longValue(first, "brand_id"))
+                    .categoryId(longValue(first, "category_id"))
+                    .modelNumber(value(first, "model_number"))
+                    .releaseYear(intValue(first, "release_year"))
+                    .defaultPrice(decimalValue(first, "default_price"))
+                    .imageUrl(value(first, "image_url"))
+                    .build();
+
+            for (List<String> record : records) {
+                if (value(record, "sku") == null) {
+                    continue;
+                }
+                request.getVariants().add(ProductVariantRequest.builder()
+                        .sku(value(record, "sku"))
+                        .attributes(value(record, "attributes"))
+                        .price(decimalValue(record, "price"))
+                        .stock(intValue(record, "stock"))
+                        .isActive(booleanValue(record, "is_active"))
+                        .build());
+            }
+            specColumns.forEach((index, specKey) -> {
+                String specValue = index < first.size() ? first.get(index).trim() : "";
+                if (!specValue.isEmpty()) {
+                    request.getSpecifications().add(ProductSpecificationRequest.builder()
+                            .specKey(specKey)
+                            .specValue(specValue)
+                            .build());
+                }
+            });
+            return request;
+        }
+
+        private String value(List<String> record, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= record.size()) {
+                return null;
+            }
+            String value = record.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private Long longValue(List<String> record, String column) {
+            String value = value(record, column);
+            try {
+                return value != null ? Long.valueOf(value) : null;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + ": '" + value + "' is not a whole number");
+            }
+        }
+
+        private Integer intValue(List<String> record, String column) {
+            String value = value(record, column);
+            try {
+                return value != null ? Integer.valueOf(value) : null;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + ": '" + value + "' is not a whole number");
+            }
+        }
+
+        private BigDecimal decimalValue(List<String> record, String column) {
+            String value = value(record, column);
+            try {
+                return value != null ? new BigDecimal(value) : null;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + ": '" + value + "' is not a number");
+            }
+        }
+
+        private Boolean booleanValue(List<String> record, String column) {
+            String value = value(record, column);
+            if (value == null) {
+                return null;
+            }
+            return switch (value.toLowerCase(Locale.ROOT)) {
+                case "true", "1", "yes" -> true;
+                case "false", "0", "no" -> false;
+                default -> throw new IllegalArgumentException(column + ": '" + value + "' is not true or false");
+            };
+        }
+    }
+}
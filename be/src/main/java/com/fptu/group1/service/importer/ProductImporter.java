@@ -0,0 +1,434 @@
+package com.fptu.group1.service.importer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fptu.group1.common.event.ProductChangedEvent;
+import com.fptu.group1.common.exception.BadRequestException;
+import com.fptu.group1.common.helper.StringHelper;
+import com.fptu.group1.dto.request.AddProductRequest;
+import com.fptu.group1.dto.request.ProductSpecificationRequest;
+import com.fptu.group1.dto.request.ProductVariantRequest;
+import com.fptu.group1.model.Product;
+import com.fptu.group1.model.ProductSpecification;
+import com.fptu.group1.model.ProductVariant;
+import com.fptu.group1.repository.ProductImportRepository;
+import com.fptu.group1.repository.ProductSpecificationRepository;
+import com.fptu.group1.repository.ProductVariantRepository;
+import com.fptu.group1.service.outbox.OutboxWriter;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk product import from CSV or NDJSON files.
+ *
+ * An uploaded file is read by one background thread, one product at a time, and
+ * imported in chunks of {@code product-import.chunk-size} products. For each chunk,
+ * brands, categories, slugs, names and SKUs are checked with a handful of IN queries,
+ * and the valid products are inserted with their variants and specifications in one
+ * transaction of batched statements. Products that fail a check are reported on the
+ * job with their line and the rest of the chunk goes on. If the chunk transaction
+ * itself fails, its products are retried one transaction each, so only the offending
+ * ones are rejected.
+ *
+ * Chunks are committed as they go: a job that stops halfway keeps what it imported.
+ * Jobs are kept in memory and stay queryable for {@code product-import.retention-minutes}.
+ */
+@Slf4j
+@Component
+public class ProductImporter {
+
+    private final ProductImportRepository productImportRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final ProductSpecificationRepository productSpecificationRepository;
+    private final OutboxWriter outboxWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final ObjectReader productReader;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService worker;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final int maxPendingJobs;
+    private final long retentionMinutes;
+
+    private final Map<String, ProductImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ProductImporter(ProductImportRepository productImportRepository,
+            ProductVariantRepository productVariantRepository,
+            ProductSpecificationRepository productSpecificationRepository,
+            OutboxWriter outboxWriter,
+            ApplicationEventPublisher eventPublisher,
+            Validator validator,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${product-import.chunk-size:500}") int chunkSize,
+            @Value("${product-import.max-errors:1000}") int maxErrors,
+            @Value("${product-import.max-pending-jobs:5}") int maxPendingJobs,
+            @Value("${product-import.retention-minutes:1440}") long retentionMinutes) {
+        this.productImportRepository = productImportRepository;
+        this.productVariantRepository = productVariantRepository;
+        this.productSpecificationRepository = productSpecificationRepository;
+        this.outboxWriter = outboxWriter;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.productReader = objectMapper.readerFor(AddProductRequest.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.maxPendingJobs = maxPendingJobs;
+        this.retentionMinutes = retentionMinutes;
+
+        // One import at a time: chunks already saturate the batch inserts
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queue an import. The importer takes over the file and deletes it when done.
+     *
+     * @throws BadRequestException when too many imports are waiting
+     */
+    public ProductImportJob submit(String fileName, ProductImportReader.Format format, Path file) {
+        long pending = jobs.values().stream().filter(job -> !job.isFinished()).count();
+        if (pending >= maxPendingJobs) {
+            deleteQuietly(file);
+            throw new BadRequestException("Too many imports in progress, please try again later");
+        }
+        ProductImportJob job = new ProductImportJob(fileName, format, maxErrors);
+        jobs.put(job.getJobId(), job);
+        worker.execute(() -> run(job, file));
+        return job;
+    }
+
+    public Optional<ProductImportJob> find(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    @Scheduled(fixedDelayString = "${product-import.purge-interval-ms:600000}")
+    public void purgeFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getUpdatedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void run(ProductImportJob job, Path file) {
+        job.markRunning();
+        long startTime = System.currentTimeMillis();
+        try (ProductImportReader reader = ProductImportReader.open(job.getFormat(),
+                Files.newBufferedReader(file, StandardCharsets.UTF_8), productReader)) {
+            Run run = new Run(job);
+            List<ProductImportReader.Row> chunk = new ArrayList<>(chunkSize);
+            ProductImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    job.fail("Import interrupted by a server shutdown");
+                    return;
+                }
+                job.read();
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    run.importChunk(chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                run.importChunk(chunk);
+            }
+            job.complete();
+            log.info("Product import {} finished in {}ms", job.getJobId(), System.currentTimeMillis() - startTime);
+        } catch (IOException e) {
+            log.warn("Product import {} could not read its file: {}", job.getJobId(), e.getMessage());
+            job.fail("Could not read the file: " + e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Product import {} failed", job.getJobId(), e);
+            job.fail("Import stopped unexpectedly: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}", file, e);
+        }
+    }
+
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private record Candidate(long line, Product product, List<ProductVariant> variants,
+            List<ProductSpecification> specifications) {
+    }
+
+    /**
+     * State of one running import: the slugs, names and SKUs already taken by earlier
+     * products of the same file that were imported or are about to be.
+     */
+    private final class Run {
+
+        private final ProductImportJob job;
+        private final Set<String> seenSlugs = new HashSet<>();
+        private final Set<String> seenNames = new HashSet<>();
+        private final Set<String> seenSkus = new HashSet<>();
+
+        Run(ProductImportJob job) {
+            this.job = job;
+        }
+
+        void importChunk(List<ProductImportReader.Row> rows) {
+            List<Candidate> candidates = new ArrayList<>(rows.size());
+            for (ProductImportReader.Row row : rows) {
+                String error = row.error() != null ? row.error() : validate(row.request());
+                Candidate candidate = null;
+                if (error == null) {
+                    candidate = toCandidate(row);
+                    error = claim(candidate);
+                }
+                if (error != null) {
+                    job.rejected(row.line(), error);
+                } else {
+                    candidates.add(candidate);
+                }
+            }
+
+            candidates = rejectExisting(candidates);
+            if (candidates.isEmpty()) {
+                return;
+            }
+
+            try {
+                List<Candidate> chunk = candidates;
+                transactionTemplate.executeWithoutResult(status -> insert(chunk));
+                candidates.forEach(candidate -> job.imported(candidate.variants().size()));
+            } catch (RuntimeException e) {
+                log.warn("Product import {}: chunk of {} failed, retrying one by one: {}",
+                        job.getJobId(), candidates.size(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                for (Candidate candidate : candidates) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> insert(List.of(candidate)));
+                        job.imported(candidate.variants().size());
+                    } catch (RuntimeException single) {
+                        release(candidate);
+                        job.rejected(candidate.line(), NestedExceptionUtils.getMostSpecificCause(single).getMessage());
+                    }
+                }
+            }
+        }
+
+        private String validate(AddProductRequest request) {
+            Set<ConstraintViolation<AddProductRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                return violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+            }
+            if (request.getSlug() == null || request.getSlug().isBlank()) {
+                if (StringHelper.toSlug(request.getName()).isEmpty()) {
+                    return "Product name '" + request.getName() + "' has no characters usable in a slug";
+                }
+            }
+            return null;
+        }
+
+        private Candidate toCandidate(ProductImportReader.Row row) {
+            AddProductRequest request = row.request();
+            String slug = request.getSlug() == null || request.getSlug().isBlank()
+                    ? StringHelper.toSlug(request.getName())
+                    : request.getSlug().trim();
+
+            Product product = Product.builder()
+                    .name(request.getName())
+                    .slug(slug)
+                    .shortDescription(request.getShortDescription())
+                    .fullDescription(request.getFullDescription())
+                    .brandId(request.getBrandId())
+                    .categoryId(request.getCategoryId())
+                    .modelNumber(request.getModelNumber())
+                    .releaseYear(request.getReleaseYear())
+                    .defaultPrice(request.getDefaultPrice())
+                    .imageUrl(request.getImageUrl())
+                    .isDeleted(false)
+                    .createdAt(LocalDateTime.now())
+                    .build();
+
+            List<ProductVariant> variants = new ArrayList<>();
+            if (request.getVariants() != null) {
+                for (ProductVariantRequest variantRequest : request.getVariants()) {
+                    variants.add(ProductVariant.builder()
+                            .sku(variantRequest.getSku())
+                            .attributes(variantRequest.getAttributes())
+                            .price(variantRequest.getPrice())
+                            .stock(variantRequest.getStock() != null ? variantRequest.getStock() : 0)
+                            .isActive(variantRequest.getIsActive() == null || variantRequest.getIsActive())
+                            .build());
+                }
+            }
+
+            List<ProductSpecification> specifications = new ArrayList<>();
+            if (request.getSpecifications() != null) {
+                for (ProductSpecificationRequest specRequest : request.getSpecifications()) {
+                    if (specRequest.getSpecKey() == null || specRequest.getSpecKey().trim().isEmpty()) {
+                        continue;
+                    }
+                    specifications.add(ProductSpecification.builder()
+                            .specKey(specRequest.getSpecKey())
+                            .specValue(specRequest.getSpecValue())
+                            .build());
+                }
+            }
+            return new Candidate(row.line(), product, variants, specifications);
+        }
+
+        /**
+         * Check the product against the rest of the file and, if it is clear, reserve
+         * its slug, name and SKUs. Compared case-insensitively, like the database.
+         */
+        private String claim(Candidate candidate) {
+            Product product = candidate.product();
+            if (seenSlugs.contains(key(product.getSlug()))) {
+                return "Slug '" + product.getSlug() + "' appears more than once in the file";
+            }
+            if (seenNames.contains(key(product.getName()))) {
+                return "Name '" + product.getName() + "' appears more than once in the file";
+            }
+            Set<String> skus = new HashSet<>();
+            for (ProductVariant variant : candidate.variants()) {
+                String sku = key(variant.getSku());
+                if (!skus.add(sku)) {
+                    return "Duplicate SKU '" + variant.getSku() + "' found in variants";
+                }
+                if (seenSkus.contains(sku)) {
+                    return "SKU '" + variant.getSku() + "' appears more than once in the file";
+                }
+            }
+            seenSlugs.add(key(product.getSlug()));
+            seenNames.add(key(product.getName()));
+            seenSkus.addAll(skus);
+            return null;
+        }
+
+        /**
+         * Give back the slug, name and SKUs of a product that was not imported, so a later
+         * line of the file may still use them.
+         */
+        private void release(Candidate candidate) {
+            seenSlugs.remove(key(candidate.product().getSlug()));
+            seenNames.remove(key(candidate.product().getName()));
+            candidate.variants().forEach(variant -> seenSkus.remove(key(variant.getSku())));
+        }
+
+        /**
+         * Reject the products whose brand or category is missing, or whose slug, name
+         * or SKUs are already in the catalog; returns the others.
+         */
+        private List<Candidate> rejectExisting(List<Candidate> candidates) {
+            if (candidates.isEmpty()) {
+                return candidates;
+            }
+            Set<Long> brandIds = productImportRepository.findExistingBrandIds(
+                    candidates.stream().map(c -> c.product().getBrandId()).toList());
+            Set<Long> categoryIds = productImportRepository.findExistingCategoryIds(
+                    candidates.stream().map(c -> c.product().getCategoryId()).toList());
+            Set<String> slugs = keys(productImportRepository.findExistingSlugs(
+                    candidates.stream().map(c -> c.product().getSlug()).toList()));
+            Set<String> names = keys(productImportRepository.findExistingNames(
+                    candidates.stream().map(c -> c.product().getName()).toList()));
+            Set<String> skus = keys(productImportRepository.findExistingSkus(
+                    candidates.stream().flatMap(c -> c.variants().stream()).map(ProductVariant::getSku).toList()));
+
+            List<Candidate> accepted = new ArrayList<>(candidates.size());
+            for (Candidate candidate : candidates) {
+                Product product = candidate.product();
+                String error = null;
+                if (!brandIds.contains(product.getBrandId())) {
+                    error = "Brand not found with ID: " + product.getBrandId();
+                } else if (!categoryIds.contains(product.getCategoryId())) {
+                    error = "Category not found with ID: " + product.getCategoryId();
+                } else if (slugs.contains(key(product.getSlug()))) {
+                    error = "Product with slug '" + product.getSlug() + "' already exists";
+                } else if (names.contains(key(product.getName()))) {
+                    error = "Product with name '" + product.getName() + "' already exists";
+                } else {
+                    error = candidate.variants().stream()
+                            .filter(variant -> skus.contains(key(variant.getSku())))
+                            .findFirst()
+                            .map(variant -> "Variant with SKU '" + variant.getSku() + "' already exists")
+                            .orElse(null);
+                }
+                if (error != null) {
+                    release(candidate);
+                    job.rejected(candidate.line(), error);
+                } else {
+                    accepted.add(candidate);
+                }
+            }
+            return accepted;
+        }
+
+        private Set<String> keys(Set<String> values) {
+            return values.stream().map(ProductImporter::key).collect(Collectors.toSet());
+        }
+
+        private void insert(List<Candidate> candidates) {
+            productImportRepository.insertProducts(candidates.stream().map(Candidate::product).toList());
+
+            List<ProductVariant> variants = new ArrayList<>();
+            List<ProductSpecification> specifications = new ArrayList<>();
+            Map<Long, ProductChangedEvent> created = new LinkedHashMap<>();
+            for (Candidate candidate : candidates) {
+                Long productId = candidate.product().getProductId();
+                candidate.variants().forEach(variant -> variant.setProductId(productId));
+                candidate.specifications().forEach(spec -> spec.setProductId(productId));
+                variants.addAll(candidate.variants());
+                specifications.addAll(candidate.specifications());
+                created.put(productId, ProductChangedEvent.of(productId));
+            }
+            productVariantRepository.insertAll(variants);
+            productSpecificationRepository.insertAll(specifications);
+            productImportRepository.refreshPriceRanges(created.keySet());
+
+            eventPublisher.publishEvent(ProductChangedEvent.of(created.keySet()));
+            outboxWriter.appendAll(OutboxWriter.AGGREGATE_PRODUCT, OutboxWriter.PRODUCT_CREATED, created);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.fptu.group1.service.inventory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for expiring items in O(1) per schedule and per tick.
+ *
+ * Time is cut into ticks; an item due at tick {@code t} goes into slot
+ * {@code t mod slots}. Advancing the wheel visits only the slots of the ticks that
+ * passed and fires the items whose tick has come (items further out in the same slot
+ * stay for a later round). There is no cancel: callers re-check an item when it fires
+ * and ignore it if it was renewed or released in the meantime.
+ */
+class ExpiryWheel<T> {
+
+    private final long tickMillis;
+    private final List<List<Timeout<T>>> slots;
+    private final int mask;
+    private long currentTick;
+
+    ExpiryWheel(long tickMillis, int slotCount, long nowMillis) {
+        if (Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("Slot count must be a power of two: " + slotCount);
+        }
+        this.tickMillis = tickMillis;
+        this.mask = slotCount - 1;
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    synchronized void schedule(T item, long deadlineMillis) {
+        // Round up so an item never fires before its deadline; past deadlines fire on the next tick
+        long deadlineTick = Math.max((deadlineMillis + tickMillis - 1) / tickMillis, currentTick);
+        slots.get((int) (deadlineTick & mask)).add(new Timeout<>(item, deadlineTick));
+    }
+
+    /**
+     * Fire every item due up to {@code nowMillis}. The callback runs outside the wheel
+     * lock, so it may schedule again.
+     */
+    void advance(long nowMillis, Consumer<T> onExpired) {
+        List<T> expired = new ArrayList<>();
+        synchronized (this) {
+            long targetTick = nowMillis / tickMillis;
+            // After a long pause every slot is visited once, not once per missed tick
+            long lastTick = Math.min(targetTick, currentTick + mask);
+            for (long tick = currentTick; tick <= lastTick; tick++) {
+                Iterator<Timeout<T>> iterator = slots.get((int) (tick & mask)).iterator();
+                while (iterator.hasNext()) {
+                    Timeout<T> timeout = iterator.next();
+                    if (timeout.deadlineTick() <= targetTick) {
+                        expired.add(timeout.item());
+                        iterator.remove();
+                    }
+                }
+            }
+            currentTick = targetTick + 1;
+        }
+        expired.forEach(onExpired);
+    }
+
+    private record Timeout<T>(T item, long deadlineTick) {
+    }
+}
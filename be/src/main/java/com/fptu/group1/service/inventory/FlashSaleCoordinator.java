@@ -0,0 +1,310 @@
+package com.fptu.group1.service.inventory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fptu.group1.common.event.ProductChangeSet;
+import com.fptu.group1.common.event.ProductStockChangedEvent;
+import com.fptu.group1.common.exception.BadRequestException;
+import com.fptu.group1.common.exception.ResourceNotFoundException;
+import com.fptu.group1.dto.response.FlashSaleVariantResponse;
+import com.fptu.group1.model.ProductVariant;
+import com.fptu.group1.repository.ProductVariantRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Flash-sale mode for hot variants.
+ *
+ * Checkouts of a hot variant do not update its row themselves. They put a claim into
+ * the variant's bounded queue and wait. One consumer per variant drains the queue in
+ * batches and grants claims first come, first served, with one locked read and one
+ * aggregated stock update per batch. Only the consumers touch the row, and they use at
+ * most {@code flash-sale.consumer-threads} connections. Once a variant runs out, its
+ * checkouts fail immediately without queueing. A full queue also fails fast.
+ *
+ * Granted stock is committed by the consumer. A checkout that fails afterwards must
+ * give it back with {@link #restore}.
+ */
+@Slf4j
+@Component
+public class FlashSaleCoordinator {
+
+    private final ProductVariantRepository productVariantRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService consumers;
+    private final int queueCapacity;
+    private final int maxBatchSize;
+    private final long claimTimeoutMillis;
+
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+
+    public FlashSaleCoordinator(ProductVariantRepository productVariantRepository,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${flash-sale.consumer-threads:2}") int consumerThreads,
+            @Value("${flash-sale.queue-capacity:2000}") int queueCapacity,
+            @Value("${flash-sale.max-batch-size:200}") int maxBatchSize,
+            @Value("${flash-sale.claim-timeout-ms:10000}") long claimTimeoutMillis) {
+        this.productVariantRepository = productVariantRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queueCapacity = queueCapacity;
+        this.maxBatchSize = maxBatchSize;
+        this.claimTimeoutMillis = claimTimeoutMillis;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.consumers = Executors.newFixedThreadPool(consumerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "flash-sale-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public FlashSaleVariantResponse markHot(Long variantId) {
+        ProductVariant variant = productVariantRepository.findById(variantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product variant not found with ID: " + variantId));
+        Lane lane = lanes.computeIfAbsent(variantId, id -> new Lane(variant.getVariantId(), variant.getProductId(), variant.getSku()));
+        log.info("Flash-sale mode enabled for variant {}", variant.getSku());
+        return toResponse(lane);
+    }
+
+    /**
+     * Leave flash-sale mode. Claims already queued are still processed.
+     */
+    public void unmarkHot(Long variantId) {
+        if (lanes.remove(variantId) == null) {
+            throw new ResourceNotFoundException("Variant " + variantId + " is not in flash-sale mode");
+        }
+    }
+
+    public boolean isHot(Long variantId) {
+        return lanes.containsKey(variantId);
+    }
+
+    public List<FlashSaleVariantResponse> getHotVariants() {
+        return lanes.values().stream()
+                .sorted(Comparator.comparing(lane -> lane.variantId))
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Take {@code quantity} of a hot variant off stock through its queue. Blocks until
+     * the consumer has decided; on return the stock is deducted and committed.
+     *
+     * @throws BadRequestException when sold out, short of stock, or the queue is full
+     */
+    public void claim(Long variantId, int quantity) {
+        Lane lane = lanes.get(variantId);
+        if (lane == null) {
+            throw new IllegalStateException("Variant " + variantId + " is not in flash-sale mode");
+        }
+        if (lane.soldOut) {
+            throw new BadRequestException("Product variant " + lane.sku + " is sold out");
+        }
+
+        Claim claim = new Claim(quantity);
+        if (!lane.queue.offer(claim)) {
+            throw new BadRequestException("Too many checkouts for " + lane.sku + " right now, please try again");
+        }
+        scheduleDrain(lane);
+
+        boolean granted;
+        try {
+            granted = claim.result.get(claimTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (claim.taken.compareAndSet(false, true)) {
+                // Withdrawn before the consumer reached it, nothing was deducted
+                throw new BadRequestException("Checkout for " + lane.sku + " timed out, please try again");
+            }
+            // The consumer is already processing it; its decision stands
+            granted = awaitDecision(claim);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for flash-sale stock", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Flash-sale stock update failed for " + lane.sku, e.getCause());
+        }
+
+        if (!granted) {
+            throw new BadRequestException(lane.soldOut
+                    ? "Product variant " + lane.sku + " is sold out"
+                    : "Insufficient stock for variant " + lane.sku + ". Requested: " + quantity);
+        }
+    }
+
+    /**
+     * Return stock granted by {@link #claim} to a checkout that did not go through.
+     */
+    public void restore(Long variantId, int quantity) {
+        transactionTemplate.executeWithoutResult(status -> productVariantRepository.incrementStock(variantId, quantity));
+        Lane lane = lanes.get(variantId);
+        if (lane != null) {
+            lane.soldOut = false;
+            eventPublisher.publishEvent(ProductStockChangedEvent.of(Set.of(lane.productId)));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductUpdated(ProductChangeSet changes) {
+        if (changes.variantsRestocked().isEmpty() && changes.variantsUpdated().isEmpty()) {
+            return;
+        }
+        // Staff may have restocked; let the next batch look at the row again
+        lanes.values().stream()
+                .filter(lane -> lane.productId.equals(changes.productId()))
+                .forEach(lane -> lane.soldOut = false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        consumers.shutdown();
+    }
+
+    private void scheduleDrain(Lane lane) {
+        if (lane.draining.compareAndSet(false, true)) {
+            consumers.execute(() -> drain(lane));
+        }
+    }
+
+    private void drain(Lane lane) {
+        try {
+            while (true) {
+                List<Claim> batch = new ArrayList<>();
+                lane.queue.drainTo(batch, maxBatchSize);
+                // Skip claims whose callers gave up waiting
+                batch.removeIf(claim -> !claim.taken.compareAndSet(false, true));
+                if (batch.isEmpty() && lane.queue.isEmpty()) {
+                    break;
+                }
+                if (!batch.isEmpty()) {
+                    process(lane, batch);
+                }
+            }
+        } finally {
+            lane.draining.set(false);
+            // A claim may have arrived between the last drain and the reset
+            if (!lane.queue.isEmpty()) {
+                scheduleDrain(lane);
+            }
+        }
+    }
+
+    private void process(Lane lane, List<Claim> batch) {
+        if (lane.soldOut) {
+            batch.forEach(claim -> claim.result.complete(false));
+            return;
+        }
+
+        boolean[] granted = new boolean[batch.size()];
+        int remaining;
+        try {
+            remaining = transactionTemplate.execute(status -> {
+                Integer stock = productVariantRepository.findStockForUpdate(lane.variantId);
+                int left = stock != null ? stock : 0;
+                int taken = 0;
+                for (int i = 0; i < batch.size(); i++) {
+                    int quantity = batch.get(i).quantity;
+                    if (quantity <= left) {
+                        granted[i] = true;
+                        left -= quantity;
+                        taken += quantity;
+                    }
+                }
+                if (taken > 0) {
+                    productVariantRepository.decrementStock(Map.of(lane.variantId, taken));
+                }
+                return left;
+            });
+        } catch (RuntimeException e) {
+            log.error("Flash-sale batch of {} claims failed for variant {}", batch.size(), lane.sku, e);
+            batch.forEach(claim -> claim.result.completeExceptionally(e));
+            return;
+        }
+
+        if (remaining == 0) {
+            lane.soldOut = true;
+        }
+        // Decisions are published only after the stock update committed
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result.complete(granted[i]);
+        }
+        eventPublisher.publishEvent(ProductStockChangedEvent.of(Set.of(lane.productId)));
+    }
+
+    private static boolean awaitDecision(Claim claim) {
+        try {
+            return claim.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for flash-sale stock", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Flash-sale stock update failed", e.getCause());
+        }
+    }
+
+    private FlashSaleVariantResponse toResponse(Lane lane) {
+        return FlashSaleVariantResponse.builder()
+                .variantId(lane.variantId)
+                .productId(lane.productId)
+                .sku(lane.sku)
+                .queued(lane.queue.size())
+                .soldOut(lane.soldOut)
+                .build();
+    }
+
+    private final class Lane {
+
+        private final Long variantId;
+        private final Long productId;
+        private final String sku;
+        private final BlockingQueue<Claim> queue = new ArrayBlockingQueue<>(queueCapacity);
+        // Guarantees a single consumer per variant
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean soldOut;
+
+        private Lane(Long variantId, Long productId, String sku) {
+            this.variantId = variantId;
+            this.productId = productId;
+            this.sku = sku;
+        }
+    }
+
+    private static final class Claim {
+
+        private final int quantity;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        // Set by whoever gets it first: the consumer (to process) or the caller (to withdraw)
+        private final AtomicBoolean taken = new AtomicBoolean();
+
+        private Claim(int quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
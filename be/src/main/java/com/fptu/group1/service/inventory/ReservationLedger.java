@@ -0,0 +1,307 @@
+package com.fptu.group1.service.inventory;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fptu.group1.common.event.OrderPlacedEvent;
+import com.fptu.group1.repository.StockReservationRepository;
+import com.fptu.group1.repository.StockReservationRepository.Reservation;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory ledger of stock held by carts.
+ *
+ * Each (user, variant) pair holds at most one quantity with an expiry; adding to or
+ * changing the cart line replaces it and renews the expiry. Available-to-sell for a
+ * variant is its stock minus every live hold, and a user's own hold does not count
+ * against them. Updates of one variant are serialized by a lock stripe, so two carts
+ * cannot both take the last unit; different variants rarely share a stripe.
+ *
+ * Expired holds are released by a timing wheel advanced once per tick. Changes are
+ * written behind to the StockReservations table in batches and read back at startup,
+ * so holds survive a restart. Checkout converts the holds into a stock deduction:
+ * the holds of the ordered variants are dropped once the order has committed.
+ */
+@Slf4j
+@Component
+public class ReservationLedger {
+
+    private static final int STRIPES = 64;
+    private static final int WHEEL_SLOTS = 512;
+
+    private final StockReservationRepository stockReservationRepository;
+    private final long ttlMillis;
+    private final ExpiryWheel<HoldKey> expiryWheel;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    // variantId -> (userId -> hold)
+    private final Map<Long, Map<Long, Hold>> holdsByVariant = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> heldByVariant = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> variantsByUser = new ConcurrentHashMap<>();
+    // Keys changed since the last write-behind flush
+    private final Set<HoldKey> dirty = ConcurrentHashMap.newKeySet();
+
+    public ReservationLedger(StockReservationRepository stockReservationRepository,
+            @Value("${inventory.reservation.ttl-minutes:15}") long ttlMinutes,
+            @Value("${inventory.reservation.tick-ms:1000}") long tickMillis) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.ttlMillis = ttlMinutes * 60_000;
+        this.expiryWheel = new ExpiryWheel<>(tickMillis, WHEEL_SLOTS, System.currentTimeMillis());
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    public void restore() {
+        long now = System.currentTimeMillis();
+        List<Reservation> live = stockReservationRepository.findLive(toDateTime(now));
+        for (Reservation reservation : live) {
+            long expiresAt = toMillis(reservation.expiresAt());
+            ReentrantLock lock = stripe(reservation.variantId());
+            lock.lock();
+            try {
+                put(reservation.userId(), reservation.variantId(), new Hold(reservation.quantity(), expiresAt));
+            } finally {
+                lock.unlock();
+            }
+            expiryWheel.schedule(new HoldKey(reservation.userId(), reservation.variantId()), expiresAt);
+        }
+        log.info("Reservation ledger restored: {} live holds", live.size());
+    }
+
+    /**
+     * Set the user's hold on a variant to {@code quantity}, if the stock not held by
+     * other users covers it.
+     *
+     * The hold is taken at once, so two carts cannot both pass the check. Inside a
+     * transaction it is put back to its previous value if the transaction rolls back.
+     *
+     * @return false (and nothing changed) when there is not enough available stock
+     */
+    public boolean hold(Long userId, Long variantId, int quantity, int stock) {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        Hold previous;
+        ReentrantLock lock = stripe(variantId);
+        lock.lock();
+        try {
+            if (stock - heldByOthers(variantId, userId) < quantity) {
+                return false;
+            }
+            previous = put(userId, variantId, new Hold(quantity, expiresAt));
+        } finally {
+            lock.unlock();
+        }
+        HoldKey key = new HoldKey(userId, variantId);
+        expiryWheel.schedule(key, expiresAt);
+        dirty.add(key);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        restore(key, previous);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Drop the user's hold on a variant. Inside a transaction this happens after it
+     * commits, so a rolled-back cart change keeps its hold.
+     */
+    public void release(Long userId, Long variantId) {
+        afterCommit(() -> releaseNow(userId, variantId));
+    }
+
+    /**
+     * Drop all holds of the user, after the current transaction commits.
+     */
+    public void releaseAll(Long userId) {
+        afterCommit(() -> releaseAllNow(userId));
+    }
+
+    /**
+     * Quantity of a variant held by carts other than this user's.
+     */
+    public int heldByOthers(Long variantId, Long userId) {
+        Map<Long, Hold> holds = holdsByVariant.get(variantId);
+        Hold own = holds != null ? holds.get(userId) : null;
+        return heldByVariant.getOrDefault(variantId, 0) - (own != null ? own.quantity() : 0);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        // The stock of the ordered lines is deducted now; lines left in the cart keep their holds
+        event.variantIds().forEach(variantId -> releaseNow(event.userId(), variantId));
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.tick-ms:1000}")
+    public void expireHolds() {
+        long now = System.currentTimeMillis();
+        expiryWheel.advance(now, key -> {
+            ReentrantLock lock = stripe(key.variantId());
+            lock.lock();
+            try {
+                Map<Long, Hold> holds = holdsByVariant.get(key.variantId());
+                Hold hold = holds != null ? holds.get(key.userId()) : null;
+                // Renewed holds have a later deadline and a later wheel entry of their own
+                if (hold == null || hold.expiresAtMillis() > now) {
+                    return;
+                }
+                remove(key.userId(), key.variantId());
+            } finally {
+                lock.unlock();
+            }
+            dirty.add(key);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.flush-ms:2000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        Set<HoldKey> batch = new HashSet<>(dirty);
+        dirty.removeAll(batch);
+
+        List<Reservation> upserts = new ArrayList<>();
+        List<Reservation> deletes = new ArrayList<>();
+        for (HoldKey key : batch) {
+            Map<Long, Hold> holds = holdsByVariant.get(key.variantId());
+            Hold hold = holds != null ? holds.get(key.userId()) : null;
+            if (hold != null) {
+                upserts.add(new Reservation(key.userId(), key.variantId(), hold.quantity(), toDateTime(hold.expiresAtMillis())));
+            } else {
+                deletes.add(new Reservation(key.userId(), key.variantId(), 0, null));
+            }
+        }
+
+        try {
+            stockReservationRepository.upsertAll(upserts);
+            stockReservationRepository.deleteAll(deletes);
+        } catch (RuntimeException e) {
+            // Keep the keys for the next attempt; the ledger itself stays authoritative
+            dirty.addAll(batch);
+            log.warn("Failed to write {} reservation changes, will retry: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void releaseNow(Long userId, Long variantId) {
+        ReentrantLock lock = stripe(variantId);
+        lock.lock();
+        try {
+            remove(userId, variantId);
+        } finally {
+            lock.unlock();
+        }
+        dirty.add(new HoldKey(userId, variantId));
+    }
+
+    private void releaseAllNow(Long userId) {
+        Set<Long> variantIds = variantsByUser.get(userId);
+        if (variantIds != null) {
+            new ArrayList<>(variantIds).forEach(variantId -> releaseNow(userId, variantId));
+        }
+    }
+
+    // Undo a hold whose transaction rolled back
+    private void restore(HoldKey key, Hold previous) {
+        ReentrantLock lock = stripe(key.variantId());
+        lock.lock();
+        try {
+            if (previous != null) {
+                put(key.userId(), key.variantId(), previous);
+            } else {
+                remove(key.userId(), key.variantId());
+            }
+        } finally {
+            lock.unlock();
+        }
+        dirty.add(key);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Caller holds the variant's stripe; returns the hold it replaced
+    private Hold put(Long userId, Long variantId, Hold hold) {
+        Hold previous = holdsByVariant.computeIfAbsent(variantId, id -> new ConcurrentHashMap<>()).put(userId, hold);
+        int delta = hold.quantity() - (previous != null ? previous.quantity() : 0);
+        heldByVariant.merge(variantId, delta, Integer::sum);
+        variantsByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(variantId);
+        return previous;
+    }
+
+    // Caller holds the variant's stripe
+    private void remove(Long userId, Long variantId) {
+        Map<Long, Hold> holds = holdsByVariant.get(variantId);
+        Hold removed = holds != null ? holds.remove(userId) : null;
+        if (removed == null) {
+            return;
+        }
+        if (holds.isEmpty()) {
+            holdsByVariant.remove(variantId);
+        }
+        heldByVariant.computeIfPresent(variantId, (id, held) -> held == removed.quantity() ? null : held - removed.quantity());
+        variantsByUser.computeIfPresent(userId, (id, variantIds) -> {
+            variantIds.remove(variantId);
+            return variantIds.isEmpty() ? null : variantIds;
+        });
+    }
+
+    private ReentrantLock stripe(Long variantId) {
+        return stripes[(int) Math.floorMod(variantId, (long) STRIPES)];
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Hold(int quantity, long expiresAtMillis) {
+    }
+
+    private record HoldKey(Long userId, Long variantId) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.fptu.group1.service.order;
+
+import java.math.BigDecimal;
+
+import com.fptu.group1.model.Cart;
+
+/**
+ * One cart line of a checkout, as it was when the checkout was accepted.
+ *
+ * @param cartId cart row the line was read from; it is removed when the order is placed
+ * @param unitPrice price the customer was shown when the checkout was submitted, or
+ *        null to charge the variant's price at the time the order is placed
+ */
+public record CheckoutLine(Long cartId, Long variantId, int quantity, BigDecimal unitPrice) {
+
+    public static CheckoutLine of(Cart cart, BigDecimal unitPrice) {
+        return new CheckoutLine(cart.getCartId(), cart.getVariantId(), cart.getQuantity(), unitPrice);
+    }
+}
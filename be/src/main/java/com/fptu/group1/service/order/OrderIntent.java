@@ -0,0 +1,97 @@
+package com.fptu.group1.service.order;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import com.fptu.group1.dto.request.CheckoutRequest;
+import com.fptu.group1.dto.response.CheckoutIntentResponse;
+import com.fptu.group1.dto.response.CheckoutResponse;
+
+/**
+ * A checkout accepted by {@link OrderPipeline} and waiting to be placed by a worker.
+ * It carries the cart lines and prices as they were when it was submitted, so the order
+ * is built from what the customer checked out even if the cart changes meanwhile.
+ * Status fields are written by the worker and read by polling requests.
+ */
+public class OrderIntent {
+
+    public enum Status {
+        QUEUED, PROCESSING, COMPLETED, FAILED
+    }
+
+    private final String intentId = UUID.randomUUID().toString();
+    private final Long userId;
+    private final CheckoutRequest request;
+    private final List<CheckoutLine> lines;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile CheckoutResponse response;
+    private volatile String error;
+    private volatile LocalDateTime updatedAt = createdAt;
+
+    OrderIntent(Long userId, CheckoutRequest request, List<CheckoutLine> lines) {
+        this.userId = userId;
+        this.request = request;
+        this.lines = List.copyOf(lines);
+    }
+
+    public String getIntentId() {
+        return intentId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public CheckoutRequest getRequest() {
+        return request;
+    }
+
+    public List<CheckoutLine> getLines() {
+        return lines;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    void markProcessing() {
+        update(Status.PROCESSING);
+    }
+
+    public void complete(CheckoutResponse response) {
+        this.response = response;
+        update(Status.COMPLETED);
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        update(Status.FAILED);
+    }
+
+    public CheckoutIntentResponse toResponse() {
+        return CheckoutIntentResponse.builder()
+                .intentId(intentId)
+                .status(status.name())
+                .order(response)
+                .error(error)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    private void update(Status status) {
+        this.updatedAt = LocalDateTime.now();
+        this.status = status;
+    }
+}
@@ -0,0 +1,148 @@
+package com.fptu.group1.service.order;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fptu.group1.common.exception.ServiceUnavailableException;
+import com.fptu.group1.dto.request.CheckoutRequest;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Queue of accepted checkouts and the workers that place them.
+ *
+ * A request thread only submits an intent and returns its ID. A fixed pool of
+ * {@code order-pipeline.workers} threads takes intents off a bounded queue, up to
+ * {@code order-pipeline.max-batch-size} at a time, and hands each batch to the handler
+ * given to {@link #start}, which places them in grouped transactions. Peak checkout
+ * load therefore waits in the queue instead of in the connection pool. A full queue
+ * rejects new checkouts immediately with 503 Service Unavailable.
+ *
+ * Intents are kept in memory only. The cart is not touched until an order commits, so
+ * a checkout lost in a restart can simply be submitted again. Finished intents stay
+ * queryable for {@code order-pipeline.retention-minutes}.
+ */
+@Slf4j
+@Component
+public class OrderPipeline {
+
+    // Suggested to clients turned away by a full queue
+    private static final int RETRY_AFTER_SECONDS = 5;
+
+    private final BlockingQueue<OrderIntent> queue;
+    private final Map<String, OrderIntent> intents = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+    private final int workerCount;
+    private final int maxBatchSize;
+    private final long retentionMinutes;
+
+    private volatile boolean running;
+
+    public OrderPipeline(@Value("${order-pipeline.workers:2}") int workerCount,
+            @Value("${order-pipeline.queue-capacity:5000}") int queueCapacity,
+            @Value("${order-pipeline.max-batch-size:50}") int maxBatchSize,
+            @Value("${order-pipeline.retention-minutes:30}") long retentionMinutes) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workerCount = workerCount;
+        this.maxBatchSize = maxBatchSize;
+        this.retentionMinutes = retentionMinutes;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "order-pipeline-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start the workers. Called once by the service that knows how to place orders.
+     */
+    public synchronized void start(Consumer<List<OrderIntent>> batchHandler) {
+        if (running) {
+            throw new IllegalStateException("Order pipeline already started");
+        }
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(() -> work(batchHandler));
+        }
+    }
+
+    /**
+     * @param lines the cart as it is now; the order is placed from these lines
+     * @throws ServiceUnavailableException when the queue is full
+     */
+    public OrderIntent submit(Long userId, CheckoutRequest request, List<CheckoutLine> lines) {
+        OrderIntent intent = new OrderIntent(userId, request, lines);
+        intents.put(intent.getIntentId(), intent);
+        if (!queue.offer(intent)) {
+            intents.remove(intent.getIntentId());
+            throw new ServiceUnavailableException("Too many checkouts right now, please try again", RETRY_AFTER_SECONDS);
+        }
+        return intent;
+    }
+
+    /**
+     * An intent of the given user; other users' intents are not visible.
+     */
+    public Optional<OrderIntent> find(Long userId, String intentId) {
+        return Optional.ofNullable(intents.get(intentId))
+                .filter(intent -> intent.getUserId().equals(userId));
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    @Scheduled(fixedDelayString = "${order-pipeline.purge-interval-ms:60000}")
+    public void purgeFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        intents.values().removeIf(intent -> intent.isFinished() && intent.getUpdatedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.shutdownNow();
+    }
+
+    private void work(Consumer<List<OrderIntent>> batchHandler) {
+        List<OrderIntent> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, maxBatchSize - 1);
+            batch.forEach(OrderIntent::markProcessing);
+            try {
+                batchHandler.accept(batch);
+            } catch (RuntimeException e) {
+                log.error("Order pipeline batch of {} failed", batch.size(), e);
+            }
+            for (OrderIntent intent : batch) {
+                if (!intent.isFinished()) {
+                    intent.fail("Checkout could not be processed, please try again");
+                }
+            }
+            batch.clear();
+        }
+    }
+}
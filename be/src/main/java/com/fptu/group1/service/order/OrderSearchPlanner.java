@@ -0,0 +1,134 @@
+package com.fptu.group1.service.order;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fptu.group1.dto.request.OrderSearchRequest;
+import com.fptu.group1.repository.OrderSearchRepository;
+import com.fptu.group1.repository.OrderSearchRepository.Statistics;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Picks the index a staff order search is driven by: the one whose filter is estimated
+ * to match the fewest orders. The other filters are then checked on the rows that
+ * index yields.
+ *
+ * Estimates come from table statistics loaded at startup and refreshed every
+ * {@code order-search.stats-refresh-ms}: orders per user on average, orders per status,
+ * and the share of the created_at span covered by a date range (assuming an even
+ * spread). The SKU filter is counted exactly, which is a single index seek. User and
+ * status indexes also seek on the date range, so their estimates are narrowed by it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderSearchPlanner {
+
+    public enum Driver {
+        USER(OrderSearchRepository.INDEX_USER),
+        STATUS(OrderSearchRepository.INDEX_STATUS),
+        SKU(null),
+        CREATED_AT(OrderSearchRepository.INDEX_CREATED_AT);
+
+        private final String index;
+
+        Driver(String index) {
+            this.index = index;
+        }
+
+        /**
+         * Orders index to hint, or null when the search starts from OrderDetails.
+         */
+        public String index() {
+            return index;
+        }
+    }
+
+    private final OrderSearchRepository orderSearchRepository;
+
+    private volatile Statistics statistics;
+
+    public Driver plan(OrderSearchRequest filter) {
+        Statistics stats = statistics();
+        double dateShare = dateShare(stats, filter);
+
+        Driver best = Driver.CREATED_AT;
+        double bestRows = stats.orders() * dateShare;
+
+        if (filter.getUserId() != null) {
+            double rows = (double) stats.orders() / Math.max(1, stats.distinctUsers()) * dateShare;
+            if (rows < bestRows) {
+                best = Driver.USER;
+                bestRows = rows;
+            }
+        }
+        if (filter.getStatusId() != null) {
+            double rows = stats.ordersByStatus().getOrDefault(filter.getStatusId(), 0L) * dateShare;
+            if (rows < bestRows) {
+                best = Driver.STATUS;
+                bestRows = rows;
+            }
+        }
+        if (filter.getSku() != null) {
+            double rows = orderSearchRepository.countLinesWithSku(filter.getSku());
+            if (rows < bestRows) {
+                best = Driver.SKU;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Load the statistics before the first search instead of during it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            refreshStatistics();
+        } catch (DataAccessException e) {
+            // The first search loads them instead
+            log.warn("Could not load order search statistics at startup: {}", e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order-search.stats-refresh-ms:600000}")
+    public void refreshStatistics() {
+        statistics = orderSearchRepository.loadStatistics();
+    }
+
+    private Statistics statistics() {
+        Statistics stats = statistics;
+        if (stats == null) {
+            stats = orderSearchRepository.loadStatistics();
+            statistics = stats;
+        }
+        return stats;
+    }
+
+    /**
+     * Share of all orders expected inside the filter's created_at range, between 0 and 1.
+     */
+    private static double dateShare(Statistics stats, OrderSearchRequest filter) {
+        if (!filter.hasCreatedRange() || stats.firstCreated() == null) {
+            return 1.0;
+        }
+        LocalDateTime first = stats.firstCreated();
+        LocalDateTime last = stats.lastCreated();
+        LocalDateTime from = filter.getCreatedFrom() != null && filter.getCreatedFrom().isAfter(first) ? filter.getCreatedFrom() : first;
+        LocalDateTime to = filter.getCreatedTo() != null && filter.getCreatedTo().isBefore(last) ? filter.getCreatedTo() : last;
+        long span = Duration.between(first, last).toSeconds();
+        if (span <= 0) {
+            return 1.0;
+        }
+        long covered = Math.max(0, Duration.between(from, to).toSeconds());
+        return Math.min(1.0, (double) covered / span);
+    }
+}
@@ -0,0 +1,91 @@
+package com.fptu.group1.service.order;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+
+import com.fptu.group1.common.exception.ResourceNotFoundException;
+import com.fptu.group1.model.OrderStatus;
+import com.fptu.group1.model.OrderStatus.OrderStatusName;
+import com.fptu.group1.repository.OrderStatusRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The OrderStatus table, loaded once at startup. It holds a handful of reference rows,
+ * so order lists and details resolve status names from here instead of lazy-loading
+ * {@code Order.status} once per order.
+ *
+ * Lookups of an unknown ID reload the table (at most once a minute), in case a status
+ * row was added while the application was running.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderStatusDictionary {
+
+    private static final long RELOAD_INTERVAL_MILLIS = 60_000;
+
+    private final OrderStatusRepository orderStatusRepository;
+
+    private volatile Snapshot snapshot;
+    private long lastLoadMillis;
+
+    @PostConstruct
+    void load() {
+        Map<Long, OrderStatusName> names = new HashMap<>();
+        Map<OrderStatusName, Long> ids = new EnumMap<>(OrderStatusName.class);
+        for (OrderStatus status : orderStatusRepository.findAll()) {
+            names.put(status.getStatusId(), status.getStatusName());
+            ids.put(status.getStatusName(), status.getStatusId());
+        }
+        snapshot = new Snapshot(Map.copyOf(names), Map.copyOf(ids));
+        lastLoadMillis = System.currentTimeMillis();
+    }
+
+    public Optional<OrderStatusName> find(Long statusId) {
+        if (statusId == null) {
+            return Optional.empty();
+        }
+        OrderStatusName name = snapshot.names().get(statusId);
+        if (name == null && reloadIfStale()) {
+            name = snapshot.names().get(statusId);
+        }
+        return Optional.ofNullable(name);
+    }
+
+    /**
+     * Status name for responses; "UNKNOWN" when the ID is not in the table.
+     */
+    public String nameOf(Long statusId) {
+        return find(statusId).map(OrderStatusName::name).orElse("UNKNOWN");
+    }
+
+    /**
+     * @throws ResourceNotFoundException when the table has no row for this status
+     */
+    public Long idOf(OrderStatusName statusName) {
+        Long statusId = snapshot.ids().get(statusName);
+        if (statusId == null && reloadIfStale()) {
+            statusId = snapshot.ids().get(statusName);
+        }
+        if (statusId == null) {
+            throw new ResourceNotFoundException("Order status not found: " + statusName);
+        }
+        return statusId;
+    }
+
+    private synchronized boolean reloadIfStale() {
+        if (System.currentTimeMillis() - lastLoadMillis < RELOAD_INTERVAL_MILLIS) {
+            return false;
+        }
+        load();
+        return true;
+    }
+
+    private record Snapshot(Map<Long, OrderStatusName> names, Map<OrderStatusName, Long> ids) {
+    }
+}
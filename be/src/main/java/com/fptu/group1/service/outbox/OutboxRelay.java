@@ -0,0 +1,186 @@
+package com.fptu.group1.service.outbox;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fptu.group1.common.event.OutboxMessage;
+import com.fptu.group1.repository.OutboxEventRepository;
+import com.fptu.group1.repository.OutboxEventRepository.PendingEvent;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Delivers outbox events to in-process listeners.
+ *
+ * A single relay thread reads up to {@code outbox.relay.batch-size} pending events in
+ * insertion order and publishes each as an {@link OutboxMessage}. Listeners run
+ * synchronously on the relay thread and should be plain {@code @EventListener}s (there
+ * is no transaction to wait for). Events that were delivered are marked processed in
+ * one batch. If a listener throws, the event is retried after an exponential backoff
+ * (starting at {@code outbox.relay.backoff-ms}, capped at {@code outbox.relay.max-backoff-ms})
+ * and the later events of the same aggregate are held back with it, so each aggregate is
+ * seen in order. Held-back aggregates are left out of the fetch, so they never take up
+ * the batch and other aggregates keep flowing. After {@code outbox.relay.max-attempts}
+ * failures the event is parked with its error.
+ *
+ * The thread wakes up when a transaction that wrote events commits, and polls every
+ * {@code outbox.relay.poll-ms} for anything else (e.g. events left from before a
+ * restart). A crash between delivery and marking means redelivery, never loss.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long pollMillis;
+    private final long retentionHours;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+
+    private final Object signal = new Object();
+    private boolean pending;
+    private volatile Thread relayThread;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, ApplicationEventPublisher eventPublisher,
+            @Value("${outbox.relay.batch-size:200}") int batchSize,
+            @Value("${outbox.relay.max-attempts:10}") int maxAttempts,
+            @Value("${outbox.relay.poll-ms:1000}") long pollMillis,
+            @Value("${outbox.retention-hours:72}") long retentionHours,
+            @Value("${outbox.relay.backoff-ms:1000}") long backoffMillis,
+            @Value("${outbox.relay.max-backoff-ms:300000}") long maxBackoffMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.pollMillis = pollMillis;
+        this.retentionHours = retentionHours;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * Start once every listener is registered.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread thread = new Thread(this::run, "outbox-relay");
+        thread.setDaemon(true);
+        relayThread = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Thread thread = relayThread;
+        relayThread = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    public void wakeUp() {
+        synchronized (signal) {
+            pending = true;
+            signal.notifyAll();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.purge-interval-ms:3600000}")
+    public void purgeProcessed() {
+        int purged = outboxEventRepository.purgeProcessedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (purged > 0) {
+            log.info("Purged {} processed outbox events", purged);
+        }
+    }
+
+    private void run() {
+        while (relayThread == Thread.currentThread()) {
+            try {
+                if (!relayBatch()) {
+                    awaitSignal();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.error("Outbox relay failed, retrying after the poll interval", e);
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void awaitSignal() throws InterruptedException {
+        synchronized (signal) {
+            if (!pending) {
+                signal.wait(pollMillis);
+            }
+            pending = false;
+        }
+    }
+
+    /**
+     * @return whether more events are likely waiting: the batch was full and made progress
+     */
+    private boolean relayBatch() {
+        List<PendingEvent> batch = outboxEventRepository.findPending(batchSize);
+        List<Long> delivered = new ArrayList<>(batch.size());
+        Set<String> heldBack = new HashSet<>();
+
+        for (PendingEvent event : batch) {
+            OutboxMessage message = event.message();
+            String aggregate = message.aggregateType() + ":" + message.aggregateId();
+            if (heldBack.contains(aggregate)) {
+                continue;
+            }
+            try {
+                eventPublisher.publishEvent(message);
+                delivered.add(message.eventId());
+            } catch (RuntimeException e) {
+                if (event.attempts() + 1 >= maxAttempts) {
+                    log.error("Giving up on outbox event {} ({} {}) after {} attempts",
+                            message.eventId(), message.eventType(), aggregate, maxAttempts, e);
+                    outboxEventRepository.giveUp(message.eventId(), e.toString());
+                } else {
+                    long delayMillis = backoff(event.attempts());
+                    log.warn("Outbox event {} ({} {}) failed, will retry in {}ms: {}",
+                            message.eventId(), message.eventType(), aggregate, delayMillis, e.toString());
+                    outboxEventRepository.recordFailure(message.eventId(), e.toString(),
+                            LocalDateTime.now().plus(delayMillis, ChronoUnit.MILLIS));
+                    heldBack.add(aggregate);
+                }
+            }
+        }
+
+        if (!delivered.isEmpty()) {
+            outboxEventRepository.markProcessed(delivered);
+        }
+        return batch.size() == batchSize && !delivered.isEmpty();
+    }
+
+    /**
+     * Delay before the next attempt of an event that has already failed {@code attempts}
+     * times: doubles with every failure, up to the configured maximum.
+     */
+    private long backoff(int attempts) {
+        int doublings = Math.min(attempts, 30);
+        return Math.min(backoffMillis << doublings, maxBackoffMillis);
+    }
+}
@@ -0,0 +1,86 @@
+package com.fptu.group1.service.outbox;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fptu.group1.repository.OutboxEventRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Records domain events in the outbox as part of the current transaction. If the
+ * transaction rolls back, the event is gone with it; once it commits, the relay is
+ * woken up to deliver it.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    public static final String AGGREGATE_ORDER = "Order";
+    public static final String AGGREGATE_PRODUCT = "Product";
+
+    public static final String ORDER_PLACED = "OrderPlaced";
+    public static final String ORDER_STATUS_CHANGED = "OrderStatusChanged";
+    public static final String PRODUCT_CREATED = "ProductCreated";
+    public static final String PRODUCT_UPDATED = "ProductUpdated";
+    public static final String PRODUCT_DELETED = "ProductDeleted";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxRelay outboxRelay;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param payload serialized to JSON
+     * @throws IllegalStateException when called outside a transaction
+     */
+    public void append(String aggregateType, Long aggregateId, String eventType, Object payload) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox event " + eventType + " must be written inside the transaction of its change");
+        }
+        outboxEventRepository.append(aggregateType, aggregateId, eventType, serialize(eventType, payload));
+        wakeRelayAfterCommit();
+    }
+
+    /**
+     * Append the same kind of event for many aggregates in one batch, e.g. for a bulk
+     * import.
+     *
+     * @param payloads payload by aggregate ID, each serialized to JSON
+     * @throws IllegalStateException when called outside a transaction
+     */
+    public void appendAll(String aggregateType, String eventType, Map<Long, ?> payloads) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox event " + eventType + " must be written inside the transaction of its change");
+        }
+        if (payloads.isEmpty()) {
+            return;
+        }
+        Map<Long, String> json = new LinkedHashMap<>();
+        payloads.forEach((aggregateId, payload) -> json.put(aggregateId, serialize(eventType, payload)));
+        outboxEventRepository.appendAll(aggregateType, eventType, json);
+        wakeRelayAfterCommit();
+    }
+
+    private String serialize(String eventType, Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox event " + eventType, e);
+        }
+    }
+
+    private void wakeRelayAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxRelay.wakeUp();
+            }
+        });
+    }
+}
@@ -0,0 +1,582 @@
+package com.fptu.group1.service.search;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import com.fptu.group1.common.event.CategoryChangedEvent;
+import com.fptu.group1.common.event.ProductChangedEvent;
+import com.fptu.group1.dto.request.ProductFilterRequest;
+import com.fptu.group1.dto.response.FacetCountResponse;
+import com.fptu.group1.dto.response.ProductFacetsResponse;
+import com.fptu.group1.model.Brand;
+import com.fptu.group1.model.Category;
+import com.fptu.group1.model.Product;
+import com.fptu.group1.model.ProductSpecification;
+import com.fptu.group1.repository.BrandRepository;
+import com.fptu.group1.repository.CategoryRepository;
+import com.fptu.group1.repository.ProductRepository;
+import com.fptu.group1.repository.ProductSpecificationRepository;
+import com.fptu.group1.service.category.CategoryTreeHolder;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory facet postings for the public catalog.
+ *
+ * Every brand, category, price bucket and specification value keeps a bitset of the
+ * active products carrying it (bit index = product ID), so filtering and counting are
+ * bitwise AND/OR plus cardinality instead of GROUP BY queries. Counts are disjunctive:
+ * a facet is counted with every other filter applied but not its own, so selecting one
+ * brand still shows how many products the other brands would give. Category counts
+ * include the products of subcategories, the same way the category filter matches them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductFacetIndex {
+
+    private static final String BRAND_FACET = "brand";
+    private static final String CATEGORY_FACET = "category";
+    private static final String PRICE_FACET = "price";
+    private static final String SPEC_FACET_PREFIX = "spec:";
+
+    private final ProductRepository productRepository;
+    private final BrandRepository brandRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductSpecificationRepository productSpecificationRepository;
+    private final CategoryTreeHolder categoryTreeHolder;
+
+    // Upper bounds of the price buckets, ascending; the last bucket is open-ended
+    @Value("${catalog.facet.price-buckets:5000000,10000000,20000000,30000000}")
+    private BigDecimal[] priceBucketBounds;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private BitSet live = new BitSet();
+    private Map<Integer, FacetDocument> documents = new HashMap<>();
+    private Map<Long, BitSet> byBrand = new HashMap<>();
+    private Map<Long, BitSet> byCategory = new HashMap<>();
+    private Map<Integer, BitSet> byPriceBucket = new HashMap<>();
+    private PriceIndex prices = PriceIndex.of(List.of());
+    // normalized spec key -> normalized spec value -> products
+    private Map<String, Map<String, BitSet>> bySpecification = new HashMap<>();
+    // normalized spec key/value -> label as first seen
+    private Map<String, String> specificationLabels = new HashMap<>();
+    private Map<Long, String> brandNames = new HashMap<>();
+    private Map<Long, String> categoryNames = new HashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        long startTime = System.currentTimeMillis();
+        Arrays.sort(priceBucketBounds);
+
+        List<Product> products = productRepository.findByIsDeletedFalse();
+        Map<Long, List<ProductSpecification>> specsByProduct = productSpecificationRepository.findAll().stream()
+                .collect(Collectors.groupingBy(ProductSpecification::getProductId));
+        Map<Long, String> newBrandNames = brandRepository.findAll().stream()
+                .collect(Collectors.toMap(Brand::getBrandId, Brand::getName));
+        Map<Long, String> newCategoryNames = categoryRepository.findAll().stream()
+                .collect(Collectors.toMap(Category::getCategoryId, Category::getName));
+
+        lock.writeLock().lock();
+        try {
+            live = new BitSet();
+            documents = new HashMap<>();
+            byBrand = new HashMap<>();
+            byCategory = new HashMap<>();
+            byPriceBucket = new HashMap<>();
+            bySpecification = new HashMap<>();
+            specificationLabels = new HashMap<>();
+            brandNames = newBrandNames;
+            categoryNames = newCategoryNames;
+            for (Product product : products) {
+                addDocument(toDocument(product, specsByProduct.getOrDefault(product.getProductId(), Collections.emptyList())));
+            }
+            prices = PriceIndex.of(documents.values());
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Product facet index built: {} products, {} brands, {} categories, {} spec keys in {}ms",
+                products.size(), byBrand.size(), byCategory.size(), bySpecification.size(),
+                System.currentTimeMillis() - startTime);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.productIds().size() == 1) {
+            reindex(event.productIds().iterator().next());
+        } else {
+            reindex(event.productIds());
+        }
+    }
+
+    /**
+     * Category counts roll up to parents that may have no products of their own, so
+     * their labels are kept current here rather than only when a product is reindexed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        Optional<Category> category = categoryRepository.findById(event.categoryId());
+
+        lock.writeLock().lock();
+        try {
+            if (category.isPresent()) {
+                categoryNames.put(event.categoryId(), category.get().getName());
+            } else {
+                categoryNames.remove(event.categoryId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-read one product and replace its postings; removes it when deleted.
+     */
+    public void reindex(Long productId) {
+        Optional<Product> product = productRepository.findActiveById(productId);
+        FacetDocument document = product
+                .map(p -> toDocument(p, productSpecificationRepository.findByProductId(productId)))
+                .orElse(null);
+        Brand brand = product.map(Product::getBrandId).flatMap(brandRepository::findById).orElse(null);
+        Category category = product.map(Product::getCategoryId).flatMap(categoryRepository::findById).orElse(null);
+
+        lock.writeLock().lock();
+        try {
+            replaceDocument(productId, document);
+            // Names may have been created after the last rebuild
+            if (brand != null) {
+                brandNames.put(brand.getBrandId(), brand.getName());
+            }
+            if (category != null) {
+                categoryNames.put(category.getCategoryId(), category.getName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-read many products at once (e.g. an import chunk) with one set-based query per
+     * table and replace their postings under one write lock; removes the deleted ones.
+     */
+    public void reindex(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Product> products = productRepository.findActiveByIdIn(productIds);
+        Map<Long, List<ProductSpecification>> specsByProduct = products.isEmpty()
+                ? Collections.emptyMap()
+                : productSpecificationRepository.findByProductIdIn(products.stream()
+                                .map(Product::getProductId)
+                                .collect(Collectors.toList()))
+                        .stream()
+                        .collect(Collectors.groupingBy(ProductSpecification::getProductId));
+        Map<Long, FacetDocument> updated = products.stream()
+                .collect(Collectors.toMap(Product::getProductId, product -> toDocument(product,
+                        specsByProduct.getOrDefault(product.getProductId(), Collections.emptyList()))));
+        List<Brand> brands = brandRepository.findAllById(products.stream()
+                .map(Product::getBrandId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        List<Category> categories = categoryRepository.findAllById(products.stream()
+                .map(Product::getCategoryId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+        lock.writeLock().lock();
+        try {
+            for (Long productId : productIds) {
+                replaceDocument(productId, updated.get(productId));
+            }
+            brands.forEach(brand -> brandNames.put(brand.getBrandId(), brand.getName()));
+            categories.forEach(category -> categoryNames.put(category.getCategoryId(), category.getName()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Active products matching every attribute filter of the request (the keyword is
+     * not evaluated here).
+     */
+    public BitSet filter(ProductFilterRequest filter) {
+        lock.readLock().lock();
+        try {
+            return mask(filter, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Facet counts for the request. When {@code scope} is given (e.g. keyword hits),
+     * only those products are counted.
+     */
+    public ProductFacetsResponse facets(ProductFilterRequest filter, Collection<Long> scope) {
+        lock.readLock().lock();
+        try {
+            BitSet scopeBits = null;
+            if (scope != null) {
+                scopeBits = new BitSet();
+                for (Long productId : scope) {
+                    scopeBits.set(Math.toIntExact(productId));
+                }
+            }
+
+            ProductFacetsResponse response = ProductFacetsResponse.builder()
+                    .brands(toFacetCounts(countIds(byBrand, restrict(mask(filter, BRAND_FACET), scopeBits)), brandNames))
+                    .categories(toFacetCounts(categoryTreeHolder.current()
+                            .rollUp(countIds(byCategory, restrict(mask(filter, CATEGORY_FACET), scopeBits))), categoryNames))
+                    .priceBuckets(countPriceBuckets(restrict(mask(filter, PRICE_FACET), scopeBits)))
+                    .build();
+
+            for (String requestedKey : filter.getFacetSpecKeys()) {
+                String key = normalize(requestedKey);
+                BitSet base = restrict(mask(filter, SPEC_FACET_PREFIX + key), scopeBits);
+                response.getSpecifications().put(requestedKey, countSpecificationValues(key, base));
+            }
+            return response;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet mask(ProductFilterRequest filter, String excludedFacet) {
+        BitSet result = (BitSet) live.clone();
+        if (!BRAND_FACET.equals(excludedFacet) && !filter.getBrandIds().isEmpty()) {
+            result.and(union(byBrand, filter.getBrandIds()));
+        }
+        if (!CATEGORY_FACET.equals(excludedFacet) && !filter.getCategoryIds().isEmpty()) {
+            result.and(union(byCategory, filter.getCategoryIds()));
+        }
+        if (!PRICE_FACET.equals(excludedFacet) && (filter.getMinPrice() != null || filter.getMaxPrice() != null)) {
+            result.and(prices.range(filter.getMinPrice(), filter.getMaxPrice()));
+        }
+        for (Map.Entry<String, Set<String>> entry : filter.getSpecifications().entrySet()) {
+            String key = normalize(entry.getKey());
+            if ((SPEC_FACET_PREFIX + key).equals(excludedFacet) || entry.getValue().isEmpty()) {
+                continue;
+            }
+            Map<String, BitSet> values = bySpecification.getOrDefault(key, Collections.emptyMap());
+            result.and(union(values, entry.getValue().stream().map(ProductFacetIndex::normalize).collect(Collectors.toSet())));
+        }
+        return result;
+    }
+
+    private static Map<Long, Integer> countIds(Map<Long, BitSet> postings, BitSet base) {
+        Map<Long, Integer> counts = new HashMap<>();
+        postings.forEach((id, bits) -> {
+            int count = intersectionSize(bits, base);
+            if (count > 0) {
+                counts.put(id, count);
+            }
+        });
+        return counts;
+    }
+
+    private static List<FacetCountResponse> toFacetCounts(Map<Long, Integer> countsById, Map<Long, String> names) {
+        List<FacetCountResponse> counts = new ArrayList<>();
+        countsById.forEach((id, count) -> counts.add(FacetCountResponse.builder()
+                .value(String.valueOf(id))
+                .label(names.get(id))
+                .count(count)
+                .build()));
+        counts.sort(Comparator.comparingLong(FacetCountResponse::getCount).reversed()
+                .thenComparing(FacetCountResponse::getLabel, Comparator.nullsLast(Comparator.naturalOrder())));
+        return counts;
+    }
+
+    private List<FacetCountResponse> countPriceBuckets(BitSet base) {
+        NumberFormat format = NumberFormat.getIntegerInstance(Locale.US);
+        List<FacetCountResponse> counts = new ArrayList<>();
+        for (int bucket = 0; bucket <= priceBucketBounds.length; bucket++) {
+            BigDecimal from = bucket == 0 ? null : priceBucketBounds[bucket - 1];
+            BigDecimal to = bucket == priceBucketBounds.length ? null : priceBucketBounds[bucket];
+            String label;
+            if (from == null) {
+                label = "Under " + format.format(to);
+            } else if (to == null) {
+                label = "From " + format.format(from);
+            } else {
+                label = format.format(from) + " - " + format.format(to);
+            }
+            counts.add(FacetCountResponse.builder()
+                    .value((from != null ? from.toPlainString() : "") + "-" + (to != null ? to.toPlainString() : ""))
+                    .label(label)
+                    .count(intersectionSize(byPriceBucket.get(bucket), base))
+                    .build());
+        }
+        return counts;
+    }
+
+    private List<FacetCountResponse> countSpecificationValues(String key, BitSet base) {
+        List<FacetCountResponse> counts = new ArrayList<>();
+        bySpecification.getOrDefault(key, Collections.emptyMap()).forEach((value, bits) -> {
+            int count = intersectionSize(bits, base);
+            if (count > 0) {
+                String label = specificationLabels.get(key + '\u0000' + value);
+                counts.add(FacetCountResponse.builder()
+                        .value(label)
+                        .label(label)
+                        .count(count)
+                        .build());
+            }
+        });
+        counts.sort(Comparator.comparingLong(FacetCountResponse::getCount).reversed()
+                .thenComparing(FacetCountResponse::getLabel));
+        return counts;
+    }
+
+    private void addDocument(FacetDocument document) {
+        int ordinal = document.ordinal();
+        documents.put(ordinal, document);
+        live.set(ordinal);
+        if (document.brandId() != null) {
+            byBrand.computeIfAbsent(document.brandId(), id -> new BitSet()).set(ordinal);
+        }
+        if (document.categoryId() != null) {
+            byCategory.computeIfAbsent(document.categoryId(), id -> new BitSet()).set(ordinal);
+        }
+        if (document.price() != null) {
+            byPriceBucket.computeIfAbsent(priceBucket(document.price()), bucket -> new BitSet()).set(ordinal);
+        }
+        for (Map.Entry<String, Map<String, String>> key : document.specifications().entrySet()) {
+            Map<String, BitSet> values = bySpecification.computeIfAbsent(key.getKey(), k -> new HashMap<>());
+            key.getValue().forEach((value, label) -> {
+                values.computeIfAbsent(value, v -> new BitSet()).set(ordinal);
+                specificationLabels.putIfAbsent(key.getKey() + '\u0000' + value, label);
+            });
+        }
+    }
+
+    // Caller holds the write lock; a null document only removes the product
+    private void replaceDocument(Long productId, FacetDocument document) {
+        FacetDocument removed = removeDocument(Math.toIntExact(productId));
+        if (removed != null && removed.price() != null) {
+            prices.remove(removed.price(), removed.ordinal());
+        }
+        if (document != null) {
+            addDocument(document);
+            if (document.price() != null) {
+                prices.add(document.price(), document.ordinal());
+            }
+        }
+    }
+
+    private FacetDocument removeDocument(int ordinal) {
+        FacetDocument existing = documents.remove(ordinal);
+        if (existing == null) {
+            return null;
+        }
+        live.clear(ordinal);
+        clear(byBrand, existing.brandId(), ordinal);
+        clear(byCategory, existing.categoryId(), ordinal);
+        if (existing.price() != null) {
+            clear(byPriceBucket, priceBucket(existing.price()), ordinal);
+        }
+        for (Map.Entry<String, Map<String, String>> key : existing.specifications().entrySet()) {
+            Map<String, BitSet> values = bySpecification.get(key.getKey());
+            if (values == null) {
+                continue;
+            }
+            for (String value : key.getValue().keySet()) {
+                clear(values, value, ordinal);
+                if (!values.containsKey(value)) {
+                    // No product has this value any more
+                    specificationLabels.remove(key.getKey() + '\u0000' + value);
+                }
+            }
+            if (values.isEmpty()) {
+                bySpecification.remove(key.getKey());
+            }
+        }
+        return existing;
+    }
+
+    private int priceBucket(BigDecimal price) {
+        int bucket = 0;
+        while (bucket < priceBucketBounds.length && price.compareTo(priceBucketBounds[bucket]) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static <K> void clear(Map<K, BitSet> postings, K key, int ordinal) {
+        if (key == null) {
+            return;
+        }
+        BitSet bits = postings.get(key);
+        if (bits != null) {
+            bits.clear(ordinal);
+            if (bits.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static <K> BitSet union(Map<K, BitSet> postings, Collection<K> keys) {
+        BitSet result = new BitSet();
+        for (K key : keys) {
+            BitSet bits = postings.get(key);
+            if (bits != null) {
+                result.or(bits);
+            }
+        }
+        return result;
+    }
+
+    private static BitSet restrict(BitSet bits, BitSet scope) {
+        if (scope != null) {
+            bits.and(scope);
+        }
+        return bits;
+    }
+
+    private static int intersectionSize(BitSet bits, BitSet base) {
+        if (bits == null) {
+            return 0;
+        }
+        BitSet intersection = (BitSet) bits.clone();
+        intersection.and(base);
+        return intersection.cardinality();
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static FacetDocument toDocument(Product product, List<ProductSpecification> specifications) {
+        Map<String, Map<String, String>> specs = new LinkedHashMap<>();
+        for (ProductSpecification specification : specifications) {
+            if (!StringUtils.hasText(specification.getSpecKey()) || !StringUtils.hasText(specification.getSpecValue())) {
+                continue;
+            }
+            specs.computeIfAbsent(normalize(specification.getSpecKey()), key -> new LinkedHashMap<>())
+                    .putIfAbsent(normalize(specification.getSpecValue()), specification.getSpecValue().trim());
+        }
+        // Rows not yet backfilled by the price range migration fall back to the default price
+        BigDecimal price = product.getMinPrice() != null ? product.getMinPrice() : product.getDefaultPrice();
+        return new FacetDocument(Math.toIntExact(product.getProductId()), product.getBrandId(), product.getCategoryId(), price, specs);
+    }
+
+    /**
+     * Products ordered by price, so a price range is two binary searches and a slice
+     * instead of a pass over every document. Kept sorted on every change.
+     */
+    private static final class PriceIndex {
+
+        private BigDecimal[] prices;
+        private int[] ordinals;
+        private int size;
+
+        private PriceIndex(BigDecimal[] prices, int[] ordinals, int size) {
+            this.prices = prices;
+            this.ordinals = ordinals;
+            this.size = size;
+        }
+
+        static PriceIndex of(Collection<FacetDocument> documents) {
+            List<FacetDocument> priced = documents.stream()
+                    .filter(document -> document.price() != null)
+                    .sorted(Comparator.comparing(FacetDocument::price).thenComparingInt(FacetDocument::ordinal))
+                    .collect(Collectors.toList());
+            BigDecimal[] prices = new BigDecimal[Math.max(16, priced.size())];
+            int[] ordinals = new int[prices.length];
+            for (int i = 0; i < priced.size(); i++) {
+                prices[i] = priced.get(i).price();
+                ordinals[i] = priced.get(i).ordinal();
+            }
+            return new PriceIndex(prices, ordinals, priced.size());
+        }
+
+        /**
+         * Products priced from {@code minPrice} (inclusive) to {@code maxPrice} (exclusive);
+         * either bound may be null.
+         */
+        BitSet range(BigDecimal minPrice, BigDecimal maxPrice) {
+            int from = minPrice != null ? firstAtLeast(minPrice, Integer.MIN_VALUE) : 0;
+            int to = maxPrice != null ? firstAtLeast(maxPrice, Integer.MIN_VALUE) : size;
+            BitSet result = new BitSet();
+            for (int i = from; i < to; i++) {
+                result.set(ordinals[i]);
+            }
+            return result;
+        }
+
+        void add(BigDecimal price, int ordinal) {
+            if (size == prices.length) {
+                prices = Arrays.copyOf(prices, size * 2);
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            int position = firstAtLeast(price, ordinal);
+            System.arraycopy(prices, position, prices, position + 1, size - position);
+            System.arraycopy(ordinals, position, ordinals, position + 1, size - position);
+            prices[position] = price;
+            ordinals[position] = ordinal;
+            size++;
+        }
+
+        void remove(BigDecimal price, int ordinal) {
+            int position = firstAtLeast(price, ordinal);
+            if (position == size || ordinals[position] != ordinal) {
+                return;
+            }
+            System.arraycopy(prices, position + 1, prices, position, size - position - 1);
+            System.arraycopy(ordinals, position + 1, ordinals, position, size - position - 1);
+            size--;
+            prices[size] = null;
+        }
+
+        // First position whose (price, ordinal) is not below the given pair
+        private int firstAtLeast(BigDecimal price, int ordinal) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int comparison = prices[middle].compareTo(price);
+                if (comparison < 0 || (comparison == 0 && ordinals[middle] < ordinal)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    // specifications: normalized key -> normalized value -> display label
+    private record FacetDocument(int ordinal, Long brandId, Long categoryId, BigDecimal price,
+            Map<String, Map<String, String>> specifications) {
+    }
+}
@@ -0,0 +1,342 @@
+package com.fptu.group1.service.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fptu.group1.common.constant.CommonConst;
+import com.fptu.group1.common.event.CategoryChangedEvent;
+import com.fptu.group1.common.event.ProductChangedEvent;
+import com.fptu.group1.common.helper.StringHelper;
+import com.fptu.group1.model.Brand;
+import com.fptu.group1.model.Category;
+import com.fptu.group1.model.Product;
+import com.fptu.group1.model.ProductSpecification;
+import com.fptu.group1.repository.BrandRepository;
+import com.fptu.group1.repository.CategoryRepository;
+import com.fptu.group1.repository.ProductRepository;
+import com.fptu.group1.repository.ProductSpecificationRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory inverted index over active products, replacing LIKE '%keyword%' scans.
+ *
+ * Indexes name, slug, short description, brand, category and specification key/values
+ * as diacritic-folded tokens. A query matches products containing every query token
+ * (whole word or prefix) and is ranked by field weight and term rarity. Built once at
+ * startup and updated after admin writes commit, in bulk when a write (e.g. an import
+ * chunk) touched many products; renaming a category reindexes the products filed under it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    // A hit in the name counts more than one in a specification value
+    private static final float NAME_WEIGHT = 4f;
+    private static final float SLUG_WEIGHT = 2f;
+    private static final float BRAND_WEIGHT = 2f;
+    private static final float CATEGORY_WEIGHT = 1.5f;
+    private static final float SHORT_DESCRIPTION_WEIGHT = 1f;
+    private static final float SPECIFICATION_WEIGHT = 1f;
+
+    // Prefix matches (search-as-you-type) rank below whole-word matches
+    private static final float PREFIX_MATCH_FACTOR = 0.5f;
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private final ProductRepository productRepository;
+    private final BrandRepository brandRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductSpecificationRepository productSpecificationRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (productId -> weight of the term in that product)
+    private NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private Map<Long, IndexedProduct> documents = new HashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        long startTime = System.currentTimeMillis();
+
+        List<Product> products = productRepository.findByIsDeletedFalse();
+        Map<Long, String> brandNames = brandRepository.findAll().stream()
+                .collect(Collectors.toMap(Brand::getBrandId, Brand::getName));
+        Map<Long, String> categoryNames = categoryRepository.findAll().stream()
+                .collect(Collectors.toMap(Category::getCategoryId, Category::getName));
+        Map<Long, List<ProductSpecification>> specsByProduct = productSpecificationRepository.findAll().stream()
+                .collect(Collectors.groupingBy(ProductSpecification::getProductId));
+
+        NavigableMap<String, Map<Long, Float>> newPostings = new TreeMap<>();
+        Map<Long, IndexedProduct> newDocuments = new HashMap<>();
+        for (Product product : products) {
+            IndexedProduct document = toDocument(product,
+                    brandNames.get(product.getBrandId()),
+                    categoryNames.get(product.getCategoryId()),
+                    specsByProduct.getOrDefault(product.getProductId(), Collections.emptyList()));
+            addDocument(newPostings, newDocuments, document);
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            documents = newDocuments;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Product search index built: {} products, {} terms in {}ms",
+                newDocuments.size(), newPostings.size(), System.currentTimeMillis() - startTime);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.productIds().size() == 1) {
+            reindex(event.productIds().iterator().next());
+        } else {
+            reindex(event.productIds());
+        }
+    }
+
+    /**
+     * The category name is indexed with every product filed under it, so a rename has to
+     * reach all of them. They are re-read in bulk and swapped in under one write lock.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.categoryId() == null) {
+            return;
+        }
+        List<Product> products = productRepository.findByCategoryIdAndIsDeletedFalse(event.categoryId());
+        replace(products.stream().map(Product::getProductId).collect(Collectors.toList()), products);
+        log.debug("Reindexed {} products of category {}", products.size(), event.categoryId());
+    }
+
+    /**
+     * Re-read many products at once (e.g. an import chunk) and replace their entries
+     * under one write lock; removes the deleted ones.
+     */
+    public void reindex(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        replace(productIds, productRepository.findActiveByIdIn(productIds));
+    }
+
+    /**
+     * Re-read one product and replace its entry; removes it when deleted.
+     */
+    public void reindex(Long productId) {
+        Optional<Product> product = productRepository.findActiveById(productId);
+        IndexedProduct document = product
+                .map(p -> toDocument(p,
+                        p.getBrandId() != null ? brandRepository.findById(p.getBrandId()).map(Brand::getName).orElse(null) : null,
+                        p.getCategoryId() != null ? categoryRepository.findById(p.getCategoryId()).map(Category::getName).orElse(null) : null,
+                        productSpecificationRepository.findByProductId(productId)))
+                .orElse(null);
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+            if (document != null) {
+                addDocument(postings, documents, document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the entries of {@code productIds} with documents built from {@code products}
+     * (the ones still active). Brands, categories and specifications are read with one
+     * set-based query each.
+     */
+    private void replace(Collection<Long> productIds, List<Product> products) {
+        Map<Long, String> brandNames = brandRepository.findAllById(products.stream()
+                        .map(Product::getBrandId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Brand::getBrandId, Brand::getName));
+        Map<Long, String> categoryNames = categoryRepository.findAllById(products.stream()
+                        .map(Product::getCategoryId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Category::getCategoryId, Category::getName));
+        Map<Long, List<ProductSpecification>> specsByProduct = products.isEmpty()
+                ? Collections.emptyMap()
+                : productSpecificationRepository.findByProductIdIn(products.stream()
+                                .map(Product::getProductId)
+                                .collect(Collectors.toList()))
+                        .stream()
+                        .collect(Collectors.groupingBy(ProductSpecification::getProductId));
+
+        List<IndexedProduct> updated = products.stream()
+                .map(product -> toDocument(product, brandNames.get(product.getBrandId()),
+                        categoryNames.get(product.getCategoryId()),
+                        specsByProduct.getOrDefault(product.getProductId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+
+        lock.writeLock().lock();
+        try {
+            productIds.forEach(this::removeDocument);
+            for (IndexedProduct document : updated) {
+                addDocument(postings, documents, document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked search, paged over the matching product IDs (best match first).
+     */
+    public Page<Long> search(String query, Pageable pageable) {
+        List<Long> ranked = search(query);
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = Math.min(from + pageable.getPageSize(), ranked.size());
+        return new PageImpl<>(ranked.subList(from, to), pageable, ranked.size());
+    }
+
+    /**
+     * Product IDs matching every token of the query, best match first. Capped at
+     * {@link CommonConst#MAX_SEARCH_RESULTS}.
+     */
+    public List<Long> search(String query) {
+        return search(query, (BitSet) null);
+    }
+
+    /**
+     * Like {@link #search(String)}, restricted to the product IDs set in {@code allowed}
+     * (e.g. the facet filter). The restriction applies before the cap, so filtered
+     * searches do not lose matches ranked past it.
+     */
+    public List<Long> search(String query, BitSet allowed) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(StringHelper.tokenize(query)));
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String token : tokens) {
+                Map<Long, Float> tokenScores = matchToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((productId, score) -> score + tokenScores.get(productId));
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            if (allowed != null) {
+                scores.keySet().removeIf(productId -> !allowed.get(Math.toIntExact(productId)));
+            }
+
+            Comparator<Map.Entry<Long, Float>> byRelevance = Map.Entry.<Long, Float>comparingByValue().reversed();
+            return scores.entrySet().stream()
+                    .sorted(byRelevance.thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                    .limit(CommonConst.MAX_SEARCH_RESULTS)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Float> matchToken(String token) {
+        Map<String, Map<Long, Float>> matchingTerms;
+        if (token.length() >= MIN_PREFIX_LENGTH) {
+            matchingTerms = postings.subMap(token, true, token + Character.MAX_VALUE, false);
+        } else {
+            Map<Long, Float> exact = postings.get(token);
+            matchingTerms = exact != null ? Map.of(token, exact) : Collections.emptyMap();
+        }
+
+        Map<Long, Float> result = new HashMap<>();
+        matchingTerms.forEach((term, postingList) -> {
+            float factor = term.equals(token) ? 1f : PREFIX_MATCH_FACTOR;
+            float idf = (float) Math.log(1 + (double) documents.size() / postingList.size());
+            postingList.forEach((productId, weight) -> result.merge(productId, weight * idf * factor, Math::max));
+        });
+        return result;
+    }
+
+    private void removeDocument(Long productId) {
+        IndexedProduct existing = documents.remove(productId);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.termWeights().keySet()) {
+            Map<Long, Float> postingList = postings.get(term);
+            if (postingList != null) {
+                postingList.remove(productId);
+                if (postingList.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addDocument(NavigableMap<String, Map<Long, Float>> postings, Map<Long, IndexedProduct> documents,
+            IndexedProduct document) {
+        documents.put(document.productId(), document);
+        document.termWeights().forEach((term, weight) ->
+                postings.computeIfAbsent(term, t -> new HashMap<>()).put(document.productId(), weight));
+    }
+
+    private static IndexedProduct toDocument(Product product, String brandName, String categoryName,
+            List<ProductSpecification> specifications) {
+        Map<String, Float> termWeights = new HashMap<>();
+        addField(termWeights, product.getName(), NAME_WEIGHT);
+        addField(termWeights, product.getSlug(), SLUG_WEIGHT);
+        addField(termWeights, product.getShortDescription(), SHORT_DESCRIPTION_WEIGHT);
+        addField(termWeights, brandName, BRAND_WEIGHT);
+        addField(termWeights, categoryName, CATEGORY_WEIGHT);
+        for (ProductSpecification specification : specifications) {
+            addField(termWeights, specification.getSpecKey(), SPECIFICATION_WEIGHT);
+            addField(termWeights, specification.getSpecValue(), SPECIFICATION_WEIGHT);
+        }
+        return new IndexedProduct(product.getProductId(), termWeights);
+    }
+
+    private static void addField(Map<String, Float> termWeights, String text, float weight) {
+        // A term keeps the weight of the strongest field it appears in
+        StringHelper.tokenize(text).forEach(token -> termWeights.merge(token, weight, Math::max));
+    }
+
+    private record IndexedProduct(Long productId, Map<String, Float> termWeights) {
+    }
+}
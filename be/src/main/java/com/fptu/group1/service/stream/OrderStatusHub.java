@@ -0,0 +1,178 @@
+package com.fptu.group1.service.stream;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fptu.group1.common.event.OrderStatusChangedEvent;
+import com.fptu.group1.common.event.OutboxMessage;
+import com.fptu.group1.dto.response.OrderStatusEventResponse;
+import com.fptu.group1.repository.OutboxEventRepository;
+import com.fptu.group1.service.outbox.OutboxWriter;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes order status changes to Server-Sent Events subscribers: one order (staff), a
+ * customer's own orders, or every order (staff dashboards).
+ *
+ * Changes come from the outbox, so a subscriber only hears about a status once it is
+ * committed, and the SSE event ID is the outbox event ID. A client reconnecting with
+ * Last-Event-ID first gets the changes it missed, up to {@value #MAX_REPLAY_EVENTS},
+ * read back from the outbox.
+ *
+ * A connection joins its topic before its initial status or replay is read, so no
+ * change is lost in between, but it joins held: changes published during the read are
+ * kept back until the read events are queued, and those the replay already covered
+ * are dropped. The client thus sees event IDs in order and ends on the latest status.
+ */
+@Slf4j
+@Component
+public class OrderStatusHub {
+
+    public static final String EVENT_NAME = "order-status";
+
+    private static final String ALL_ORDERS = "all";
+
+    private static final int MAX_REPLAY_EVENTS = 100;
+
+    private final SseFanout<String> fanout;
+    private final ObjectMapper objectMapper;
+    private final OutboxEventRepository outboxEventRepository;
+
+    public OrderStatusHub(ObjectMapper objectMapper, OutboxEventRepository outboxEventRepository,
+            @Value("${order-stream.max-connections:10000}") int maxConnections,
+            @Value("${order-stream.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${order-stream.sender-threads:2}") int senderThreads,
+            @Value("${order-stream.max-pending-events:100}") int maxPendingEvents) {
+        this.objectMapper = objectMapper;
+        this.outboxEventRepository = outboxEventRepository;
+        this.fanout = new SseFanout<>("order-stream", maxConnections, timeoutMillis, senderThreads, maxPendingEvents);
+    }
+
+    /**
+     * Subscribe to one order. A new client gets the current status first, so it needs no
+     * initial fetch; a reconnecting one gets the changes after {@code lastEventId}.
+     *
+     * @param current reads the order's current status; may throw if there is no such order
+     */
+    public SseEmitter subscribeOrder(Long orderId, Long lastEventId, Supplier<OrderStatusEventResponse> current) {
+        SseEmitter emitter = fanout.subscribeHeld(List.of(orderTopic(orderId)));
+        try {
+            // Read even on reconnect, to reject an order that does not exist
+            OrderStatusEventResponse status = current.get();
+            if (lastEventId != null) {
+                replay(emitter, lastEventId, () -> outboxEventRepository.findPublishedAfter(
+                        OutboxWriter.ORDER_STATUS_CHANGED, OutboxWriter.AGGREGATE_ORDER, orderId, lastEventId,
+                        MAX_REPLAY_EVENTS));
+            } else {
+                // The status has no event ID, so every change held meanwhile follows it
+                fanout.sendTo(emitter, SseEmitter.event().name(EVENT_NAME).data(status));
+                fanout.release(emitter);
+            }
+        } catch (RuntimeException e) {
+            fanout.unsubscribe(emitter);
+            throw e;
+        }
+        return emitter;
+    }
+
+    public SseEmitter subscribeUser(Long userId, Long lastEventId) {
+        if (lastEventId == null) {
+            return fanout.subscribe(List.of(userTopic(userId)));
+        }
+        SseEmitter emitter = fanout.subscribeHeld(List.of(userTopic(userId)));
+        replay(emitter, lastEventId, () -> outboxEventRepository.findPublishedForUserOrdersAfter(
+                OutboxWriter.ORDER_STATUS_CHANGED, OutboxWriter.AGGREGATE_ORDER, userId, lastEventId, MAX_REPLAY_EVENTS));
+        return emitter;
+    }
+
+    public SseEmitter subscribeAll(Long lastEventId) {
+        if (lastEventId == null) {
+            return fanout.subscribe(List.of(ALL_ORDERS));
+        }
+        SseEmitter emitter = fanout.subscribeHeld(List.of(ALL_ORDERS));
+        replay(emitter, lastEventId, () -> outboxEventRepository.findPublishedAfter(
+                OutboxWriter.ORDER_STATUS_CHANGED, lastEventId, MAX_REPLAY_EVENTS));
+        return emitter;
+    }
+
+    /**
+     * Only queues the event on each connection; the writes happen on the fan-out's
+     * sender threads, so the outbox relay is not held up by slow clients.
+     */
+    @EventListener
+    public void onOutboxMessage(OutboxMessage message) throws JsonProcessingException {
+        if (!OutboxWriter.ORDER_STATUS_CHANGED.equals(message.eventType())) {
+            return;
+        }
+        OrderStatusChangedEvent changed = objectMapper.readValue(message.payload(), OrderStatusChangedEvent.class);
+        for (String topic : List.of(orderTopic(changed.orderId()), userTopic(changed.userId()), ALL_ORDERS)) {
+            fanout.publish(topic, message.eventId(), statusEvent(message, changed));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order-stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        fanout.heartbeat();
+    }
+
+    public int connections() {
+        return fanout.connections();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanout.shutdown();
+    }
+
+    /**
+     * Queue the missed changes on a held connection, then release the changes held
+     * meanwhile that the replay did not already include.
+     */
+    private void replay(SseEmitter emitter, long lastEventId, Supplier<List<OutboxMessage>> missed) {
+        try {
+            long lastSentId = lastEventId;
+            for (OutboxMessage message : missed.get()) {
+                fanout.sendTo(emitter, statusEvent(message,
+                        objectMapper.readValue(message.payload(), OrderStatusChangedEvent.class)));
+                lastSentId = Math.max(lastSentId, message.eventId());
+            }
+            fanout.release(emitter, lastSentId);
+        } catch (JsonProcessingException e) {
+            fanout.unsubscribe(emitter);
+            throw new IllegalStateException("Unreadable order status event in the outbox", e);
+        } catch (RuntimeException e) {
+            fanout.unsubscribe(emitter);
+            throw e;
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder statusEvent(OutboxMessage message, OrderStatusChangedEvent changed) {
+        return SseEmitter.event()
+                .id(String.valueOf(message.eventId()))
+                .name(EVENT_NAME)
+                .data(OrderStatusEventResponse.builder()
+                        .orderId(changed.orderId())
+                        .statusId(changed.statusId())
+                        .statusName(changed.statusName())
+                        .occurredAt(message.createdAt())
+                        .build());
+    }
+
+    private static String orderTopic(Long orderId) {
+        return "order:" + orderId;
+    }
+
+    private static String userTopic(Long userId) {
+        return "user:" + userId;
+    }
+}
@@ -0,0 +1,303 @@
+package com.fptu.group1.service.stream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import com.fptu.group1.common.exception.BadRequestException;
+
+/**
+ * Server-Sent Events connections grouped by topic.
+ *
+ * Connections are async servlet requests ({@link SseEmitter}), so an idle subscriber
+ * costs a map entry and an open socket, not a thread. Publishing only queues the event
+ * on each connection; a small pool of sender threads writes the queues out, one writer
+ * per connection at a time so events keep their order. A slow client therefore never
+ * holds up the publisher. A connection with more than {@code maxPendingEvents} unsent
+ * events is closed (the client reconnects, with Last-Event-ID where the stream has
+ * IDs), and one that fails a write, times out or is closed by the client is dropped
+ * from every topic it joined.
+ *
+ * A connection can join {@linkplain #subscribeHeld held}: it receives events published
+ * from then on, but keeps them back until {@link #release} is called, so the state sent
+ * to it first (a snapshot or replay) cannot be overtaken by newer live events.
+ */
+public class SseFanout<K> {
+
+    private final Map<K, Set<Connection>> subscribers = new ConcurrentHashMap<>();
+    private final Map<SseEmitter, Connection> connections = new ConcurrentHashMap<>();
+    private final int maxConnections;
+    private final long timeoutMillis;
+    private final int maxPendingEvents;
+
+    // At most one drain task per connection is queued, so the backlog is bounded by maxConnections
+    private final ExecutorService senders;
+
+    public SseFanout(String name, int maxConnections, long timeoutMillis, int senderThreads, int maxPendingEvents) {
+        this.maxConnections = maxConnections;
+        this.timeoutMillis = timeoutMillis;
+        this.maxPendingEvents = maxPendingEvents;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, name + "-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @throws BadRequestException when the connection limit is reached
+     */
+    public SseEmitter subscribe(Collection<K> topics) {
+        return subscribe(topics, false);
+    }
+
+    /**
+     * Like {@link #subscribe}, but events published to the topics are held back (and
+     * count towards the pending limit) until {@link #release}. Events sent with
+     * {@link #sendTo} are queued right away.
+     */
+    public SseEmitter subscribeHeld(Collection<K> topics) {
+        return subscribe(topics, true);
+    }
+
+    /**
+     * Queue the events held for a connection since it joined, and deliver later ones
+     * directly.
+     */
+    public void release(SseEmitter emitter) {
+        release(emitter, Long.MIN_VALUE);
+    }
+
+    /**
+     * Like {@link #release(SseEmitter)}, dropping held events with an ID up to
+     * {@code lastSentId}: the client already has them from what was sent in the meantime.
+     */
+    public void release(SseEmitter emitter, long lastSentId) {
+        Connection connection = connections.get(emitter);
+        if (connection != null) {
+            connection.release(lastSentId);
+        }
+    }
+
+    private SseEmitter subscribe(Collection<K> topics, boolean held) {
+        if (connections.size() >= maxConnections) {
+            throw new BadRequestException("Too many live connections, please try again later");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Connection connection = new Connection(emitter, Set.copyOf(topics), held);
+        connections.put(emitter, connection);
+        for (K topic : connection.topics) {
+            subscribers.compute(topic, (key, joined) -> {
+                Set<Connection> joinedConnections = joined != null ? joined : ConcurrentHashMap.newKeySet();
+                joinedConnections.add(connection);
+                return joinedConnections;
+            });
+        }
+
+        emitter.onCompletion(connection::remove);
+        emitter.onTimeout(connection::remove);
+        emitter.onError(error -> connection.remove());
+        return emitter;
+    }
+
+    /**
+     * Drop a connection that is not going to be handed to the client after all, e.g.
+     * because reading its initial state failed.
+     */
+    public void unsubscribe(SseEmitter emitter) {
+        Connection connection = connections.get(emitter);
+        if (connection != null) {
+            connection.remove();
+        }
+    }
+
+    public boolean hasSubscribers(K topic) {
+        return subscribers.containsKey(topic);
+    }
+
+    public Set<K> topics() {
+        return subscribers.keySet();
+    }
+
+    public void publish(K topic, SseEventBuilder event) {
+        publish(topic, Long.MAX_VALUE, event);
+    }
+
+    /**
+     * Publish an event carrying {@code eventId}, which {@link #release(SseEmitter, long)}
+     * compares to drop what a held connection was already sent.
+     */
+    public void publish(K topic, long eventId, SseEventBuilder event) {
+        Set<Connection> joined = subscribers.get(topic);
+        if (joined == null) {
+            return;
+        }
+        // Build once; the same frames go to every subscriber
+        Set<DataWithMediaType> frames = event.build();
+        for (Connection connection : joined) {
+            connection.publish(eventId, frames);
+        }
+    }
+
+    /**
+     * Send a single event to one connection, e.g. the current state right after it
+     * subscribed. It is queued behind anything already published to the connection.
+     */
+    public void sendTo(SseEmitter emitter, SseEventBuilder event) {
+        Connection connection = connections.get(emitter);
+        if (connection != null) {
+            connection.enqueue(event.build());
+        }
+    }
+
+    /**
+     * Write a comment line to every connection, so proxies keep idle streams open and
+     * dead clients are noticed.
+     */
+    public void heartbeat() {
+        Set<DataWithMediaType> frames = SseEmitter.event().comment("ping").build();
+        for (Connection connection : connections.values()) {
+            connection.enqueue(frames);
+        }
+    }
+
+    public int connections() {
+        return connections.size();
+    }
+
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    /**
+     * One subscriber and the events not yet written to it.
+     */
+    private final class Connection {
+
+        private final SseEmitter emitter;
+        private final Set<K> topics;
+        private final Queue<Set<DataWithMediaType>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        // Published events kept back until release; null once released (or never held)
+        private List<HeldEvent> held;
+
+        Connection(SseEmitter emitter, Set<K> topics, boolean held) {
+            this.emitter = emitter;
+            this.topics = topics;
+            this.held = held ? new ArrayList<>() : null;
+        }
+
+        void publish(long eventId, Set<DataWithMediaType> frames) {
+            synchronized (this) {
+                if (held != null) {
+                    if (pendingCount.incrementAndGet() > maxPendingEvents) {
+                        remove();
+                        emitter.complete();
+                    } else {
+                        held.add(new HeldEvent(eventId, frames));
+                    }
+                    return;
+                }
+            }
+            enqueue(frames);
+        }
+
+        synchronized void release(long lastSentId) {
+            if (held == null) {
+                return;
+            }
+            List<HeldEvent> events = held;
+            held = null;
+            for (HeldEvent event : events) {
+                pendingCount.decrementAndGet();
+                if (event.eventId() > lastSentId) {
+                    enqueue(event.frames());
+                }
+            }
+        }
+
+        void enqueue(Set<DataWithMediaType> frames) {
+            if (pendingCount.incrementAndGet() > maxPendingEvents) {
+                // Too far behind; better to let it reconnect than to buffer without limit
+                remove();
+                emitter.complete();
+                return;
+            }
+            pending.add(frames);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<DataWithMediaType> frames;
+                while ((frames = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    try {
+                        emitter.send(frames);
+                    } catch (IOException | IllegalStateException e) {
+                        // Client went away or the emitter already completed
+                        remove();
+                        emitter.completeWithError(e);
+                        return;
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            // An event may have been queued after the last poll but before the flag was cleared
+            if (!pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        void remove() {
+            if (connections.remove(emitter) == null) {
+                return;
+            }
+            pending.clear();
+            synchronized (this) {
+                held = null;
+            }
+            for (K topic : topics) {
+                subscribers.computeIfPresent(topic, (key, joined) -> {
+                    joined.remove(this);
+                    return joined.isEmpty() ? null : joined;
+                });
+            }
+        }
+    }
+
+    private record HeldEvent(long eventId, Set<DataWithMediaType> frames) {
+    }
+}
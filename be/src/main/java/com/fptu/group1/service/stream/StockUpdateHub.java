@@ -0,0 +1,177 @@
+package com.fptu.group1.service.stream;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fptu.group1.common.event.ProductChangedEvent;
+import com.fptu.group1.common.event.ProductStockChangedEvent;
+import com.fptu.group1.common.exception.BadRequestException;
+import com.fptu.group1.common.exception.ResourceNotFoundException;
+import com.fptu.group1.dto.response.VariantStockResponse;
+import com.fptu.group1.repository.ProductVariantRepository;
+import com.fptu.group1.repository.ProductVariantRepositoryCustom.VariantStock;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes stock levels of product variants to Server-Sent Events subscribers, so product
+ * pages do not re-fetch the whole detail to refresh stock.
+ *
+ * Stock-changing commits (checkout, flash-sale grants, product admin writes) only mark
+ * their products dirty. Every {@code stock-stream.coalesce-ms} the dirty products that
+ * have watched variants are re-read in one query, and a {@code stock} event is sent for
+ * each watched variant whose stock differs from the last value sent. A burst of orders
+ * for one variant thus costs one read and one small event per window.
+ */
+@Component
+public class StockUpdateHub {
+
+    public static final String EVENT_NAME = "stock";
+
+    private final ProductVariantRepository productVariantRepository;
+    private final SseFanout<Long> fanout;
+    private final int maxVariantsPerSubscription;
+
+    // Watched variant -> its product, to match product-level change events
+    private final Map<Long, Long> watchedProducts = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> lastSent = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyProducts = ConcurrentHashMap.newKeySet();
+
+    // Subscribers read and queue their snapshot under the read lock, the flush reads and
+    // publishes under the write lock, so the two cannot interleave
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    public StockUpdateHub(ProductVariantRepository productVariantRepository,
+            @Value("${stock-stream.max-connections:10000}") int maxConnections,
+            @Value("${stock-stream.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${stock-stream.max-variants-per-subscription:50}") int maxVariantsPerSubscription,
+            @Value("${stock-stream.sender-threads:2}") int senderThreads,
+            @Value("${stock-stream.max-pending-events:100}") int maxPendingEvents) {
+        this.productVariantRepository = productVariantRepository;
+        this.fanout = new SseFanout<>("stock-stream", maxConnections, timeoutMillis, senderThreads, maxPendingEvents);
+        this.maxVariantsPerSubscription = maxVariantsPerSubscription;
+    }
+
+    /**
+     * Subscribe to the stock of the given variants. Their current stock is sent first.
+     *
+     * The connection joins its topics before the stock is read, and no flush runs between
+     * the read and the snapshot being queued, so a change is either in the snapshot or
+     * published after it.
+     */
+    public SseEmitter subscribe(Set<Long> variantIds) {
+        if (variantIds.isEmpty() || variantIds.size() > maxVariantsPerSubscription) {
+            throw new BadRequestException("Subscribe to between 1 and " + maxVariantsPerSubscription + " variants");
+        }
+
+        SseEmitter emitter = fanout.subscribe(variantIds);
+        flushLock.readLock().lock();
+        try {
+            List<VariantStock> current = productVariantRepository.findStock(variantIds);
+            if (current.isEmpty()) {
+                throw new ResourceNotFoundException("No product variants found with IDs: " + variantIds);
+            }
+            for (VariantStock variant : current) {
+                watchedProducts.put(variant.variantId(), variant.productId());
+                fanout.sendTo(emitter, stockEvent(variant));
+                Integer previous = lastSent.putIfAbsent(variant.variantId(), variant.stock());
+                if (previous != null && !previous.equals(variant.stock())) {
+                    // Other subscribers may still hold the older value: make the next flush resend it to all
+                    lastSent.remove(variant.variantId());
+                    dirtyProducts.add(variant.productId());
+                }
+            }
+        } catch (RuntimeException e) {
+            fanout.unsubscribe(emitter);
+            throw e;
+        } finally {
+            flushLock.readLock().unlock();
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductStockChanged(ProductStockChangedEvent event) {
+        dirtyProducts.addAll(event.productIds());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Admin edits may change variant stock
+        dirtyProducts.addAll(event.productIds());
+    }
+
+    @Scheduled(fixedDelayString = "${stock-stream.coalesce-ms:500}")
+    public void flush() {
+        if (dirtyProducts.isEmpty()) {
+            return;
+        }
+        flushLock.writeLock().lock();
+        try {
+            publishDirty();
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    private void publishDirty() {
+        Set<Long> products = new HashSet<>();
+        for (Iterator<Long> it = dirtyProducts.iterator(); it.hasNext();) {
+            products.add(it.next());
+            it.remove();
+        }
+
+        // Forget variants nobody watches any more
+        watchedProducts.keySet().removeIf(variantId -> !fanout.hasSubscribers(variantId));
+        lastSent.keySet().retainAll(watchedProducts.keySet());
+
+        Set<Long> affected = watchedProducts.entrySet().stream()
+                .filter(entry -> products.contains(entry.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        if (affected.isEmpty()) {
+            return;
+        }
+
+        for (VariantStock variant : productVariantRepository.findStock(affected)) {
+            Integer previous = lastSent.put(variant.variantId(), variant.stock());
+            if (!Objects.equals(previous, variant.stock())) {
+                fanout.publish(variant.variantId(), stockEvent(variant));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stock-stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        fanout.heartbeat();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanout.shutdown();
+    }
+
+    private static SseEmitter.SseEventBuilder stockEvent(VariantStock variant) {
+        return SseEmitter.event()
+                .name(EVENT_NAME)
+                .data(VariantStockResponse.builder()
+                        .variantId(variant.variantId())
+                        .stock(variant.stock())
+                        .build());
+    }
+}
@@ -0,0 +1,42 @@
+-- Migration script to add retry backoff to the OutboxEvents table
+-- A failed event gets a next_attempt_at; until then the relay skips it and the later
+-- events of the same aggregate, and keeps delivering everything else.
+-- Run this script on your database before starting the application
+
+USE [ElectroShop]
+GO
+
+IF NOT EXISTS (
+    SELECT * 
+    FROM sys.columns 
+    WHERE object_id = OBJECT_ID(N'[dbo].[OutboxEvents]') 
+    AND name = 'next_attempt_at'
+)
+BEGIN
+    ALTER TABLE [dbo].[OutboxEvents]
+    ADD [next_attempt_at] [datetime2](7) NULL;
+    
+    PRINT 'Column next_attempt_at added successfully to OutboxEvents table';
+END
+ELSE
+BEGIN
+    PRINT 'Column next_attempt_at already exists in OutboxEvents table';
+END
+GO
+
+-- Pending events that are waiting out a backoff, looked up per aggregate on every poll
+IF NOT EXISTS (
+    SELECT * 
+    FROM sys.indexes 
+    WHERE object_id = OBJECT_ID(N'[dbo].[OutboxEvents]') 
+    AND name = 'IX_OutboxEvents_backoff'
+)
+BEGIN
+    CREATE NONCLUSTERED INDEX [IX_OutboxEvents_backoff]
+    ON [dbo].[OutboxEvents] ([aggregate_type], [aggregate_id], [event_id])
+    INCLUDE ([next_attempt_at])
+    WHERE [processed_at] IS NULL AND [next_attempt_at] IS NOT NULL;
+    
+    PRINT 'Index IX_OutboxEvents_backoff created successfully';
+END
+GO
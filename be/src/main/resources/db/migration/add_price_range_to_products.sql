@@ -0,0 +1,54 @@
+-- Migration script to add denormalized min_price / max_price columns to Products table
+-- The columns hold the price range of the product's active variants (default_price when none)
+-- and are maintained by the application on every variant write.
+-- Run this script on your database before starting the application
+
+USE [ElectroShop]
+GO
+
+IF NOT EXISTS (
+    SELECT * 
+    FROM sys.columns 
+    WHERE object_id = OBJECT_ID(N'[dbo].[Products]') 
+    AND name = 'min_price'
+)
+BEGIN
+    ALTER TABLE [dbo].[Products]
+    ADD [min_price] [decimal](18, 2) NULL,
+        [max_price] [decimal](18, 2) NULL;
+    
+    PRINT 'Columns min_price and max_price added successfully to Products table';
+END
+ELSE
+BEGIN
+    PRINT 'Columns min_price and max_price already exist in Products table';
+END
+GO
+
+-- Backfill the price range of existing products
+UPDATE p
+SET p.[min_price] = COALESCE(r.[min_price], p.[default_price]),
+    p.[max_price] = COALESCE(r.[max_price], p.[default_price])
+FROM [dbo].[Products] p
+LEFT JOIN (
+    SELECT [product_id], MIN([price]) AS [min_price], MAX([price]) AS [max_price]
+    FROM [dbo].[ProductVariants]
+    WHERE [is_active] = 1
+    GROUP BY [product_id]
+) r ON r.[product_id] = p.[product_id];
+GO
+
+-- Index backing "sort by price" on the public product listing
+IF NOT EXISTS (
+    SELECT * 
+    FROM sys.indexes 
+    WHERE object_id = OBJECT_ID(N'[dbo].[Products]') 
+    AND name = 'IX_Products_is_deleted_min_price'
+)
+BEGIN
+    CREATE NONCLUSTERED INDEX [IX_Products_is_deleted_min_price]
+    ON [dbo].[Products] ([is_deleted], [min_price], [product_id]);
+    
+    PRINT 'Index IX_Products_is_deleted_min_price created successfully';
+END
+GO
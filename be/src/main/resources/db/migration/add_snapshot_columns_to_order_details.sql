@@ -0,0 +1,36 @@
+-- Migration script to add product_name / sku snapshot columns to OrderDetails table
+-- Checkout copies the product name and variant SKU into each order line, so order
+-- history shows what was bought even after the catalog changes.
+-- Run this script on your database before starting the application
+
+USE [ElectroShop]
+GO
+
+IF NOT EXISTS (
+    SELECT * 
+    FROM sys.columns 
+    WHERE object_id = OBJECT_ID(N'[dbo].[OrderDetails]') 
+    AND name = 'product_name'
+)
+BEGIN
+    ALTER TABLE [dbo].[OrderDetails]
+    ADD [product_name] [nvarchar](255) NULL,
+        [sku] [varchar](100) NULL;
+    
+    PRINT 'Columns product_name and sku added successfully to OrderDetails table';
+END
+ELSE
+BEGIN
+    PRINT 'Columns product_name and sku already exist in OrderDetails table';
+END
+GO
+
+-- Backfill existing order lines from the current catalog
+UPDATE od
+SET od.[product_name] = p.[name],
+    od.[sku] = v.[sku]
+FROM [dbo].[OrderDetails] od
+JOIN [dbo].[ProductVariants] v ON v.[variant_id] = od.[variant_id]
+JOIN [dbo].[Products] p ON p.[product_id] = v.[product_id]
+WHERE od.[product_name] IS NULL;
+GO
@@ -0,0 +1,52 @@
+-- Migration script to create the IdempotencyKeys table
+-- Remembers the outcome of requests sent with an Idempotency-Key header (checkout), so
+-- that a retried request replays the stored response instead of running again.
+-- Rows are written IN_PROGRESS before the request runs and COMPLETED in the same
+-- transaction as its result; the application purges them after the retention period.
+-- Run this script on your database before starting the application
+
+USE [ElectroShop]
+GO
+
+IF NOT EXISTS (
+    SELECT * 
+    FROM sys.tables 
+    WHERE object_id = OBJECT_ID(N'[dbo].[IdempotencyKeys]')
+)
+BEGIN
+    CREATE TABLE [dbo].[IdempotencyKeys] (
+        [idempotency_key_id] [int] IDENTITY(1,1) NOT NULL,
+        [user_id] [int] NOT NULL,
+        [idempotency_key] [nvarchar](100) NOT NULL,
+        [request_hash] [char](64) NOT NULL,
+        [status] [varchar](20) NOT NULL,
+        [response_body] [nvarchar](max) NULL,
+        [created_at] [datetime2](7) NOT NULL,
+        [completed_at] [datetime2](7) NULL,
+        CONSTRAINT [PK_IdempotencyKeys] PRIMARY KEY CLUSTERED ([idempotency_key_id]),
+        CONSTRAINT [UQ_IdempotencyKeys_user_key] UNIQUE ([user_id], [idempotency_key]),
+        CONSTRAINT [CK_IdempotencyKeys_status] CHECK ([status] IN ('IN_PROGRESS', 'COMPLETED'))
+    );
+    
+    PRINT 'Table IdempotencyKeys created successfully';
+END
+ELSE
+BEGIN
+    PRINT 'Table IdempotencyKeys already exists';
+END
+GO
+
+-- Index backing the retention purge
+IF NOT EXISTS (
+    SELECT * 
+    FROM sys.indexes 
+    WHERE object_id = OBJECT_ID(N'[dbo].[IdempotencyKeys]') 
+    AND name = 'IX_IdempotencyKeys_created_at'
+)
+BEGIN
+    CREATE NONCLUSTERED INDEX [IX_IdempotencyKeys_created_at]
+    ON [dbo].[IdempotencyKeys] ([created_at]);
+    
+    PRINT 'Index IX_IdempotencyKeys_created_at created successfully';
+END
+GO
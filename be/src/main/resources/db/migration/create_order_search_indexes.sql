@@ -0,0 +1,84 @@
+-- Migration script to create the indexes behind the staff order search
+-- Every Orders index ends in (created_at DESC, order_id DESC), the order search results
+-- are returned in, so a search seeks to its first match and reads one page in index
+-- order. The search planner picks one of them per query by name (table hint), so the
+-- names must not change.
+-- Run this script on your database before starting the application
+
+USE [ElectroShop]
+GO
+
+IF NOT EXISTS (
+    SELECT * 
+    FROM sys.indexes 
+    WHERE object_id = OBJECT_ID(N'[dbo].[Orders]') 
+    AND name = 'IX_Orders_user_id_created_at'
+)
+BEGIN
+    CREATE NONCLUSTERED INDEX [IX_Orders_user_id_created_at]
+    ON [dbo].[Orders] ([user_id], [created_at] DESC, [order_id] DESC)
+    INCLUDE ([status_id], [total_price]);
+    
+    PRINT 'Index IX_Orders_user_id_created_at created successfully';
+END
+GO
+
+IF NOT EXISTS (
+    SELECT * 
+    FROM sys.indexes 
+    WHERE object_id = OBJECT_ID(N'[dbo].[Orders]') 
+    AND name = 'IX_Orders_status_id_created_at'
+)
+BEGIN
+    CREATE NONCLUSTERED INDEX [IX_Orders_status_id_created_at]
+    ON [dbo].[Orders] ([status_id], [created_at] DESC, [order_id] DESC)
+    INCLUDE ([user_id], [total_price]);
+    
+    PRINT 'Index IX_Orders_status_id_created_at created successfully';
+END
+GO
+
+IF NOT EXISTS (
+    SELECT * 
+    FROM sys.indexes 
+    WHERE object_id = OBJECT_ID(N'[dbo].[Orders]') 
+    AND name = 'IX_Orders_created_at'
+)
+BEGIN
+    CREATE NONCLUSTERED INDEX [IX_Orders_created_at]
+    ON [dbo].[Orders] ([created_at] DESC, [order_id] DESC)
+    INCLUDE ([user_id], [status_id], [total_price]);
+    
+    PRINT 'Index IX_Orders_created_at created successfully';
+END
+GO
+
+-- Orders containing a SKU, when the SKU is the most selective filter
+IF NOT EXISTS (
+    SELECT * 
+    FROM sys.indexes 
+    WHERE object_id = OBJECT_ID(N'[dbo].[OrderDetails]') 
+    AND name = 'IX_OrderDetails_sku_order_id'
+)
+BEGIN
+    CREATE NONCLUSTERED INDEX [IX_OrderDetails_sku_order_id]
+    ON [dbo].[OrderDetails] ([sku], [order_id]);
+    
+    PRINT 'Index IX_OrderDetails_sku_order_id created successfully';
+END
+GO
+
+-- SKU check on orders found through another index; also serves the order detail items
+IF NOT EXISTS (
+    SELECT * 
+    FROM sys.indexes 
+    WHERE object_id = OBJECT_ID(N'[dbo].[OrderDetails]') 
+    AND name = 'IX_OrderDetails_order_id_sku'
+)
+BEGIN
+    CREATE NONCLUSTERED INDEX [IX_OrderDetails_order_id_sku]
+    ON [dbo].[OrderDetails] ([order_id], [sku]);
+    
+    PRINT 'Index IX_OrderDetails_order_id_sku created successfully';
+END
+GO
@@ -0,0 +1,68 @@
+-- Migration script to create the OutboxEvents table
+-- Domain events (orders placed, order status changes, product writes) are inserted here
+-- in the same transaction as the change itself. A background relay reads pending rows
+-- in order and dispatches them to in-process listeners, then stamps processed_at.
+-- Run this script on your database before starting the application
+
+USE [ElectroShop]
+GO
+
+IF NOT EXISTS (
+    SELECT * 
+    FROM sys.tables 
+    WHERE object_id = OBJECT_ID(N'[dbo].[OutboxEvents]')
+)
+BEGIN
+    CREATE TABLE [dbo].[OutboxEvents] (
+        [event_id] [bigint] IDENTITY(1,1) NOT NULL,
+        [aggregate_type] [varchar](50) NOT NULL,
+        [aggregate_id] [bigint] NOT NULL,
+        [event_type] [varchar](100) NOT NULL,
+        [payload] [nvarchar](max) NOT NULL,
+        [created_at] [datetime2](7) NOT NULL,
+        [attempts] [int] NOT NULL CONSTRAINT [DF_OutboxEvents_attempts] DEFAULT (0),
+        [last_error] [nvarchar](1000) NULL,
+        [processed_at] [datetime2](7) NULL,
+        CONSTRAINT [PK_OutboxEvents] PRIMARY KEY CLUSTERED ([event_id])
+    );
+    
+    PRINT 'Table OutboxEvents created successfully';
+END
+ELSE
+BEGIN
+    PRINT 'Table OutboxEvents already exists';
+END
+GO
+
+-- Pending events in insertion order, read by the relay on every poll
+IF NOT EXISTS (
+    SELECT * 
+    FROM sys.indexes 
+    WHERE object_id = OBJECT_ID(N'[dbo].[OutboxEvents]') 
+    AND name = 'IX_OutboxEvents_pending'
+)
+BEGIN
+    CREATE NONCLUSTERED INDEX [IX_OutboxEvents_pending]
+    ON [dbo].[OutboxEvents] ([event_id])
+    INCLUDE ([aggregate_type], [aggregate_id], [event_type], [created_at], [attempts])
+    WHERE [processed_at] IS NULL;
+    
+    PRINT 'Index IX_OutboxEvents_pending created successfully';
+END
+GO
+
+-- Purge of processed events past retention
+IF NOT EXISTS (
+    SELECT * 
+    FROM sys.indexes 
+    WHERE object_id = OBJECT_ID(N'[dbo].[OutboxEvents]') 
+    AND name = 'IX_OutboxEvents_processed_at'
+)
+BEGIN
+    CREATE NONCLUSTERED INDEX [IX_OutboxEvents_processed_at]
+    ON [dbo].[OutboxEvents] ([processed_at])
+    WHERE [processed_at] IS NOT NULL;
+    
+    PRINT 'Index IX_OutboxEvents_processed_at created successfully';
+END
+GO
@@ -0,0 +1,52 @@
+-- Migration script to create the StockReservations table
+-- Holds the quantity a user's cart has reserved per product variant until expires_at.
+-- The live ledger is kept in memory; this table is its write-behind copy and is only
+-- read at startup to restore holds that have not expired yet.
+-- Run this script on your database before starting the application
+
+USE [ElectroShop]
+GO
+
+IF NOT EXISTS (
+    SELECT * 
+    FROM sys.tables 
+    WHERE object_id = OBJECT_ID(N'[dbo].[StockReservations]')
+)
+BEGIN
+    CREATE TABLE [dbo].[StockReservations] (
+        [reservation_id] [int] IDENTITY(1,1) NOT NULL,
+        [user_id] [int] NOT NULL,
+        [variant_id] [int] NOT NULL,
+        [quantity] [int] NOT NULL,
+        [expires_at] [datetime2](7) NOT NULL,
+        [updated_at] [datetime2](7) NOT NULL,
+        CONSTRAINT [PK_StockReservations] PRIMARY KEY CLUSTERED ([reservation_id]),
+        CONSTRAINT [UQ_StockReservations_user_variant] UNIQUE ([user_id], [variant_id]),
+        CONSTRAINT [FK_StockReservations_ProductVariants] FOREIGN KEY ([variant_id])
+            REFERENCES [dbo].[ProductVariants] ([variant_id]) ON DELETE CASCADE,
+        CONSTRAINT [CK_StockReservations_quantity] CHECK ([quantity] > 0)
+    );
+    
+    PRINT 'Table StockReservations created successfully';
+END
+ELSE
+BEGIN
+    PRINT 'Table StockReservations already exists';
+END
+GO
+
+-- Index backing the startup load of live holds
+IF NOT EXISTS (
+    SELECT * 
+    FROM sys.indexes 
+    WHERE object_id = OBJECT_ID(N'[dbo].[StockReservations]') 
+    AND name = 'IX_StockReservations_expires_at'
+)
+BEGIN
+    CREATE NONCLUSTERED INDEX [IX_StockReservations_expires_at]
+    ON [dbo].[StockReservations] ([expires_at])
+    INCLUDE ([user_id], [variant_id], [quantity]);
+    
+    PRINT 'Index IX_StockReservations_expires_at created successfully';
+END
+GO
@@ -0,0 +1,138 @@
+package com.fptu.group1.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fptu.group1.model.Product;
+import com.fptu.group1.model.ProductVariant;
+
+/**
+ * Many checkouts of the same variants at once, each in its own transaction the way
+ * CheckoutServiceImpl takes stock: sold quantities must add up to the stock there was,
+ * and stock must never go below zero.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductVariantStockConcurrencyTest {
+
+    private static final int BUYERS = 40;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        productVariantRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void concurrentCheckoutsOfTheLastUnitsNeverOversell() throws Exception {
+        Long variantId = createVariant("PHONE-128", 10);
+
+        int sold = checkoutConcurrently(Map.of(variantId, 1));
+
+        assertThat(sold).isEqualTo(10);
+        assertThat(stockOf(variantId)).isZero();
+    }
+
+    @Test
+    void failedLineRollsBackTheOtherLinesOfTheSameCheckout() throws Exception {
+        Long scarce = createVariant("PHONE-256", 5);
+        Long plenty = createVariant("CASE-BLACK", 100);
+
+        int sold = checkoutConcurrently(Map.of(scarce, 1, plenty, 2));
+
+        assertThat(sold).isEqualTo(5);
+        assertThat(stockOf(scarce)).isZero();
+        assertThat(stockOf(plenty)).isEqualTo(100 - 5 * 2);
+    }
+
+    /**
+     * Run {@link #BUYERS} checkouts of the same lines at once.
+     *
+     * @return how many of them got all their lines
+     */
+    private int checkoutConcurrently(Map<Long, Integer> lines) throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Boolean>> checkouts = new ArrayList<>();
+            for (int i = 0; i < BUYERS; i++) {
+                checkouts.add(pool.submit(() -> {
+                    start.await();
+                    return transaction.execute(status -> {
+                        List<Long> insufficient = productVariantRepository.decrementStock(lines);
+                        if (!insufficient.isEmpty()) {
+                            // CheckoutServiceImpl throws here, which rolls back the same way
+                            status.setRollbackOnly();
+                        }
+                        return insufficient.isEmpty();
+                    });
+                }));
+            }
+            start.countDown();
+
+            int sold = 0;
+            for (Future<Boolean> checkout : checkouts) {
+                if (checkout.get(30, TimeUnit.SECONDS)) {
+                    sold++;
+                }
+            }
+            return sold;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Long createVariant(String sku, int stock) {
+        Product product = productRepository.save(Product.builder()
+                .name("Product " + sku)
+                .slug(sku.toLowerCase())
+                .defaultPrice(new BigDecimal("1000000"))
+                .createdAt(LocalDateTime.now())
+                .build());
+        return productVariantRepository.save(ProductVariant.builder()
+                .productId(product.getProductId())
+                .sku(sku)
+                .price(new BigDecimal("1000000"))
+                .stock(stock)
+                .build())
+                .getVariantId();
+    }
+
+    private int stockOf(Long variantId) {
+        return productVariantRepository.findById(variantId).orElseThrow().getStock();
+    }
+}
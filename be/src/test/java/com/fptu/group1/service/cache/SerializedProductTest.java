@@ -0,0 +1,39 @@
+package com.fptu.group1.service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * If-None-Match is compared weakly: a validator matches in either encoding, with or
+ * without the {@code W/} prefix.
+ */
+class SerializedProductTest {
+
+    private final SerializedProduct product = SerializedProduct.of(42L,
+            "{\"productId\":42}".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void strongValidatorsMatchInEitherEncoding() {
+        assertThat(product.matches(product.etag(false))).isTrue();
+        assertThat(product.matches(product.etag(true))).isTrue();
+        assertThat(product.matches("\"other\", " + product.etag(true))).isTrue();
+    }
+
+    @Test
+    void weakValidatorsMatch() {
+        assertThat(product.matches("W/" + product.etag(false))).isTrue();
+        assertThat(product.matches("\"other\", W/" + product.etag(true))).isTrue();
+    }
+
+    @Test
+    void otherVersionsDoNotMatch() {
+        SerializedProduct changed = SerializedProduct.of(42L, "{\"productId\":42,\"name\":\"x\"}".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(product.matches(changed.etag(false))).isFalse();
+        assertThat(product.matches("W/" + changed.etag(true))).isFalse();
+        assertThat(product.matches(null)).isFalse();
+    }
+}
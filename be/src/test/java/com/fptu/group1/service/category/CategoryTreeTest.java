@@ -0,0 +1,49 @@
+package com.fptu.group1.service.category;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fptu.group1.model.Category;
+
+/**
+ * Rolled-up counts must agree with {@link CategoryTree#withDescendants}, which is what
+ * the category filter matches.
+ */
+class CategoryTreeTest {
+
+    // Electronics(1) > Phones(2) > Android(3); Electronics(1) > Laptops(4); Books(5)
+    private final CategoryTree tree = CategoryTree.of(List.of(
+            category(1L, null), category(2L, 1L), category(3L, 2L), category(4L, 1L), category(5L, null)));
+
+    @Test
+    void countsIncludeEveryDescendant() {
+        Map<Long, Integer> totals = tree.rollUp(Map.of(2L, 3, 3L, 5, 4L, 2, 5L, 1));
+
+        assertThat(totals).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 10, 2L, 8, 3L, 5, 4L, 2, 5L, 1));
+    }
+
+    @Test
+    void parentsWithoutOwnProductsAreCounted() {
+        assertThat(tree.rollUp(Map.of(3L, 4))).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 4, 2L, 4, 3L, 4));
+    }
+
+    @Test
+    void unknownCategoriesKeepTheirOwnCount() {
+        assertThat(tree.rollUp(Map.of(99L, 2))).containsExactlyInAnyOrderEntriesOf(Map.of(99L, 2));
+    }
+
+    @Test
+    void isInSubtreeFollowsTheParentLinks() {
+        assertThat(tree.isInSubtree(3L, 1L)).isTrue();
+        assertThat(tree.isInSubtree(1L, 3L)).isFalse();
+        assertThat(tree.isInSubtree(4L, 2L)).isFalse();
+    }
+
+    private static Category category(Long categoryId, Long parentId) {
+        return Category.builder().categoryId(categoryId).name("Category " + categoryId).parentId(parentId).build();
+    }
+}
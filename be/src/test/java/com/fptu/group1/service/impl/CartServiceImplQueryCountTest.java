@@ -0,0 +1,166 @@
+package com.fptu.group1.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fptu.group1.dto.request.AddToCartRequest;
+import com.fptu.group1.dto.response.CartResponse;
+import com.fptu.group1.model.Cart;
+import com.fptu.group1.model.Product;
+import com.fptu.group1.model.ProductVariant;
+import com.fptu.group1.model.Role;
+import com.fptu.group1.model.User;
+import com.fptu.group1.repository.CartRepository;
+import com.fptu.group1.repository.ProductRepository;
+import com.fptu.group1.repository.ProductVariantRepository;
+import com.fptu.group1.service.inventory.FlashSaleCoordinator;
+import com.fptu.group1.service.inventory.ReservationLedger;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Rendering a cart loads its variants and their products in one query each, so the
+ * statement count must not grow with the number of cart lines.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class CartServiceImplQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private CartServiceImpl cartService;
+    private Statistics statistics;
+    private Long roleId;
+
+    @BeforeEach
+    void setUp() {
+        ReservationLedger reservationLedger = mock(ReservationLedger.class);
+        when(reservationLedger.hold(anyLong(), anyLong(), anyInt(), anyInt())).thenReturn(true);
+        cartService = new CartServiceImpl(cartRepository, productVariantRepository, productRepository,
+                reservationLedger, mock(FlashSaleCoordinator.class));
+
+        roleId = entityManager.persist(Role.builder().roleName(Role.RoleName.USER).build()).getRoleId();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getCartCostsThreeStatementsWhateverTheNumberOfLines() {
+        Long smallCart = createCart("small", 2);
+        Long bigCart = createCart("big", 12);
+
+        assertThat(statementsFor(() -> assertThat(cartService.getCart(smallCart).getItems()).hasSize(2))).isEqualTo(3);
+        assertThat(statementsFor(() -> assertThat(cartService.getCart(bigCart).getItems()).hasSize(12))).isEqualTo(3);
+    }
+
+    @Test
+    void addToCartDoesNotLoadLinesOneByOne() {
+        Long smallCart = createCart("small", 2);
+        Long bigCart = createCart("big", 12);
+        Long variantId = createVariants("extra", 1).get(0);
+
+        long small = statementsFor(() -> cartService.addToCart(smallCart, addRequest(variantId)));
+        long big = statementsFor(() -> cartService.addToCart(bigCart, addRequest(variantId)));
+
+        assertThat(big).isEqualTo(small);
+    }
+
+    @Test
+    void cartLinesCarryProductAndPrice() {
+        Long userId = createCart("priced", 3);
+
+        CartResponse cart = cartService.getCart(userId);
+
+        assertThat(cart.getTotalItems()).isEqualTo(3);
+        assertThat(cart.getTotalPrice()).isEqualByComparingTo("3000000");
+        assertThat(cart.getItems()).allSatisfy(item -> {
+            assertThat(item.getProductName()).startsWith("Product priced-");
+            assertThat(item.getSku()).startsWith("priced-");
+        });
+    }
+
+    private long statementsFor(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * A user whose cart has one line for each of {@code lines} variants, each of its
+     * own product.
+     */
+    private Long createCart(String name, int lines) {
+        Long userId = entityManager.persist(User.builder()
+                .name(name)
+                .username(name)
+                .email(name + "@example.com")
+                .roleId(roleId)
+                .createdAt(LocalDateTime.now())
+                .build()).getUserId();
+        for (Long variantId : createVariants(name, lines)) {
+            entityManager.persist(Cart.builder()
+                    .userId(userId)
+                    .variantId(variantId)
+                    .quantity(1)
+                    .addedAt(LocalDateTime.now())
+                    .build());
+        }
+        return userId;
+    }
+
+    private List<Long> createVariants(String prefix, int count) {
+        List<Long> variantIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Product product = entityManager.persist(Product.builder()
+                    .name("Product " + prefix + "-" + i)
+                    .slug(prefix + "-" + i)
+                    .defaultPrice(new BigDecimal("1000000"))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            variantIds.add(entityManager.persist(ProductVariant.builder()
+                    .productId(product.getProductId())
+                    .sku(prefix + "-" + i)
+                    .price(new BigDecimal("1000000"))
+                    .stock(10)
+                    .build()).getVariantId());
+        }
+        return variantIds;
+    }
+
+    private static AddToCartRequest addRequest(Long variantId) {
+        return AddToCartRequest.builder().variantId(variantId).quantity(1).build();
+    }
+}
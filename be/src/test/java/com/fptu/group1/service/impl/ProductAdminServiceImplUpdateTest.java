@@ -0,0 +1,226 @@
+package com.fptu.group1.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fptu.group1.dto.request.ProductSpecificationRequest;
+import com.fptu.group1.dto.request.ProductVariantRequest;
+import com.fptu.group1.dto.request.UpdateProductRequest;
+import com.fptu.group1.model.Cart;
+import com.fptu.group1.model.Product;
+import com.fptu.group1.model.ProductSpecification;
+import com.fptu.group1.model.ProductVariant;
+import com.fptu.group1.model.Role;
+import com.fptu.group1.model.User;
+import com.fptu.group1.repository.BrandRepository;
+import com.fptu.group1.repository.CategoryRepository;
+import com.fptu.group1.repository.ProductRepository;
+import com.fptu.group1.repository.ProductSpecificationRepository;
+import com.fptu.group1.repository.ProductVariantRepository;
+import com.fptu.group1.service.FileStorageService;
+import com.fptu.group1.service.importer.ProductImporter;
+import com.fptu.group1.service.outbox.OutboxWriter;
+import com.fptu.group1.service.search.ProductSearchIndex;
+
+/**
+ * Product updates merge variants by SKU and specifications by key: matched rows keep
+ * their IDs, rows left out are removed (or deactivated while still referenced), and
+ * stock is changed relative to what was read so concurrent sales are not undone.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class ProductAdminServiceImplUpdateTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private ProductSpecificationRepository productSpecificationRepository;
+
+    private ProductAdminServiceImpl productAdminService;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        productAdminService = new ProductAdminServiceImpl(productRepository, brandRepository, categoryRepository,
+                productVariantRepository, productSpecificationRepository, mock(FileStorageService.class),
+                new ObjectMapper(), mock(ProductSearchIndex.class), mock(ApplicationEventPublisher.class),
+                mock(OutboxWriter.class), mock(ProductImporter.class));
+        ReflectionTestUtils.setField(productAdminService, "entityManager", entityManager.getEntityManager());
+
+        productId = entityManager.persist(Product.builder()
+                .name("iPhone 15")
+                .slug("iphone-15")
+                .defaultPrice(new BigDecimal("20000000"))
+                .createdAt(LocalDateTime.now())
+                .build()).getProductId();
+    }
+
+    @Test
+    void variantsAreMatchedBySkuAndKeepTheirIds() {
+        Long basic = createVariant("IP15-128", "20000000", 10);
+        Long large = createVariant("IP15-256", "23000000", 5);
+
+        productAdminService.updateProduct(productId, request(
+                List.of(variant(" ip15-128 ", "21000000", 10), variant("IP15-256", "23000000", 8),
+                        variant("IP15-512", "27000000", 3)),
+                null));
+
+        Map<String, ProductVariant> variants = variantsBySku();
+        // Matched ignoring case and surrounding spaces, stored trimmed
+        assertThat(variants).containsOnlyKeys("ip15-128", "IP15-256", "IP15-512");
+        assertThat(variants.get("ip15-128").getVariantId()).isEqualTo(basic);
+        assertThat(variants.get("ip15-128").getPrice()).isEqualByComparingTo("21000000");
+        assertThat(variants.get("IP15-256").getVariantId()).isEqualTo(large);
+        assertThat(variants.get("IP15-256").getStock()).isEqualTo(8);
+        assertThat(variants.get("IP15-512").getStock()).isEqualTo(3);
+    }
+
+    @Test
+    void variantsLeftOutAreDeletedOrDeactivatedWhenReferenced() {
+        createVariant("IP15-128", "20000000", 10);
+        createVariant("IP15-256", "23000000", 5);
+        Long inCart = createVariant("IP15-512", "27000000", 3);
+        putInCart(inCart);
+
+        productAdminService.updateProduct(productId, request(List.of(variant("IP15-128", "20000000", 10)), null));
+
+        Map<String, ProductVariant> variants = variantsBySku();
+        assertThat(variants).containsOnlyKeys("IP15-128", "IP15-512");
+        assertThat(variants.get("IP15-128").getIsActive()).isTrue();
+        assertThat(variants.get("IP15-512").getIsActive()).isFalse();
+    }
+
+    @Test
+    void restockKeepsUnitsSoldSinceTheVariantsWereRead() {
+        Long variantId = createVariant("IP15-128", "20000000", 10);
+        // The update reads 10 from the persistence context while a checkout takes 2 in the database
+        productVariantRepository.findByProductId(productId);
+        productVariantRepository.decrementStock(Map.of(variantId, 2));
+
+        productAdminService.updateProduct(productId, request(List.of(variant("IP15-128", "20000000", 15)), null));
+
+        assertThat(variantsBySku().get("IP15-128").getStock()).isEqualTo(13);
+    }
+
+    @Test
+    void specificationsAreMatchedByKey() {
+        Long screen = createSpecification("Screen", "6.1\"");
+        Long chip = createSpecification("Chip", "A16");
+        createSpecification("Weight", "171g");
+
+        productAdminService.updateProduct(productId, request(null, List.of(
+                specification(" screen", "6.1\" OLED"), specification("Chip", "A16"), specification("Battery", "3349mAh"))));
+
+        Map<String, ProductSpecification> specifications = productSpecificationRepository.findByProductId(productId)
+                .stream()
+                .collect(Collectors.toMap(ProductSpecification::getSpecKey, Function.identity()));
+        assertThat(specifications).containsOnlyKeys("screen", "Chip", "Battery");
+        assertThat(specifications.get("screen").getSpecId()).isEqualTo(screen);
+        assertThat(specifications.get("screen").getSpecValue()).isEqualTo("6.1\" OLED");
+        assertThat(specifications.get("Chip").getSpecId()).isEqualTo(chip);
+    }
+
+    private Map<String, ProductVariant> variantsBySku() {
+        entityManager.flush();
+        entityManager.clear();
+        return productVariantRepository.findByProductId(productId).stream()
+                .collect(Collectors.toMap(ProductVariant::getSku, Function.identity()));
+    }
+
+    private Long createVariant(String sku, String price, int stock) {
+        Long variantId = entityManager.persist(ProductVariant.builder()
+                .productId(productId)
+                .sku(sku)
+                .price(new BigDecimal(price))
+                .stock(stock)
+                .build()).getVariantId();
+        entityManager.flush();
+        entityManager.clear();
+        return variantId;
+    }
+
+    private Long createSpecification(String key, String value) {
+        Long specId = entityManager.persist(ProductSpecification.builder()
+                .productId(productId)
+                .specKey(key)
+                .specValue(value)
+                .build()).getSpecId();
+        entityManager.flush();
+        entityManager.clear();
+        return specId;
+    }
+
+    private void putInCart(Long variantId) {
+        Long roleId = entityManager.persist(Role.builder().roleName(Role.RoleName.USER).build()).getRoleId();
+        Long userId = entityManager.persist(User.builder()
+                .name("buyer")
+                .username("buyer")
+                .email("buyer@example.com")
+                .roleId(roleId)
+                .createdAt(LocalDateTime.now())
+                .build()).getUserId();
+        entityManager.persist(Cart.builder()
+                .userId(userId)
+                .variantId(variantId)
+                .quantity(1)
+                .addedAt(LocalDateTime.now())
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static UpdateProductRequest request(List<ProductVariantRequest> variants,
+            List<ProductSpecificationRequest> specifications) {
+        UpdateProductRequest request = new UpdateProductRequest();
+        request.setVariants(variants);
+        request.setSpecifications(specifications);
+        return request;
+    }
+
+    private static ProductVariantRequest variant(String sku, String price, int stock) {
+        return ProductVariantRequest.builder()
+                .sku(sku)
+                .price(new BigDecimal(price))
+                .stock(stock)
+                .build();
+    }
+
+    private static ProductSpecificationRequest specification(String key, String value) {
+        return ProductSpecificationRequest.builder()
+                .specKey(key)
+                .specValue(value)
+                .build();
+    }
+}
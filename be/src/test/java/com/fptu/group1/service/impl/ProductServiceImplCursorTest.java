@@ -0,0 +1,114 @@
+package com.fptu.group1.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fptu.group1.dto.request.ProductFilterRequest;
+import com.fptu.group1.dto.response.PublicProductListResponse;
+import com.fptu.group1.dto.response.PublicProductPageResponse;
+import com.fptu.group1.model.Product;
+import com.fptu.group1.repository.BrandRepository;
+import com.fptu.group1.repository.CategoryRepository;
+import com.fptu.group1.repository.ProductRepository;
+import com.fptu.group1.repository.ProductSpecificationRepository;
+import com.fptu.group1.repository.ProductVariantRepository;
+import com.fptu.group1.service.cache.ProductDetailCache;
+import com.fptu.group1.service.category.CategoryTreeHolder;
+import com.fptu.group1.service.search.ProductFacetIndex;
+import com.fptu.group1.service.search.ProductSearchIndex;
+
+/**
+ * Following the cursors from the first page must visit every product exactly once, even
+ * when many products share the sort key (e.g. created in the same import batch).
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class ProductServiceImplCursorTest {
+
+    private static final int PRODUCTS = 23;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private ProductSpecificationRepository productSpecificationRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ProductServiceImpl productService;
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        productService = new ProductServiceImpl(productRepository, productVariantRepository,
+                productSpecificationRepository, brandRepository, categoryRepository,
+                mock(ProductSearchIndex.class), mock(ProductFacetIndex.class), mock(ProductDetailCache.class),
+                mock(CategoryTreeHolder.class), transactionManager);
+
+        // Three distinct timestamps for all products, so most pages end inside a tie
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 10, 0);
+        for (int i = 0; i < PRODUCTS; i++) {
+            productIds.add(entityManager.persist(Product.builder()
+                    .name("Product " + i)
+                    .slug("product-" + i)
+                    .defaultPrice(new BigDecimal("1000000"))
+                    .createdAt(base.plusMinutes(i % 3))
+                    .build()).getProductId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void cursorsVisitEveryProductOnceDespiteTiedSortKeys() {
+        assertThat(walk(Sort.by("createdAt").descending())).containsExactlyInAnyOrderElementsOf(productIds);
+        assertThat(walk(Sort.by("createdAt").ascending())).containsExactlyInAnyOrderElementsOf(productIds);
+    }
+
+    private List<Long> walk(Sort sort) {
+        List<Long> seen = new ArrayList<>();
+        PublicProductPageResponse page = productService.getAllProducts(PageRequest.of(0, 5, sort),
+                new ProductFilterRequest(), null);
+        seen.addAll(ids(page));
+        while (page.getNextCursor() != null) {
+            page = productService.getAllProducts(PageRequest.of(0, 5, sort), new ProductFilterRequest(),
+                    page.getNextCursor());
+            seen.addAll(ids(page));
+        }
+        return seen;
+    }
+
+    private static List<Long> ids(PublicProductPageResponse page) {
+        return page.getProducts().stream().map(PublicProductListResponse::getProductId).toList();
+    }
+}
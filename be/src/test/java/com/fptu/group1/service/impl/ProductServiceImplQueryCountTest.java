@@ -0,0 +1,139 @@
+package com.fptu.group1.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fptu.group1.dto.request.ProductFilterRequest;
+import com.fptu.group1.dto.response.PublicProductListResponse;
+import com.fptu.group1.dto.response.PublicProductPageResponse;
+import com.fptu.group1.model.Brand;
+import com.fptu.group1.model.Category;
+import com.fptu.group1.model.Product;
+import com.fptu.group1.repository.BrandRepository;
+import com.fptu.group1.repository.CategoryRepository;
+import com.fptu.group1.repository.ProductRepository;
+import com.fptu.group1.repository.ProductSpecificationRepository;
+import com.fptu.group1.repository.ProductVariantRepository;
+import com.fptu.group1.service.cache.ProductDetailCache;
+import com.fptu.group1.service.category.CategoryTreeHolder;
+import com.fptu.group1.service.search.ProductFacetIndex;
+import com.fptu.group1.service.search.ProductSearchIndex;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * The public product list must cost the same number of SQL statements whatever the
+ * page size: the page, its count, and one lookup each for brands and categories. A
+ * lazy load or per-row lookup sneaking back into the row mapping fails here.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class ProductServiceImplQueryCountTest {
+
+    private static final int PRODUCTS = 30;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private ProductSpecificationRepository productSpecificationRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ProductServiceImpl productService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // The in-memory indexes and the detail cache are not used by a plain listing
+        productService = new ProductServiceImpl(productRepository, productVariantRepository,
+                productSpecificationRepository, brandRepository, categoryRepository,
+                mock(ProductSearchIndex.class), mock(ProductFacetIndex.class), mock(ProductDetailCache.class),
+                mock(CategoryTreeHolder.class), transactionManager);
+
+        List<Brand> brands = new ArrayList<>();
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            brands.add(entityManager.persist(Brand.builder().name("Brand " + i).build()));
+            categories.add(entityManager.persist(Category.builder().name("Category " + i).build()));
+        }
+        for (int i = 0; i < PRODUCTS; i++) {
+            entityManager.persist(Product.builder()
+                    .name("Product " + i)
+                    .slug("product-" + i)
+                    .brandId(brands.get(i % brands.size()).getBrandId())
+                    .categoryId(categories.get(i % categories.size()).getCategoryId())
+                    .defaultPrice(new BigDecimal("1000000"))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void listingCostsFourStatementsWhateverThePageSize() {
+        assertThat(statementsToList(5)).isEqualTo(4);
+        assertThat(statementsToList(25)).isEqualTo(4);
+    }
+
+    @Test
+    void listingRowsCarryBrandAndCategoryNames() {
+        PublicProductPageResponse page = productService.getAllProducts(PageRequest.of(0, 10),
+                new ProductFilterRequest(), null);
+
+        assertThat(page.getProducts()).hasSize(10);
+        for (PublicProductListResponse product : page.getProducts()) {
+            assertThat(product.getBrandName()).startsWith("Brand ");
+            assertThat(product.getCategoryName()).startsWith("Category ");
+        }
+    }
+
+    private long statementsToList(int pageSize) {
+        entityManager.clear();
+        statistics.clear();
+
+        PublicProductPageResponse page = productService.getAllProducts(PageRequest.of(0, pageSize),
+                new ProductFilterRequest(), null);
+
+        assertThat(page.getProducts()).hasSize(pageSize);
+        assertThat(page.getTotalElements()).isEqualTo(PRODUCTS);
+        return statistics.getPrepareStatementCount();
+    }
+}
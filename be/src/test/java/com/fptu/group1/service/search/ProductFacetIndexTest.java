@@ -0,0 +1,121 @@
+package com.fptu.group1.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fptu.group1.dto.request.ProductFilterRequest;
+import com.fptu.group1.model.Product;
+import com.fptu.group1.repository.BrandRepository;
+import com.fptu.group1.repository.CategoryRepository;
+import com.fptu.group1.repository.ProductRepository;
+import com.fptu.group1.repository.ProductSpecificationRepository;
+import com.fptu.group1.service.category.CategoryTreeHolder;
+
+/**
+ * Price filters are answered from the price-ordered index, which has to stay sorted as
+ * products are reindexed one by one or in bulk.
+ */
+class ProductFacetIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductSpecificationRepository productSpecificationRepository = mock(ProductSpecificationRepository.class);
+    private ProductFacetIndex facetIndex;
+
+    @BeforeEach
+    void setUp() {
+        List<Product> products = new ArrayList<>();
+        // Products 1..10 priced 1,000,000 .. 10,000,000
+        for (long id = 1; id <= 10; id++) {
+            products.add(product(id, id * 1_000_000));
+        }
+        when(productRepository.findByIsDeletedFalse()).thenReturn(products);
+
+        facetIndex = new ProductFacetIndex(productRepository, mock(BrandRepository.class), mock(CategoryRepository.class),
+                productSpecificationRepository, mock(CategoryTreeHolder.class));
+        ReflectionTestUtils.setField(facetIndex, "priceBucketBounds", new BigDecimal[] { new BigDecimal("5000000") });
+        facetIndex.rebuild();
+    }
+
+    @Test
+    void minIsInclusiveAndMaxExclusive() {
+        assertThat(ids(facetIndex.filter(priceFilter("3000000", "6000000")))).containsExactly(3, 4, 5);
+        assertThat(ids(facetIndex.filter(priceFilter(null, "2000000")))).containsExactly(1);
+        assertThat(ids(facetIndex.filter(priceFilter("9000000", null)))).containsExactly(9, 10);
+        assertThat(ids(facetIndex.filter(priceFilter("20000000", null)))).isEmpty();
+    }
+
+    @Test
+    void reindexedProductMovesToItsNewPrice() {
+        when(productRepository.findActiveById(4L)).thenReturn(Optional.of(product(4L, 9_500_000)));
+        facetIndex.reindex(4L);
+
+        assertThat(ids(facetIndex.filter(priceFilter("3000000", "6000000")))).containsExactly(3, 5);
+        assertThat(ids(facetIndex.filter(priceFilter("9000000", null)))).containsExactly(4, 9, 10);
+    }
+
+    @Test
+    void deletedProductLeavesThePriceIndex() {
+        when(productRepository.findActiveById(5L)).thenReturn(Optional.empty());
+        facetIndex.reindex(5L);
+
+        assertThat(ids(facetIndex.filter(priceFilter("3000000", "6000000")))).containsExactly(3, 4);
+    }
+
+    @Test
+    void newProductsAreInsertedInPriceOrder() {
+        for (long id = 11; id <= 40; id++) {
+            when(productRepository.findActiveById(id)).thenReturn(Optional.of(product(id, 5_000_000)));
+            facetIndex.reindex(id);
+        }
+
+        BitSet matching = facetIndex.filter(priceFilter("5000000", "6000000"));
+        assertThat(matching.cardinality()).isEqualTo(31);
+        assertThat(matching.get(5)).isTrue();
+        assertThat(matching.get(6)).isFalse();
+    }
+
+    @Test
+    void bulkReindexMovesUpdatedAndDropsDeletedProducts() {
+        // 3 moved, 4 deleted (not returned as active), 11 new
+        when(productRepository.findActiveByIdIn(Set.of(3L, 4L, 11L)))
+                .thenReturn(List.of(product(3L, 9_500_000), product(11L, 3_500_000)));
+        facetIndex.reindex(Set.of(3L, 4L, 11L));
+
+        assertThat(ids(facetIndex.filter(priceFilter("3000000", "6000000")))).containsExactly(5, 11);
+        assertThat(ids(facetIndex.filter(priceFilter("9000000", null)))).containsExactly(3, 9, 10);
+    }
+
+    private static ProductFilterRequest priceFilter(String minPrice, String maxPrice) {
+        return ProductFilterRequest.builder()
+                .minPrice(minPrice != null ? new BigDecimal(minPrice) : null)
+                .maxPrice(maxPrice != null ? new BigDecimal(maxPrice) : null)
+                .build();
+    }
+
+    private static List<Integer> ids(BitSet bits) {
+        return bits.stream().boxed().toList();
+    }
+
+    private static Product product(long id, long price) {
+        return Product.builder()
+                .productId(id)
+                .name("Product " + id)
+                .slug("product-" + id)
+                .defaultPrice(BigDecimal.valueOf(price))
+                .minPrice(BigDecimal.valueOf(price))
+                .isDeleted(false)
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.fptu.group1.service.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fptu.group1.common.event.OrderStatusChangedEvent;
+import com.fptu.group1.common.event.OutboxMessage;
+import com.fptu.group1.dto.response.OrderStatusEventResponse;
+import com.fptu.group1.repository.OutboxEventRepository;
+import com.fptu.group1.service.outbox.OutboxWriter;
+
+/**
+ * A client reconnecting while the order's status changes must get the missed changes
+ * and the live ones in event order, each once.
+ */
+class OrderStatusHubTest {
+
+    private static final Long ORDER_ID = 7L;
+    private static final Long USER_ID = 3L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final OrderStatusHub hub = new OrderStatusHub(objectMapper, outboxEventRepository, 10, 60_000, 1, 100);
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    @Test
+    void reconnectDuringStatusChangeKeepsEventOrder() throws JsonProcessingException {
+        OutboxMessage shipped = message(11L, 3L, "SHIPPED");
+        OutboxMessage delivered = message(12L, 4L, "DELIVERED");
+        // While the replay is read, the relay delivers the replayed change and a newer one
+        when(outboxEventRepository.findPublishedAfter(eq(OutboxWriter.ORDER_STATUS_CHANGED),
+                eq(OutboxWriter.AGGREGATE_ORDER), eq(ORDER_ID), anyLong(), anyInt())).thenAnswer(invocation -> {
+                    hub.onOutboxMessage(shipped);
+                    hub.onOutboxMessage(delivered);
+                    return List.of(shipped);
+                });
+
+        SseEmitter emitter = hub.subscribeOrder(ORDER_ID, 10L, () -> status(2L, "CONFIRMED"));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> sentStatuses(emitter).contains(4L));
+        assertThat(sentStatuses(emitter)).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void newSubscriberEndsOnChangesPublishedWhileTheStatusIsRead() {
+        SseEmitter emitter = hub.subscribeOrder(ORDER_ID, null, () -> {
+            try {
+                hub.onOutboxMessage(message(12L, 4L, "DELIVERED"));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+            return status(3L, "SHIPPED");
+        });
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> sentStatuses(emitter).contains(4L));
+        assertThat(sentStatuses(emitter)).containsExactly(3L, 4L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> sentStatuses(SseEmitter emitter) {
+        // Not attached to a response, so the emitter keeps what was sent to it
+        Collection<DataWithMediaType> sent = (Collection<DataWithMediaType>) ReflectionTestUtils.getField(emitter,
+                "earlySendAttempts");
+        synchronized (emitter) {
+            return sent.stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(OrderStatusEventResponse.class::isInstance)
+                    .map(data -> ((OrderStatusEventResponse) data).getStatusId())
+                    .toList();
+        }
+    }
+
+    private OutboxMessage message(Long eventId, Long statusId, String statusName) throws JsonProcessingException {
+        return new OutboxMessage(eventId, OutboxWriter.AGGREGATE_ORDER, ORDER_ID, OutboxWriter.ORDER_STATUS_CHANGED,
+                objectMapper.writeValueAsString(new OrderStatusChangedEvent(ORDER_ID, USER_ID, statusId, statusName)),
+                LocalDateTime.now());
+    }
+
+    private static OrderStatusEventResponse status(Long statusId, String statusName) {
+        return OrderStatusEventResponse.builder()
+                .orderId(ORDER_ID)
+                .statusId(statusId)
+                .statusName(statusName)
+                .build();
+    }
+}